@@ -0,0 +1,171 @@
+package io.github.martindes01.pickcard.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.martindes01.pickcard.Card;
+import io.github.martindes01.pickcard.ConcurrentPile;
+import io.github.martindes01.pickcard.Pile;
+import io.github.martindes01.pickcard.PileStorage;
+
+/**
+ * ConcurrentPileBenchmark is the JMH benchmark suite comparing draws from a shared shoe by many threads.
+ * <p>
+ * A {@link ConcurrentPile} is compared with a {@link Pile} guarded by a single lock, each drawn from by 32 threads at once.
+ * Each shoe holds 1048576 cards and is refilled by whichever thread finds it empty, so refills are included in the measurement.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see ConcurrentPile
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(32)
+public class ConcurrentPileBenchmark {
+
+	// Constants
+
+	/**
+	 * The number of cards in each shoe.
+	 */
+	private static final int SIZE = 1048576;
+
+
+	// States
+
+	/**
+	 * A lock-free shoe shared by all threads.
+	 */
+	@State(Scope.Benchmark)
+	public static class SharedConcurrentShoe {
+
+		/**
+		 * The pile under test.
+		 */
+		public ConcurrentPile pile;
+
+		/**
+		 * The cards with which the pile is refilled.
+		 */
+		public Pile cards;
+
+		/**
+		 * Builds the pile under test.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			cards = PileBenchmark.newPile(SIZE, PileStorage.ARRAY);
+			cards.shuffle(new SplittableRandom(SIZE));
+			pile = new ConcurrentPile(cards);
+		}
+
+	}
+
+	/**
+	 * A shoe shared by all threads and guarded by a single lock.
+	 */
+	@State(Scope.Benchmark)
+	public static class SharedLockedShoe {
+
+		/**
+		 * The pile under test, which is also its lock.
+		 */
+		public Pile pile;
+
+		/**
+		 * The cards with which the pile is refilled.
+		 */
+		public Pile cards;
+
+		/**
+		 * Builds the pile under test.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			cards = PileBenchmark.newPile(SIZE, PileStorage.ARRAY);
+			cards.shuffle(new SplittableRandom(SIZE));
+			pile = cards.copy();
+		}
+
+	}
+
+
+	// Card drawing
+
+	@Benchmark
+	public Card pickCardConcurrent(SharedConcurrentShoe shoe) {
+		while (true) {
+			try {
+				return shoe.pile.pickCard();
+			} catch (IndexOutOfBoundsException e) {
+				// Only one of the threads finding the shoe empty need refill it
+				synchronized (shoe) {
+					if (shoe.pile.size() == 0) {
+						shoe.pile.refill(shoe.cards.getList());
+					}
+				}
+			}
+		}
+	}
+
+	@Benchmark
+	public Pile pickCardsConcurrent(SharedConcurrentShoe shoe) {
+		Pile hand = shoe.pile.pickCards(5);
+		if (hand.size() == 0) {
+			synchronized (shoe) {
+				if (shoe.pile.size() == 0) {
+					shoe.pile.refill(shoe.cards.getList());
+				}
+			}
+		}
+		return hand;
+	}
+
+	@Benchmark
+	public Card pickCardLocked(SharedLockedShoe shoe) {
+		synchronized (shoe.pile) {
+			if (shoe.pile.size() == 0) {
+				shoe.pile.addCards(shoe.cards.getList());
+			}
+			return shoe.pile.pickCard();
+		}
+	}
+
+
+	// Runner
+
+	/**
+	 * Runs this benchmark suite.
+	 *
+	 * @param args - unused
+	 * @throws RunnerException if the benchmarks fail to run
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(ConcurrentPileBenchmark.class.getName())
+				.build();
+		new Runner(options).run();
+	}
+
+}
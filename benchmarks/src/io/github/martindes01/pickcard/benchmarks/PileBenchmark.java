@@ -0,0 +1,781 @@
+package io.github.martindes01.pickcard.benchmarks;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import io.github.martindes01.pickcard.Card;
+import io.github.martindes01.pickcard.CardComparator;
+import io.github.martindes01.pickcard.CardFormat;
+import io.github.martindes01.pickcard.DeckType;
+import io.github.martindes01.pickcard.PersistentPile;
+import io.github.martindes01.pickcard.Pile;
+import io.github.martindes01.pickcard.PileStorage;
+import io.github.martindes01.pickcard.Rank;
+import io.github.martindes01.pickcard.ShuffleMode;
+import io.github.martindes01.pickcard.Suit;
+
+/**
+ * PileBenchmark is the JMH benchmark suite for the public operations of {@link Pile}.
+ * <p>
+ * Each operation is measured on piles of 1, 52, 416 and 1048576 cards, built by repeating a standard deck.
+ * Most operations are measured for each kind of {@link PileStorage}.
+ * Operations that change the size of a pile are paired with their inverse so that the size of the pile is constant across invocations.
+ * Operations that destroy the state of a pile (deletion, sorting, reversal) are run on a fresh copy prepared before each invocation.
+ * <p>
+ * Throughput is reported in operations per second.
+ * The allocation rate is reported by the GC profiler, which is enabled by {@link #main(String[])} or by passing {@code -prof gc} to the JMH runner.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile
+ * @since 1.1
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PileBenchmark {
+
+	// States
+
+	/**
+	 * A pile of the benchmarked size which is shared across invocations.
+	 * Benchmarks using this state must leave the pile in the same state as they found it.
+	 */
+	@State(Scope.Thread)
+	public static class Shoe {
+
+		/**
+		 * The number of cards in the pile.
+		 */
+		@Param({ "1", "52", "416", "1048576" })
+		public int size;
+
+		/**
+		 * The kind of storage backing the pile.
+		 */
+		@Param({ "ARRAY", "GAP", "RING" })
+		public PileStorage storage;
+
+		/**
+		 * The pile under test.
+		 */
+		public Pile pile;
+
+		/**
+		 * A card present in the middle of the pile.
+		 */
+		public Card present;
+
+		/**
+		 * A card absent from the pile.
+		 */
+		public Card absent;
+
+		/**
+		 * A small hand of cards present in the pile.
+		 */
+		public ArrayList<Card> hand;
+
+		/**
+		 * Every card of one suit, face up and face down.
+		 */
+		public ArrayList<Card> suit;
+
+		/**
+		 * A seeded source of randomness for shuffling.
+		 */
+		public SplittableRandom random;
+
+		/**
+		 * A direct buffer large enough to hold the encoded pile.
+		 */
+		public ByteBuffer buffer;
+
+		/**
+		 * A direct buffer holding the encoded pile.
+		 */
+		public ByteBuffer encoded;
+
+		/**
+		 * Builds the pile under test.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			pile = newPile(size, storage);
+			present = pile.getCardAt(size / 2);
+			absent = Card.of(Suit.SPADES, Rank.ACE, true);
+			hand = new ArrayList<>(pile.getCardsAt(size / 2, 5).getList());
+			suit = suitOf(Suit.HEARTS);
+			random = new SplittableRandom(size);
+			buffer = ByteBuffer.allocateDirect(pile.encodedSize());
+			encoded = ByteBuffer.allocateDirect(pile.encodedSize());
+			pile.writeTo(encoded);
+		}
+
+	}
+
+	/**
+	 * A pile of the benchmarked size which is restored to its original state before each invocation.
+	 */
+	@State(Scope.Thread)
+	public static class FreshShoe {
+
+		/**
+		 * The number of cards in the pile.
+		 */
+		@Param({ "1", "52", "416", "1048576" })
+		public int size;
+
+		/**
+		 * The kind of storage backing the pile.
+		 */
+		@Param({ "ARRAY", "GAP", "RING" })
+		public PileStorage storage;
+
+		/**
+		 * The original pile, which is never modified.
+		 */
+		private Pile original;
+
+		/**
+		 * The pile under test.
+		 */
+		public Pile pile;
+
+		/**
+		 * A card present in the middle of the pile.
+		 */
+		public Card present;
+
+		/**
+		 * A small hand of cards present in the pile.
+		 */
+		public ArrayList<Card> hand;
+
+		/**
+		 * Every card of one suit, face up and face down.
+		 */
+		public ArrayList<Card> suit;
+
+		/**
+		 * Builds and shuffles the original pile.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			original = newPile(size, storage);
+			original.shuffle();
+			present = original.getCardAt(size / 2);
+			hand = new ArrayList<>(original.getCardsAt(size / 2, 5).getList());
+			suit = suitOf(Suit.HEARTS);
+		}
+
+		/**
+		 * Restores the pile under test from the original pile.
+		 */
+		@Setup(Level.Invocation)
+		public void restore() {
+			pile = new Pile(original.getList(), storage);
+		}
+
+	}
+
+	/**
+	 * An indexed pile of the benchmarked size which is shared across invocations.
+	 * Benchmarks using this state must leave the pile in the same state as they found it.
+	 */
+	@State(Scope.Thread)
+	public static class IndexedShoe {
+
+		/**
+		 * The number of cards in the pile.
+		 */
+		@Param({ "1", "52", "416", "1048576" })
+		public int size;
+
+		/**
+		 * The pile under test.
+		 */
+		public Pile pile;
+
+		/**
+		 * A card present in the middle of the pile.
+		 */
+		public Card present;
+
+		/**
+		 * A small hand of cards present in the pile.
+		 */
+		public ArrayList<Card> hand;
+
+		/**
+		 * Builds and indexes the pile under test.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			pile = newPile(size, PileStorage.ARRAY);
+			pile.setIndexed(true);
+			present = pile.getCardAt(size / 2);
+			hand = new ArrayList<>(pile.getCardsAt(size / 2, 5).getList());
+		}
+
+	}
+
+	/**
+	 * A pile of the benchmarked size which keeps a face bitmap and is shared across invocations.
+	 * Benchmarks using this state must leave the pile in a state of the same size.
+	 */
+	@State(Scope.Thread)
+	public static class BitmapShoe {
+
+		/**
+		 * The number of cards in the pile.
+		 */
+		@Param({ "1", "52", "416", "1048576" })
+		public int size;
+
+		/**
+		 * The pile under test.
+		 */
+		public Pile pile;
+
+		/**
+		 * Builds the pile under test with a face bitmap.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			pile = newPile(size, PileStorage.ARRAY);
+			pile.setFaceBitmap(true);
+		}
+
+	}
+
+	/**
+	 * A persistent snapshot of a pile of the benchmarked size.
+	 * The snapshot is immutable, so it is shared across invocations.
+	 */
+	@State(Scope.Thread)
+	public static class SnapshotShoe {
+
+		/**
+		 * The number of cards in the pile.
+		 */
+		@Param({ "1", "52", "416", "1048576" })
+		public int size;
+
+		/**
+		 * The mutable pile from which the snapshot is taken.
+		 */
+		public Pile pile;
+
+		/**
+		 * The snapshot under test.
+		 */
+		public PersistentPile snapshot;
+
+		/**
+		 * A card to be added to the snapshot.
+		 */
+		public Card card;
+
+		/**
+		 * Builds the pile and snapshot under test.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			pile = newPile(size, PileStorage.ARRAY);
+			snapshot = pile.snapshot();
+			card = pile.getCard();
+		}
+
+	}
+
+	/**
+	 * A pile of the benchmarked size which is rendered as a string.
+	 */
+	@State(Scope.Thread)
+	public static class RenderedShoe {
+
+		/**
+		 * The number of cards in the pile.
+		 */
+		@Param({ "1", "52", "416", "1048576" })
+		public int size;
+
+		/**
+		 * The pile under test.
+		 */
+		public Pile pile;
+
+		/**
+		 * The builder to which the pile is written, reused across invocations.
+		 */
+		public StringBuilder builder;
+
+		/**
+		 * Builds the pile under test.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			pile = newPile(size, PileStorage.ARRAY);
+			builder = new StringBuilder();
+		}
+
+	}
+
+	/**
+	 * A shuffled pile of the benchmarked size which is sorted by each card comparator.
+	 */
+	@State(Scope.Thread)
+	public static class SortedShoe {
+
+		/**
+		 * The number of cards in the pile.
+		 */
+		@Param({ "1", "52", "416", "1048576" })
+		public int size;
+
+		/**
+		 * The card comparator by which the pile is sorted.
+		 */
+		@Param
+		public CardComparator comparator;
+
+		/**
+		 * The original shuffled pile, which is never modified.
+		 */
+		private Pile original;
+
+		/**
+		 * The pile under test.
+		 */
+		public Pile pile;
+
+		/**
+		 * Builds and shuffles the original pile.
+		 */
+		@Setup(Level.Trial)
+		public void setUp() {
+			original = newPile(size, PileStorage.ARRAY);
+			original.shuffle();
+		}
+
+		/**
+		 * Restores the pile under test from the original shuffled pile.
+		 */
+		@Setup(Level.Invocation)
+		public void restore() {
+			pile = new Pile(original.getList());
+		}
+
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns a new pile of the specified size and storage, built by repeating a standard deck from the bottom up.
+	 *
+	 * @param size - number of cards in the returned pile
+	 * @param storage - kind of storage backing the returned pile
+	 * @return a new pile of the specified size and storage
+	 */
+	static Pile newPile(int size, PileStorage storage) {
+		Suit[] suits = Suit.values();
+		Rank[] ranks = Rank.values();
+		ArrayList<Card> cards = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			int j = i % (suits.length * ranks.length);
+			cards.add(Card.of(suits[j / ranks.length], ranks[j % ranks.length], false));
+		}
+		return new Pile(cards, storage);
+	}
+
+	/**
+	 * Returns every card of the specified suit, face up and face down.
+	 *
+	 * @param suit - suit of the returned cards
+	 * @return every card of the specified suit, face up and face down
+	 */
+	static ArrayList<Card> suitOf(Suit suit) {
+		ArrayList<Card> cards = new ArrayList<>();
+		for (Rank rank : Rank.values()) {
+			cards.add(Card.of(suit, rank, false));
+			cards.add(Card.of(suit, rank, true));
+		}
+		return cards;
+	}
+
+
+	// Card addition and removal
+
+	@Benchmark
+	public Card addCardThenPickCard(Shoe shoe) {
+		shoe.pile.addCard(shoe.present);
+		return shoe.pile.pickCard();
+	}
+
+	@Benchmark
+	public Card addCardAtThenPickCardAtBottom(Shoe shoe) {
+		shoe.pile.addCardAt(0, shoe.present);
+		return shoe.pile.pickCardAt(0);
+	}
+
+	@Benchmark
+	public Card addCardAtThenPickCardAtMiddle(Shoe shoe) {
+		int index = shoe.pile.size() / 2;
+		shoe.pile.addCardAt(index, shoe.present);
+		return shoe.pile.pickCardAt(index);
+	}
+
+	@Benchmark
+	public Pile addCardsThenPickCards(Shoe shoe) {
+		shoe.pile.addCards(shoe.hand);
+		return shoe.pile.pickCards(shoe.hand.size());
+	}
+
+	@Benchmark
+	public Pile addCardsAtThenPickCardsAtMiddle(Shoe shoe) {
+		int index = shoe.pile.size() / 2;
+		shoe.pile.addCardsAt(index, shoe.hand);
+		return shoe.pile.pickCardsAt(index, shoe.hand.size());
+	}
+
+	@Benchmark
+	public int pickCardsAtThenAddCardsAt(Shoe shoe) {
+		// The workload previously timed by Game.main
+		Pile picked = shoe.pile.pickCardsAt(2, 2);
+		return shoe.pile.addCardsAt(2, picked.getList());
+	}
+
+
+	// Card identification
+
+	@Benchmark
+	public Card getCard(Shoe shoe) {
+		return shoe.pile.getCard();
+	}
+
+	@Benchmark
+	public Card getCardAt(Shoe shoe) {
+		return shoe.pile.getCardAt(shoe.size / 2);
+	}
+
+	@Benchmark
+	public Pile getCards(Shoe shoe) {
+		return shoe.pile.getCards(5);
+	}
+
+	@Benchmark
+	public Pile getCardsAt(Shoe shoe) {
+		return shoe.pile.getCardsAt(shoe.size / 2, 5);
+	}
+
+	@Benchmark
+	public Card viewCards(Shoe shoe) {
+		return shoe.pile.viewCards(5).get(0);
+	}
+
+	@Benchmark
+	public Card viewCardsAt(Shoe shoe) {
+		return shoe.pile.viewCardsAt(shoe.size / 2, 5).get(0);
+	}
+
+
+	// Card inclusion and location
+
+	@Benchmark
+	public boolean containsCardPresent(Shoe shoe) {
+		return shoe.pile.containsCard(shoe.present);
+	}
+
+	@Benchmark
+	public boolean containsCardAbsent(Shoe shoe) {
+		return shoe.pile.containsCard(shoe.absent);
+	}
+
+	@Benchmark
+	public boolean containsCards(Shoe shoe) {
+		return shoe.pile.containsCards(shoe.hand);
+	}
+
+	@Benchmark
+	public boolean containsCardsOfSuit(Shoe shoe) {
+		return shoe.pile.containsCards(shoe.suit);
+	}
+
+	@Benchmark
+	public int highestIndexOf(Shoe shoe) {
+		return shoe.pile.highestIndexOf(shoe.present);
+	}
+
+	@Benchmark
+	public int highestIndexOfFromIndex(Shoe shoe) {
+		return shoe.pile.highestIndexOf(shoe.present, -1);
+	}
+
+	@Benchmark
+	public int lowestIndexOf(Shoe shoe) {
+		return shoe.pile.lowestIndexOf(shoe.present);
+	}
+
+	@Benchmark
+	public int lowestIndexOfFromIndex(Shoe shoe) {
+		return shoe.pile.lowestIndexOf(shoe.present, 1);
+	}
+
+	@Benchmark
+	public boolean indexedContainsCards(IndexedShoe shoe) {
+		return shoe.pile.containsCards(shoe.hand);
+	}
+
+	@Benchmark
+	public int indexedHighestIndexOf(IndexedShoe shoe) {
+		return shoe.pile.highestIndexOf(shoe.present);
+	}
+
+	@Benchmark
+	public int indexedLowestIndexOfFromIndex(IndexedShoe shoe) {
+		return shoe.pile.lowestIndexOf(shoe.present, 1);
+	}
+
+	@Benchmark
+	public Card indexedAddCardThenPickCard(IndexedShoe shoe) {
+		shoe.pile.addCard(shoe.present);
+		return shoe.pile.pickCard();
+	}
+
+	@Benchmark
+	public int size(Shoe shoe) {
+		return shoe.pile.size();
+	}
+
+
+	// Card deletion
+
+	@Benchmark
+	public boolean deleteAllOfType(FreshShoe shoe) {
+		return shoe.pile.deleteAllOfType(shoe.present);
+	}
+
+	@Benchmark
+	public boolean deleteAllOfTypes(FreshShoe shoe) {
+		return shoe.pile.deleteAllOfTypes(shoe.hand);
+	}
+
+	@Benchmark
+	public boolean deleteAllOfTypesOfSuit(FreshShoe shoe) {
+		return shoe.pile.deleteAllOfTypes(shoe.suit);
+	}
+
+	@Benchmark
+	public boolean deleteHighestOfType(FreshShoe shoe) {
+		return shoe.pile.deleteHighestOfType(shoe.present);
+	}
+
+	@Benchmark
+	public boolean deleteLowestOfType(FreshShoe shoe) {
+		return shoe.pile.deleteLowestOfType(shoe.present);
+	}
+
+
+	// Deck building
+
+	@Benchmark
+	public Pile standardDeck() {
+		return Pile.standardDeck();
+	}
+
+	@Benchmark
+	public Pile piquetDeck() {
+		return Pile.deck(DeckType.PIQUET);
+	}
+
+	@Benchmark
+	public Pile shuffledShoeThenPickCards(Shoe shoe) {
+		Pile fresh = Pile.shoe(DeckType.STANDARD, Math.max(1, shoe.size / 52), shoe.storage);
+		fresh.shuffle(shoe.random);
+		return fresh.pickCards(10);
+	}
+
+
+	// Pile copying and manipulation
+
+	@Benchmark
+	public Pile copy(Shoe shoe) {
+		return shoe.pile.copy();
+	}
+
+	@Benchmark
+	public PersistentPile snapshot(SnapshotShoe shoe) {
+		return shoe.pile.snapshot();
+	}
+
+	@Benchmark
+	public PersistentPile snapshotWithCardAtMiddle(SnapshotShoe shoe) {
+		return shoe.snapshot.withCardAt(shoe.size / 2, shoe.card);
+	}
+
+	@Benchmark
+	public PersistentPile snapshotWithoutCardAtMiddle(SnapshotShoe shoe) {
+		return shoe.snapshot.withoutCardAt(shoe.size / 2);
+	}
+
+	@Benchmark
+	public Card snapshotGetCardAt(SnapshotShoe shoe) {
+		return shoe.snapshot.getCardAt(shoe.size / 2);
+	}
+
+	@Benchmark
+	public Pile snapshotToPile(SnapshotShoe shoe) {
+		return shoe.snapshot.toPile();
+	}
+
+	@Benchmark
+	public Pile reverse(FreshShoe shoe) {
+		shoe.pile.reverse();
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public Pile setFaceUp(Shoe shoe) {
+		shoe.pile.setFaceUp(true);
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public Pile shuffle(Shoe shoe) {
+		shoe.pile.shuffle();
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public Pile shuffleWithSplittableRandom(Shoe shoe) {
+		shoe.pile.shuffle(shoe.random);
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public Pile shuffleOverhand(Shoe shoe) {
+		shoe.pile.shuffle(ShuffleMode.OVERHAND, shoe.random);
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public Pile shuffleRiffle(Shoe shoe) {
+		shoe.pile.shuffle(ShuffleMode.RIFFLE, shoe.random);
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public Pile sort(SortedShoe shoe) {
+		shoe.pile.sort(shoe.comparator);
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public Pile toggleFaceUp(Shoe shoe) {
+		shoe.pile.toggleFaceUp();
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public Pile bitmapSetFaceUp(BitmapShoe shoe) {
+		shoe.pile.setFaceUp(true);
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public Pile bitmapToggleFaceUp(BitmapShoe shoe) {
+		shoe.pile.toggleFaceUp();
+		return shoe.pile;
+	}
+
+	@Benchmark
+	public int countFaceUp(Shoe shoe) {
+		return shoe.pile.countFaceUp();
+	}
+
+	@Benchmark
+	public int bitmapCountFaceUp(BitmapShoe shoe) {
+		return shoe.pile.countFaceUp();
+	}
+
+
+	// Pile encoding
+
+	@Benchmark
+	public ByteBuffer writeToByteBuffer(Shoe shoe) {
+		shoe.buffer.clear();
+		shoe.pile.writeTo(shoe.buffer);
+		return shoe.buffer;
+	}
+
+	@Benchmark
+	public Pile readFromByteBuffer(Shoe shoe) {
+		shoe.encoded.rewind();
+		return Pile.readFrom(shoe.encoded, shoe.storage);
+	}
+
+
+	// Pile rendering
+
+	@Benchmark
+	public String renderToString(RenderedShoe shoe) {
+		return shoe.pile.toString();
+	}
+
+	@Benchmark
+	public StringBuilder writeVerbose(RenderedShoe shoe) throws IOException {
+		shoe.builder.setLength(0);
+		shoe.pile.writeTo(shoe.builder, CardFormat.VERBOSE);
+		return shoe.builder;
+	}
+
+	@Benchmark
+	public StringBuilder writeCompact(RenderedShoe shoe) throws IOException {
+		shoe.builder.setLength(0);
+		shoe.pile.writeTo(shoe.builder, CardFormat.COMPACT);
+		return shoe.builder;
+	}
+
+
+	// Runner
+
+	/**
+	 * Runs this benchmark suite with the GC profiler enabled, so that allocation rates are reported alongside throughput.
+	 *
+	 * @param args - ignored
+	 * @throws RunnerException if the benchmarks could not be run
+	 */
+	public static void main(String[] args) throws RunnerException {
+		Options options = new OptionsBuilder()
+				.include(PileBenchmark.class.getName())
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
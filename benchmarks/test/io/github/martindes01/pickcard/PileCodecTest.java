@@ -0,0 +1,246 @@
+package io.github.martindes01.pickcard;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Round trip tests of the binary format of piles written and read by {@link Pile} and {@link PackedPile}.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see PileCodec
+ * @since 1.1
+ */
+class PileCodecTest {
+
+	// Fixtures
+
+	/**
+	 * Returns a list of cards with {@code null} cards at the bottom, in the middle and at the top, and face up and face down cards between them.
+	 *
+	 * @return a list of cards containing {@code null} cards
+	 */
+	private static List<Card> cardsWithNulls() {
+		List<Card> cards = new ArrayList<>();
+		cards.add(null);
+		cards.add(Card.of(Suit.CLUBS, Rank.TWO, false));
+		cards.add(Card.of(Suit.HEARTS, Rank.QUEEN, true));
+		cards.add(null);
+		cards.add(null);
+		cards.add(Card.of(Suit.SPADES, Rank.ACE, true));
+		cards.add(Card.of(Suit.DIAMONDS, Rank.KING, false));
+		cards.add(null);
+		return cards;
+	}
+
+	/**
+	 * Returns a new buffer of the specified capacity, allocated directly or on the heap.
+	 *
+	 * @param capacity - the capacity of the buffer
+	 * @param direct - whether the buffer is direct
+	 * @return a new buffer of the specified capacity
+	 */
+	private static ByteBuffer allocate(int capacity, boolean direct) {
+		return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+	}
+
+
+	// Round trips
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void pileRoundTripKeepsNullCards(boolean direct) {
+		Pile pile = new Pile(cardsWithNulls());
+		ByteBuffer buffer = allocate(pile.encodedSize() + 3, direct);
+		buffer.position(3);
+		pile.writeTo(buffer);
+		assertEquals(3 + pile.encodedSize(), buffer.position());
+		buffer.flip().position(3);
+		for (PileStorage storage : PileStorage.values()) {
+			Pile read = Pile.readFrom(buffer.duplicate(), storage);
+			assertEquals(cardsWithNulls(), read.getList());
+			assertEquals(storage, read.getStorage());
+		}
+		Pile read = Pile.readFrom(buffer);
+		assertEquals(cardsWithNulls(), read.getList());
+		assertEquals(0, buffer.remaining());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void packedPileRoundTripKeepsNullCards(boolean direct) {
+		PackedPile pile = new PackedPile(cardsWithNulls());
+		ByteBuffer buffer = allocate(pile.encodedSize(), direct);
+		pile.writeTo(buffer);
+		assertEquals(0, buffer.remaining());
+		buffer.flip();
+		PackedPile read = PackedPile.readFrom(buffer);
+		assertEquals(cardsWithNulls(), read.toPile().getList());
+		assertEquals(0, buffer.remaining());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void pileAndPackedPileShareFormat(boolean direct) {
+		Pile pile = new Pile(cardsWithNulls());
+		PackedPile packed = new PackedPile(cardsWithNulls());
+		ByteBuffer fromPile = allocate(pile.encodedSize(), direct);
+		ByteBuffer fromPacked = allocate(packed.encodedSize(), direct);
+		pile.writeTo(fromPile);
+		packed.writeTo(fromPacked);
+		assertEquals(fromPile.flip(), fromPacked.flip());
+		assertEquals(cardsWithNulls(), PackedPile.readFrom(fromPile).toPile().getList());
+		assertEquals(cardsWithNulls(), Pile.readFrom(fromPacked).getList());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void emptyPileRoundTrip(boolean direct) {
+		ByteBuffer buffer = allocate(2 * PileCodec.HEADER_SIZE, direct);
+		new Pile().writeTo(buffer);
+		new PackedPile().writeTo(buffer);
+		assertEquals(2 * PileCodec.HEADER_SIZE, buffer.position());
+		buffer.flip();
+		assertEquals(0, Pile.readFrom(buffer).size());
+		assertEquals(0, PackedPile.readFrom(buffer).size());
+		assertEquals(0, buffer.remaining());
+	}
+
+	@Test
+	void consecutivePilesAreReadInOrder() {
+		Pile deck = Pile.standardDeck();
+		Pile nulls = new Pile(cardsWithNulls());
+		ByteBuffer buffer = ByteBuffer.allocate(deck.encodedSize() + nulls.encodedSize());
+		deck.writeTo(buffer);
+		nulls.writeTo(buffer);
+		buffer.flip();
+		assertEquals(deck.getList(), Pile.readFrom(buffer).getList());
+		assertEquals(nulls.getList(), Pile.readFrom(buffer).getList());
+	}
+
+
+	// Rejection
+
+	@ParameterizedTest
+	@ValueSource(booleans = { false, true })
+	void badVersionIsRejectedWithoutMovingBuffer(boolean direct) {
+		ByteBuffer buffer = allocate(Pile.standardDeck().encodedSize() + 2, direct);
+		buffer.position(2);
+		Pile.standardDeck().writeTo(buffer);
+		buffer.flip().position(2);
+		buffer.put(2, (byte) (PileCodec.VERSION + 1));
+		assertThrows(IllegalArgumentException.class, () -> Pile.readFrom(buffer));
+		assertEquals(2, buffer.position());
+		assertThrows(IllegalArgumentException.class, () -> PackedPile.readFrom(buffer));
+		assertEquals(2, buffer.position());
+	}
+
+	@ParameterizedTest
+	@ValueSource(bytes = { -2, 104, 127, -128 })
+	void badCardIsRejectedWithoutMovingBuffer(byte code) {
+		for (boolean direct : new boolean[] { false, true }) {
+			Pile pile = new Pile(cardsWithNulls());
+			ByteBuffer buffer = allocate(pile.encodedSize(), direct);
+			pile.writeTo(buffer);
+			buffer.flip();
+			// Corrupt the card in the middle of the pile
+			buffer.put(PileCodec.HEADER_SIZE + pile.size() / 2, code);
+			assertThrows(IllegalArgumentException.class, () -> Pile.readFrom(buffer));
+			assertEquals(0, buffer.position());
+			assertThrows(IllegalArgumentException.class, () -> PackedPile.readFrom(buffer));
+			assertEquals(0, buffer.position());
+		}
+	}
+
+	@Test
+	void negativeSizeIsRejectedWithoutMovingBuffer() {
+		ByteBuffer buffer = ByteBuffer.allocate(PileCodec.HEADER_SIZE);
+		buffer.put(0, PileCodec.VERSION).putInt(1, -1);
+		assertThrows(IllegalArgumentException.class, () -> Pile.readFrom(buffer));
+		assertEquals(0, buffer.position());
+	}
+
+	@Test
+	void truncatedPileIsRejectedWithoutMovingBuffer() {
+		Pile pile = new Pile(cardsWithNulls());
+		ByteBuffer buffer = ByteBuffer.allocate(pile.encodedSize());
+		pile.writeTo(buffer);
+		buffer.flip().limit(buffer.limit() - 1);
+		assertThrows(BufferUnderflowException.class, () -> Pile.readFrom(buffer));
+		assertEquals(0, buffer.position());
+		assertThrows(BufferUnderflowException.class, () -> PackedPile.readFrom(buffer));
+		assertEquals(0, buffer.position());
+		buffer.limit(PileCodec.HEADER_SIZE - 1);
+		assertThrows(BufferUnderflowException.class, () -> Pile.readFrom(buffer));
+		assertEquals(0, buffer.position());
+	}
+
+	@Test
+	void overflowingWriteLeavesBufferUnchanged() {
+		Pile pile = new Pile(cardsWithNulls());
+		ByteBuffer buffer = ByteBuffer.allocate(pile.encodedSize() - 1);
+		assertThrows(BufferOverflowException.class, () -> pile.writeTo(buffer));
+		assertThrows(BufferOverflowException.class, () -> new PackedPile(pile).writeTo(buffer));
+		assertEquals(0, buffer.position());
+		assertEquals(ByteBuffer.allocate(pile.encodedSize() - 1), buffer);
+	}
+
+
+	// Channels
+
+	@Test
+	void gatheringWriteToFileChannelRoundTrips(@TempDir Path directory) throws IOException {
+		Pile deck = Pile.standardDeck();
+		deck.setFaceUp(true);
+		Pile nulls = new Pile(cardsWithNulls());
+		PackedPile packed = new PackedPile(Pile.shoe(2));
+		ByteBuffer[] buffers = {
+			ByteBuffer.allocateDirect(deck.encodedSize()),
+			ByteBuffer.allocateDirect(nulls.encodedSize()),
+			ByteBuffer.allocate(packed.encodedSize()),
+		};
+		deck.writeTo(buffers[0]);
+		nulls.writeTo(buffers[1]);
+		packed.writeTo(buffers[2]);
+		long total = 0;
+		for (ByteBuffer buffer : buffers) {
+			total += buffer.flip().remaining();
+		}
+		Path file = directory.resolve("piles.bin");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+			long written = 0;
+			while (written < total) {
+				written += channel.write(buffers);
+			}
+		}
+		ByteBuffer buffer = ByteBuffer.allocateDirect((int) total);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// Read until the buffer is full
+			}
+		}
+		assertEquals(total, Files.size(file));
+		buffer.flip();
+		assertEquals(deck.getList(), Pile.readFrom(buffer).getList());
+		assertEquals(cardsWithNulls(), Pile.readFrom(buffer, PileStorage.RING).getList());
+		assertEquals(packed.toPile().getList(), PackedPile.readFrom(buffer).toPile().getList());
+		assertEquals(0, buffer.remaining());
+	}
+
+}
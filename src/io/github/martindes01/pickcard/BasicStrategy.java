@@ -0,0 +1,217 @@
+package io.github.martindes01.pickcard;
+
+/**
+ * BasicStrategy is the table of the best total-dependent actions of a blackjack player, given the rules of the game.
+ * <p>
+ * The tables are those of the common multi-deck basic strategy, adjusted for a dealer hitting soft 17, for doubling after splits and for late surrender.
+ * Each table is held as one string per player total, with one character per dealer up card from two to ace, so looking up an action allocates nothing.
+ * <p>
+ * The characters of the tables are:
+ * <ul>
+ * <li>{@code H} - hit
+ * <li>{@code S} - stand
+ * <li>{@code D} - double if allowed, otherwise hit
+ * <li>{@code d} - double if allowed, otherwise stand
+ * <li>{@code R} - surrender if allowed, otherwise hit
+ * <li>{@code r} - surrender if allowed, otherwise stand
+ * <li>{@code P} - split
+ * <li>{@code p} - split if doubling after a split is allowed, otherwise play as a total
+ * <li>{@code N} - play as a total
+ * </ul>
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see BlackjackAction
+ * @since 1.1
+ */
+public final class BasicStrategy {
+
+	// Constants
+
+	/**
+	 * The hard totals from 4 to 21, when the dealer stands on soft 17.
+	 */
+	private static final String[] HARD = {
+		"HHHHHHHHHH", // 4
+		"HHHHHHHHHH", // 5
+		"HHHHHHHHHH", // 6
+		"HHHHHHHHHH", // 7
+		"HHHHHHHHHH", // 8
+		"HDDDDHHHHH", // 9
+		"DDDDDDDDHH", // 10
+		"DDDDDDDDDH", // 11
+		"HHSSSHHHHH", // 12
+		"SSSSSHHHHH", // 13
+		"SSSSSHHHHH", // 14
+		"SSSSSHHHRH", // 15
+		"SSSSSHHRRR", // 16
+		"SSSSSSSSSS", // 17
+		"SSSSSSSSSS", // 18
+		"SSSSSSSSSS", // 19
+		"SSSSSSSSSS", // 20
+		"SSSSSSSSSS", // 21
+	};
+
+	/**
+	 * The soft totals from 12 to 21, when the dealer stands on soft 17.
+	 */
+	private static final String[] SOFT = {
+		"HHHHHHHHHH", // 12
+		"HHHDDHHHHH", // 13
+		"HHHDDHHHHH", // 14
+		"HHDDDHHHHH", // 15
+		"HHDDDHHHHH", // 16
+		"HDDDDHHHHH", // 17
+		"SddddSSHHH", // 18
+		"SSSSSSSSSS", // 19
+		"SSSSSSSSSS", // 20
+		"SSSSSSSSSS", // 21
+	};
+
+	/**
+	 * The pairs from aces to tens.
+	 */
+	private static final String[] PAIRS = {
+		"PPPPPPPPPP", // A-A
+		"ppPPPPNNNN", // 2-2
+		"ppPPPPNNNN", // 3-3
+		"NNNppNNNNN", // 4-4
+		"NNNNNNNNNN", // 5-5
+		"pPPPPNNNNN", // 6-6
+		"PPPPPPNNNN", // 7-7
+		"PPPPPPPPPP", // 8-8
+		"PPPPPSPPSS", // 9-9
+		"NNNNNNNNNN", // T-T
+	};
+
+	/**
+	 * The lowest hard total in {@link #HARD}.
+	 */
+	private static final int HARD_MIN = 4;
+
+	/**
+	 * The lowest soft total in {@link #SOFT}.
+	 */
+	private static final int SOFT_MIN = 12;
+
+
+	// Fields
+
+	/**
+	 * The hard totals, by total and dealer up card.
+	 */
+	private final char[][] hard;
+
+	/**
+	 * The soft totals, by total and dealer up card.
+	 */
+	private final char[][] soft;
+
+	/**
+	 * The pairs, by value and dealer up card.
+	 */
+	private final char[][] pairs;
+
+	/**
+	 * Whether doubling after a split is allowed.
+	 */
+	private final boolean doubleAfterSplit;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new basic strategy for the specified rules.
+	 *
+	 * @param rules - the rules of the game
+	 */
+	private BasicStrategy(BlackjackRules rules) {
+		hard = toTable(HARD);
+		soft = toTable(SOFT);
+		pairs = toTable(PAIRS);
+		if (rules.isDealerHitsSoft17()) {
+			// Double 11 against an ace, double soft 18 against a two and soft 19 against a six, and surrender 15 and 17 against an ace
+			hard[11 - HARD_MIN][9] = 'D';
+			hard[15 - HARD_MIN][9] = 'R';
+			hard[17 - HARD_MIN][9] = 'r';
+			soft[18 - SOFT_MIN][0] = 'd';
+			soft[19 - SOFT_MIN][4] = 'd';
+		}
+		doubleAfterSplit = rules.isDoubleAfterSplit();
+	}
+
+
+	// Factories
+
+	/**
+	 * Returns the basic strategy for the specified rules.
+	 *
+	 * @param rules - the rules of the game
+	 * @return the basic strategy for the specified rules
+	 */
+	public static BasicStrategy of(BlackjackRules rules) {
+		return new BasicStrategy(rules);
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the specified rows as a table of characters.
+	 *
+	 * @param rows - the rows of the table
+	 * @return the table of characters
+	 */
+	private static char[][] toTable(String[] rows) {
+		char[][] table = new char[rows.length][];
+		for (int i = 0; i < rows.length; i++) {
+			table[i] = rows[i].toCharArray();
+		}
+		return table;
+	}
+
+
+	// Strategy
+
+	/**
+	 * Returns the basic strategy action for the specified hand against the specified dealer up card.
+	 * Any action which is not allowed is replaced by its fallback in the tables.
+	 *
+	 * @param total - the best total of the hand, counting an ace as 11 if it does not bust the hand
+	 * @param soft - whether the total counts an ace as 11
+	 * @param pair - the value of each card if the hand is a pair, from {@code 1} for aces to {@code 10}, or {@code 0}
+	 * @param canDouble - whether the hand may be doubled
+	 * @param canSplit - whether the hand may be split
+	 * @param canSurrender - whether the hand may be surrendered
+	 * @param dealerUp - the value of the up card of the dealer, from {@code 1} for an ace to {@code 10}
+	 * @return the basic strategy action
+	 */
+	public BlackjackAction getAction(int total, boolean soft, int pair, boolean canDouble, boolean canSplit, boolean canSurrender, int dealerUp) {
+		int column = dealerUp == 1 ? 9 : dealerUp - 2;
+		if (pair != 0 && canSplit) {
+			char split = pairs[pair - 1][column];
+			if (split == 'P' || split == 'p' && doubleAfterSplit) {
+				return BlackjackAction.SPLIT;
+			}
+		}
+		if (total >= 21) {
+			return BlackjackAction.STAND;
+		}
+		char action = soft ? this.soft[total - SOFT_MIN][column] : hard[Math.max(total, HARD_MIN) - HARD_MIN][column];
+		switch (action) {
+			case 'S':
+				return BlackjackAction.STAND;
+			case 'D':
+				return canDouble ? BlackjackAction.DOUBLE : BlackjackAction.HIT;
+			case 'd':
+				return canDouble ? BlackjackAction.DOUBLE : BlackjackAction.STAND;
+			case 'R':
+				return canSurrender ? BlackjackAction.SURRENDER : BlackjackAction.HIT;
+			case 'r':
+				return canSurrender ? BlackjackAction.SURRENDER : BlackjackAction.STAND;
+			default:
+				return BlackjackAction.HIT;
+		}
+	}
+
+}
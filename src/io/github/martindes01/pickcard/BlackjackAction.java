@@ -0,0 +1,47 @@
+package io.github.martindes01.pickcard;
+
+/**
+ * BlackjackAction is the public enumeration of the actions a player may take on a hand of blackjack.
+ * <p>
+ * The available enum constants are:
+ * <ul>
+ * <li>{@link #HIT}
+ * <li>{@link #STAND}
+ * <li>{@link #DOUBLE}
+ * <li>{@link #SPLIT}
+ * <li>{@link #SURRENDER}
+ * </ul>
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see BasicStrategy
+ * @since 1.1
+ */
+public enum BlackjackAction {
+
+	/**
+	 * Takes another card.
+	 */
+	HIT,
+
+	/**
+	 * Takes no more cards.
+	 */
+	STAND,
+
+	/**
+	 * Doubles the bet and takes exactly one more card.
+	 */
+	DOUBLE,
+
+	/**
+	 * Splits a pair into two hands, each with the original bet, and deals a second card to each.
+	 */
+	SPLIT,
+
+	/**
+	 * Forfeits half the bet and ends the hand.
+	 */
+	SURRENDER;
+
+}
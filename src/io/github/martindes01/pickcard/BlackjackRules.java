@@ -0,0 +1,252 @@
+package io.github.martindes01.pickcard;
+
+/**
+ * BlackjackRules is an immutable set of the rule variations of a game of blackjack.
+ * <p>
+ * The dealer peeks for blackjack when showing an ace or a ten-valued card, so a player loses only the original bet to a dealer blackjack, and surrender, where offered, is late surrender.
+ * Split aces receive one card each and may not be split again, and a two card 21 after a split is not a blackjack.
+ * Rules are changed by the {@code with} methods, each of which returns a new set of rules.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see BlackjackSimulator
+ * @since 1.1
+ */
+public final class BlackjackRules {
+
+	// Constants
+
+	/**
+	 * The common six deck game: dealer stands on soft 17, blackjack pays 3 to 2, double after split, no surrender, splits to four hands, and 75% penetration.
+	 */
+	public static final BlackjackRules STANDARD = new BlackjackRules(6, 0.75, false, 1.5, true, false, 4);
+
+
+	// Fields
+
+	/**
+	 * The number of decks in the shoe.
+	 */
+	private final int decks;
+
+	/**
+	 * The fraction of the shoe dealt before it is reshuffled.
+	 */
+	private final double penetration;
+
+	/**
+	 * Whether the dealer hits soft 17.
+	 */
+	private final boolean dealerHitsSoft17;
+
+	/**
+	 * The amount won per unit bet on a player blackjack.
+	 */
+	private final double blackjackPayout;
+
+	/**
+	 * Whether a hand may be doubled after a split.
+	 */
+	private final boolean doubleAfterSplit;
+
+	/**
+	 * Whether late surrender is offered.
+	 */
+	private final boolean surrender;
+
+	/**
+	 * The maximum number of hands a player may split into.
+	 */
+	private final int maxHands;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new set of rules.
+	 *
+	 * @param decks - the number of decks in the shoe
+	 * @param penetration - the fraction of the shoe dealt before it is reshuffled
+	 * @param dealerHitsSoft17 - whether the dealer hits soft 17
+	 * @param blackjackPayout - the amount won per unit bet on a player blackjack
+	 * @param doubleAfterSplit - whether a hand may be doubled after a split
+	 * @param surrender - whether late surrender is offered
+	 * @param maxHands - the maximum number of hands a player may split into
+	 * @throws IllegalArgumentException if {@code decks} or {@code maxHands} is not positive, or {@code penetration} is not between {@code 0} exclusive and {@code 1} inclusive
+	 */
+	private BlackjackRules(int decks, double penetration, boolean dealerHitsSoft17, double blackjackPayout, boolean doubleAfterSplit, boolean surrender, int maxHands) {
+		if (decks <= 0) {
+			throw new IllegalArgumentException("Non-positive number of decks: " + decks);
+		}
+		if (!(penetration > 0 && penetration <= 1)) {
+			throw new IllegalArgumentException("Penetration out of range: " + penetration);
+		}
+		if (maxHands <= 0) {
+			throw new IllegalArgumentException("Non-positive maximum number of hands: " + maxHands);
+		}
+		this.decks = decks;
+		this.penetration = penetration;
+		this.dealerHitsSoft17 = dealerHitsSoft17;
+		this.blackjackPayout = blackjackPayout;
+		this.doubleAfterSplit = doubleAfterSplit;
+		this.surrender = surrender;
+		this.maxHands = maxHands;
+	}
+
+
+	// Rule variation
+
+	/**
+	 * Returns these rules with the specified number of decks in the shoe.
+	 *
+	 * @param decks - the number of decks in the shoe
+	 * @return these rules with the specified number of decks
+	 * @throws IllegalArgumentException if {@code decks} is not positive
+	 */
+	public BlackjackRules withDecks(int decks) {
+		return new BlackjackRules(decks, penetration, dealerHitsSoft17, blackjackPayout, doubleAfterSplit, surrender, maxHands);
+	}
+
+	/**
+	 * Returns these rules with the specified fraction of the shoe dealt before it is reshuffled.
+	 * The shoe is reshuffled before the first round which would start beyond the cut card.
+	 *
+	 * @param penetration - the fraction of the shoe dealt before it is reshuffled
+	 * @return these rules with the specified penetration
+	 * @throws IllegalArgumentException if {@code penetration} is not between {@code 0} exclusive and {@code 1} inclusive
+	 */
+	public BlackjackRules withPenetration(double penetration) {
+		return new BlackjackRules(decks, penetration, dealerHitsSoft17, blackjackPayout, doubleAfterSplit, surrender, maxHands);
+	}
+
+	/**
+	 * Returns these rules with the dealer hitting or standing on soft 17.
+	 *
+	 * @param dealerHitsSoft17 - whether the dealer hits soft 17
+	 * @return these rules with the dealer hitting or standing on soft 17
+	 */
+	public BlackjackRules withDealerHitsSoft17(boolean dealerHitsSoft17) {
+		return new BlackjackRules(decks, penetration, dealerHitsSoft17, blackjackPayout, doubleAfterSplit, surrender, maxHands);
+	}
+
+	/**
+	 * Returns these rules with the specified payout on a player blackjack, such as {@code 1.5} for 3 to 2 or {@code 1.2} for 6 to 5.
+	 *
+	 * @param blackjackPayout - the amount won per unit bet on a player blackjack
+	 * @return these rules with the specified blackjack payout
+	 */
+	public BlackjackRules withBlackjackPayout(double blackjackPayout) {
+		return new BlackjackRules(decks, penetration, dealerHitsSoft17, blackjackPayout, doubleAfterSplit, surrender, maxHands);
+	}
+
+	/**
+	 * Returns these rules with doubling after a split allowed or not.
+	 *
+	 * @param doubleAfterSplit - whether a hand may be doubled after a split
+	 * @return these rules with doubling after a split allowed or not
+	 */
+	public BlackjackRules withDoubleAfterSplit(boolean doubleAfterSplit) {
+		return new BlackjackRules(decks, penetration, dealerHitsSoft17, blackjackPayout, doubleAfterSplit, surrender, maxHands);
+	}
+
+	/**
+	 * Returns these rules with late surrender offered or not.
+	 *
+	 * @param surrender - whether late surrender is offered
+	 * @return these rules with late surrender offered or not
+	 */
+	public BlackjackRules withSurrender(boolean surrender) {
+		return new BlackjackRules(decks, penetration, dealerHitsSoft17, blackjackPayout, doubleAfterSplit, surrender, maxHands);
+	}
+
+	/**
+	 * Returns these rules with the specified maximum number of hands after splits.
+	 *
+	 * @param maxHands - the maximum number of hands a player may split into
+	 * @return these rules with the specified maximum number of hands
+	 * @throws IllegalArgumentException if {@code maxHands} is not positive
+	 */
+	public BlackjackRules withMaxHands(int maxHands) {
+		return new BlackjackRules(decks, penetration, dealerHitsSoft17, blackjackPayout, doubleAfterSplit, surrender, maxHands);
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the number of decks in the shoe.
+	 *
+	 * @return the number of decks in the shoe
+	 */
+	public int getDecks() {
+		return decks;
+	}
+
+	/**
+	 * Returns the fraction of the shoe dealt before it is reshuffled.
+	 *
+	 * @return the penetration
+	 */
+	public double getPenetration() {
+		return penetration;
+	}
+
+	/**
+	 * Returns {@code true} if the dealer hits soft 17.
+	 *
+	 * @return {@code true} if the dealer hits soft 17
+	 */
+	public boolean isDealerHitsSoft17() {
+		return dealerHitsSoft17;
+	}
+
+	/**
+	 * Returns the amount won per unit bet on a player blackjack.
+	 *
+	 * @return the blackjack payout
+	 */
+	public double getBlackjackPayout() {
+		return blackjackPayout;
+	}
+
+	/**
+	 * Returns {@code true} if a hand may be doubled after a split.
+	 *
+	 * @return {@code true} if a hand may be doubled after a split
+	 */
+	public boolean isDoubleAfterSplit() {
+		return doubleAfterSplit;
+	}
+
+	/**
+	 * Returns {@code true} if late surrender is offered.
+	 *
+	 * @return {@code true} if late surrender is offered
+	 */
+	public boolean isSurrender() {
+		return surrender;
+	}
+
+	/**
+	 * Returns the maximum number of hands a player may split into.
+	 *
+	 * @return the maximum number of hands
+	 */
+	public int getMaxHands() {
+		return maxHands;
+	}
+
+
+	// Overrides
+
+	/**
+	 * Returns a string representation of these rules.
+	 *
+	 * @return a string representation of these rules
+	 */
+	@Override
+	public String toString() {
+		return decks + " decks, " + Math.round(penetration * 100) + "% penetration, " + (dealerHitsSoft17 ? "H17" : "S17") + ", blackjack pays " + blackjackPayout + (doubleAfterSplit ? ", DAS" : "") + (surrender ? ", late surrender" : "") + ", split to " + maxHands + " hands";
+	}
+
+}
@@ -0,0 +1,499 @@
+package io.github.martindes01.pickcard;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * BlackjackSimulator is the parallel simulator of rounds of blackjack, from which the house edge of a set of rules is estimated.
+ * <p>
+ * A single player plays each round with an initial bet of one unit against the dealer, following a {@link BasicStrategy}.
+ * Cards are scored by {@link Rank#getValue()}, with ten-valued cards counted as 10 and an ace as 1 or 11.
+ * The shoe is reshuffled before the first round which would start beyond the penetration of the rules.
+ * A running count of the specified {@link CountSystem} is kept as cards are seen, the dealer's hole card being seen when it is turned over, and each round is tallied by the index of the count at its start.
+ * <p>
+ * Work is split across a {@link ForkJoinPool}, as for {@link EquityCalculator}.
+ * Each task plays its rounds through shoes of its own, and a {@link SplittableRandom} seeded with the specified seed is split along with the work, so the result for a given seed does not depend on the number of threads or on scheduling.
+ * A shoe is held as one byte per card value and shuffled in place, so no cards or piles are allocated per round, and each task tallies its own {@link BlackjackStatistics}, which are merged as tasks complete.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see BlackjackStatistics
+ * @since 1.1
+ */
+public final class BlackjackSimulator {
+
+	// Constants
+
+	/**
+	 * The maximum number of rounds played by a single task before it is split.
+	 * Tasks are large so that the shoes cut short at the end of each task are too few to bias the result.
+	 */
+	private static final long THRESHOLD = 1 << 20;
+
+
+	// Fields
+
+	/**
+	 * The pool in which simulations are run.
+	 * This is a reference to a thread-safe object.
+	 */
+	private final ForkJoinPool pool;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new blackjack simulator which runs simulations in the common pool.
+	 *
+	 * @see ForkJoinPool#commonPool()
+	 */
+	public BlackjackSimulator() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a new blackjack simulator which runs simulations in the specified pool.
+	 *
+	 * @param pool - the pool in which simulations are run
+	 */
+	public BlackjackSimulator(ForkJoinPool pool) {
+		this.pool = Objects.requireNonNull(pool);
+	}
+
+
+	// Simulation
+
+	/**
+	 * Simulates the specified number of rounds under the specified rules, following their basic strategy and keeping a Hi-Lo count, reproducibly for the specified seed.
+	 *
+	 * @param rules - the rules of the game
+	 * @param rounds - the number of rounds to play
+	 * @param seed - the seed from which shoes are shuffled
+	 * @return the statistics of the rounds played
+	 * @throws IllegalArgumentException if {@code rounds} is not positive
+	 */
+	public BlackjackStatistics simulate(BlackjackRules rules, long rounds, long seed) {
+		return simulate(rules, BasicStrategy.of(rules), CountSystem.HI_LO, rounds, seed);
+	}
+
+	/**
+	 * Simulates the specified number of rounds under the specified rules, following the specified strategy and keeping a count of the specified system, reproducibly for the specified seed.
+	 *
+	 * @param rules - the rules of the game
+	 * @param strategy - the strategy of the player
+	 * @param system - the count system by whose index rounds are tallied
+	 * @param rounds - the number of rounds to play
+	 * @param seed - the seed from which shoes are shuffled
+	 * @return the statistics of the rounds played
+	 * @throws IllegalArgumentException if {@code rounds} is not positive
+	 */
+	public BlackjackStatistics simulate(BlackjackRules rules, BasicStrategy strategy, CountSystem system, long rounds, long seed) {
+		if (rounds <= 0) {
+			throw new IllegalArgumentException("Non-positive number of rounds: " + rounds);
+		}
+		// Build one shoe of card values from the standard deck template
+		List<Card> deck = DeckType.STANDARD.getCards();
+		byte[] shoe = new byte[deck.size() * rules.getDecks()];
+		for (int i = 0; i < shoe.length; i++) {
+			shoe[i] = (byte) Math.min(deck.get(i % deck.size()).getRank().getValue(), 10);
+		}
+		return pool.invoke(new SimulationTask(new Setup(rules, strategy, system, shoe), rounds, new SplittableRandom(seed)));
+	}
+
+
+	// Tasks
+
+	/**
+	 * The validated rules, strategy, count system and unshuffled shoe of a simulation.
+	 */
+	private static final class Setup {
+
+		/**
+		 * The rules of the game.
+		 */
+		final BlackjackRules rules;
+
+		/**
+		 * The strategy of the player.
+		 */
+		final BasicStrategy strategy;
+
+		/**
+		 * The count system by whose index rounds are tallied.
+		 */
+		final CountSystem system;
+
+		/**
+		 * The values of the cards of an unshuffled shoe.
+		 * This array is never modified.
+		 */
+		final byte[] shoe;
+
+		/**
+		 * Constructs a new setup.
+		 *
+		 * @param rules - the rules of the game
+		 * @param strategy - the strategy of the player
+		 * @param system - the count system by whose index rounds are tallied
+		 * @param shoe - the values of the cards of an unshuffled shoe
+		 */
+		Setup(BlackjackRules rules, BasicStrategy strategy, CountSystem system, byte[] shoe) {
+			this.rules = Objects.requireNonNull(rules);
+			this.strategy = Objects.requireNonNull(strategy);
+			this.system = Objects.requireNonNull(system);
+			this.shoe = shoe;
+		}
+
+	}
+
+	/**
+	 * A table at which rounds are played through a shoe of its own.
+	 */
+	private static final class Table {
+
+		/**
+		 * The state of a hand which stood.
+		 */
+		private static final byte STOOD = 0;
+
+		/**
+		 * The state of a hand which busted.
+		 */
+		private static final byte BUST = 1;
+
+		/**
+		 * The state of a hand which was surrendered.
+		 */
+		private static final byte SURRENDERED = 2;
+
+		/**
+		 * The setup of the simulation.
+		 */
+		private final Setup setup;
+
+		/**
+		 * The source of randomness of the shuffles.
+		 */
+		private final SplittableRandom random;
+
+		/**
+		 * The values of the cards in the shoe, in the order in which they are dealt.
+		 */
+		private final byte[] shoe;
+
+		/**
+		 * The tag of each card value.
+		 */
+		private final int[] tags = new int[11];
+
+		/**
+		 * The position in the shoe before which a round may start.
+		 */
+		private final int cut;
+
+		/**
+		 * The position in the shoe of the next card to be dealt.
+		 */
+		private int position;
+
+		/**
+		 * The running count.
+		 */
+		private int runningCount;
+
+		/**
+		 * The total of each hand, counting aces as 1.
+		 */
+		private final int[] totals;
+
+		/**
+		 * The number of aces in each hand.
+		 */
+		private final int[] aces;
+
+		/**
+		 * The number of cards in each hand.
+		 */
+		private final int[] cards;
+
+		/**
+		 * The value of the first card of each hand.
+		 */
+		private final int[] firsts;
+
+		/**
+		 * The bet on each hand.
+		 */
+		private final double[] bets;
+
+		/**
+		 * The state of each hand once played.
+		 */
+		private final byte[] states;
+
+		/**
+		 * Constructs a new table with a shuffled shoe.
+		 *
+		 * @param setup - the setup of the simulation
+		 * @param random - the source of randomness of the shuffles
+		 */
+		Table(Setup setup, SplittableRandom random) {
+			this.setup = setup;
+			this.random = random;
+			this.shoe = setup.shoe.clone();
+			for (int value = 1; value < tags.length; value++) {
+				tags[value] = setup.system.getTag(value);
+			}
+			this.cut = (int) Math.min(shoe.length - 1, Math.round(shoe.length * setup.rules.getPenetration()));
+			int maxHands = setup.rules.getMaxHands();
+			totals = new int[maxHands];
+			aces = new int[maxHands];
+			cards = new int[maxHands];
+			firsts = new int[maxHands];
+			bets = new double[maxHands];
+			states = new byte[maxHands];
+			shuffle();
+		}
+
+		/**
+		 * Shuffles the whole shoe and resets the running count.
+		 */
+		private void shuffle() {
+			for (int i = shoe.length - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				byte value = shoe[i];
+				shoe[i] = shoe[j];
+				shoe[j] = value;
+			}
+			position = 0;
+			runningCount = setup.system.getInitialCount(setup.rules.getDecks());
+		}
+
+		/**
+		 * Deals the next card face down, without counting it.
+		 * If the shoe runs out during a round, which happens only with a penetration near {@code 1}, the whole shoe is reshuffled.
+		 *
+		 * @return the value of the card
+		 */
+		private int dealDown() {
+			if (position == shoe.length) {
+				shuffle();
+			}
+			return shoe[position++];
+		}
+
+		/**
+		 * Deals the next card face up and counts it.
+		 *
+		 * @return the value of the card
+		 */
+		private int deal() {
+			int value = dealDown();
+			runningCount += tags[value];
+			return value;
+		}
+
+		/**
+		 * Adds a card face up to the specified hand.
+		 *
+		 * @param hand - the index of the hand
+		 */
+		private void hit(int hand) {
+			int value = deal();
+			totals[hand] += value;
+			if (value == 1) {
+				aces[hand]++;
+			}
+			cards[hand]++;
+		}
+
+		/**
+		 * Returns the best total of the specified hand, counting an ace as 11 if it does not bust the hand.
+		 *
+		 * @param hand - the index of the hand
+		 * @return the best total of the hand
+		 */
+		private int best(int hand) {
+			int total = totals[hand];
+			return aces[hand] > 0 && total + 10 <= 21 ? total + 10 : total;
+		}
+
+		/**
+		 * Starts the specified hand with a single card of the specified value, as after a split.
+		 *
+		 * @param hand - the index of the hand
+		 * @param value - the value of the card
+		 */
+		private void start(int hand, int value) {
+			totals[hand] = value;
+			aces[hand] = value == 1 ? 1 : 0;
+			cards[hand] = 1;
+			firsts[hand] = value;
+			bets[hand] = 1;
+		}
+
+		/**
+		 * Plays a round and tallies it in the specified statistics.
+		 *
+		 * @param statistics - the statistics in which the round is tallied
+		 */
+		void play(BlackjackStatistics statistics) {
+			BlackjackRules rules = setup.rules;
+			if (position >= cut) {
+				shuffle();
+			}
+			int index = setup.system.getIndex(runningCount, shoe.length - position);
+			int first = deal();
+			int up = deal();
+			int second = deal();
+			int hole = dealDown();
+			boolean playerBlackjack = first + second == 11 && (first == 1 || second == 1);
+			boolean dealerBlackjack = up + hole == 11 && (up == 1 || hole == 1);
+			if (playerBlackjack || dealerBlackjack) {
+				// Settled at once, since the dealer peeks
+				runningCount += tags[hole];
+				double result = dealerBlackjack ? (playerBlackjack ? 0 : -1) : rules.getBlackjackPayout();
+				statistics.recordHand(result, !dealerBlackjack, false);
+				statistics.recordRound(result, 1, index);
+				return;
+			}
+			start(0, first);
+			totals[0] += second;
+			aces[0] += second == 1 ? 1 : 0;
+			cards[0] = 2;
+			int hands = 1;
+			boolean standing = false;
+			for (int hand = 0; hand < hands; hand++) {
+				if (cards[hand] == 1) {
+					hit(hand);
+				}
+				boolean splitAces = hands > 1 && firsts[hand] == 1;
+				while (true) {
+					int best = best(hand);
+					if (best > 21) {
+						states[hand] = BUST;
+						break;
+					} else if (best == 21 || splitAces) {
+						states[hand] = STOOD;
+						break;
+					}
+					boolean two = cards[hand] == 2;
+					int pair = two && totals[hand] == 2 * firsts[hand] ? firsts[hand] : 0;
+					boolean split = hands > 1;
+					BlackjackAction action = setup.strategy.getAction(best, best != totals[hand], pair, two && (!split || rules.isDoubleAfterSplit()), pair != 0 && hands < rules.getMaxHands(), two && !split && rules.isSurrender(), up);
+					if (action == BlackjackAction.HIT) {
+						hit(hand);
+					} else if (action == BlackjackAction.DOUBLE) {
+						bets[hand] *= 2;
+						hit(hand);
+						states[hand] = best(hand) > 21 ? BUST : STOOD;
+						break;
+					} else if (action == BlackjackAction.SPLIT) {
+						start(hands++, pair);
+						start(hand, pair);
+						hit(hand);
+						splitAces = pair == 1;
+					} else if (action == BlackjackAction.SURRENDER) {
+						states[hand] = SURRENDERED;
+						break;
+					} else {
+						states[hand] = STOOD;
+						break;
+					}
+				}
+				standing |= states[hand] == STOOD;
+			}
+			// Turn over the hole card, and draw only if a hand is still standing
+			runningCount += tags[hole];
+			int dealerTotal = up + hole;
+			int dealerAces = (up == 1 ? 1 : 0) + (hole == 1 ? 1 : 0);
+			int dealerBest = 0;
+			while (standing) {
+				boolean soft = dealerAces > 0 && dealerTotal + 10 <= 21;
+				dealerBest = soft ? dealerTotal + 10 : dealerTotal;
+				if (dealerBest > 17 || dealerBest == 17 && !(soft && rules.isDealerHitsSoft17())) {
+					break;
+				}
+				int value = deal();
+				dealerTotal += value;
+				dealerAces += value == 1 ? 1 : 0;
+			}
+			double net = 0;
+			double bet = 0;
+			for (int hand = 0; hand < hands; hand++) {
+				double result;
+				if (states[hand] == SURRENDERED) {
+					result = -0.5;
+				} else if (states[hand] == BUST) {
+					result = -bets[hand];
+				} else {
+					int best = best(hand);
+					result = dealerBest > 21 || best > dealerBest ? bets[hand] : best < dealerBest ? -bets[hand] : 0;
+				}
+				statistics.recordHand(result, false, states[hand] == SURRENDERED);
+				net += result;
+				bet += bets[hand];
+			}
+			statistics.recordRound(net, bet, index);
+		}
+
+	}
+
+	/**
+	 * The task which plays a number of rounds, splitting itself while the number is large.
+	 */
+	private static final class SimulationTask extends RecursiveTask<BlackjackStatistics> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The setup of the simulation.
+		 */
+		private final Setup setup;
+
+		/**
+		 * The number of rounds to play.
+		 */
+		private final long rounds;
+
+		/**
+		 * The source of randomness of this task.
+		 */
+		private final SplittableRandom random;
+
+		/**
+		 * Constructs a new task which plays the specified number of rounds.
+		 *
+		 * @param setup - the setup of the simulation
+		 * @param rounds - the number of rounds to play
+		 * @param random - the source of randomness of this task
+		 */
+		SimulationTask(Setup setup, long rounds, SplittableRandom random) {
+			this.setup = setup;
+			this.rounds = rounds;
+			this.random = random;
+		}
+
+		@Override
+		protected BlackjackStatistics compute() {
+			if (rounds > THRESHOLD) {
+				// Split the generator before forking so that the split does not depend on scheduling
+				SimulationTask left = new SimulationTask(setup, rounds / 2, random.split());
+				SimulationTask right = new SimulationTask(setup, rounds - rounds / 2, random);
+				left.fork();
+				return right.compute().merge(left.join());
+			}
+			BlackjackStatistics statistics = new BlackjackStatistics();
+			Table table = new Table(setup, random);
+			for (long round = 0; round < rounds; round++) {
+				table.play(statistics);
+			}
+			return statistics;
+		}
+
+	}
+
+}
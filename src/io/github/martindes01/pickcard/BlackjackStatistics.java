@@ -0,0 +1,303 @@
+package io.github.martindes01.pickcard;
+
+/**
+ * BlackjackStatistics is the mergeable tally of the results of simulated rounds of blackjack.
+ * <p>
+ * Each round is played with an initial bet of one unit, and its result is the net amount won by the player over every hand of the round, including splits and doubles.
+ * The house edge is the expected loss of the player per initial bet, and its standard error is estimated from the sum of the squares of the results.
+ * Rounds are also tallied by the index of the count at their start, from {@link #MIN_INDEX} to {@link #MAX_INDEX} inclusive, where indices beyond the bounds are tallied at the bounds.
+ * <p>
+ * Statistics are not thread-safe: each thread tallies its own statistics, which are merged by {@link #merge(BlackjackStatistics)} once complete.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see BlackjackSimulator
+ * @since 1.1
+ */
+public final class BlackjackStatistics {
+
+	// Constants
+
+	/**
+	 * The lowest count index tallied separately.
+	 */
+	public static final int MIN_INDEX = -20;
+
+	/**
+	 * The highest count index tallied separately.
+	 */
+	public static final int MAX_INDEX = 20;
+
+
+	// Fields
+
+	/**
+	 * The number of rounds played.
+	 */
+	private long rounds;
+
+	/**
+	 * The number of hands played, including hands created by splits.
+	 */
+	private long hands;
+
+	/**
+	 * The number of hands won, including blackjacks.
+	 */
+	private long wins;
+
+	/**
+	 * The number of hands lost, excluding surrenders.
+	 */
+	private long losses;
+
+	/**
+	 * The number of hands pushed.
+	 */
+	private long pushes;
+
+	/**
+	 * The number of player blackjacks paid.
+	 */
+	private long blackjacks;
+
+	/**
+	 * The number of hands surrendered.
+	 */
+	private long surrenders;
+
+	/**
+	 * The total amount bet, including splits and doubles.
+	 */
+	private double wagered;
+
+	/**
+	 * The total net amount won by the player.
+	 */
+	private double net;
+
+	/**
+	 * The sum of the squares of the net amounts won in each round.
+	 */
+	private double netSquares;
+
+	/**
+	 * The number of rounds played at each count index.
+	 */
+	private final long[] indexRounds = new long[MAX_INDEX - MIN_INDEX + 1];
+
+	/**
+	 * The net amount won by the player at each count index.
+	 */
+	private final double[] indexNet = new double[MAX_INDEX - MIN_INDEX + 1];
+
+
+	// Recording
+
+	/**
+	 * Tallies the result of a hand.
+	 *
+	 * @param result - the net amount won on the hand
+	 * @param blackjack - whether the hand was a player blackjack which was paid
+	 * @param surrendered - whether the hand was surrendered
+	 */
+	void recordHand(double result, boolean blackjack, boolean surrendered) {
+		hands++;
+		if (surrendered) {
+			surrenders++;
+		} else if (result > 0) {
+			wins++;
+			if (blackjack) {
+				blackjacks++;
+			}
+		} else if (result < 0) {
+			losses++;
+		} else {
+			pushes++;
+		}
+	}
+
+	/**
+	 * Tallies the result of a round.
+	 *
+	 * @param result - the net amount won over every hand of the round
+	 * @param bet - the total amount bet over every hand of the round
+	 * @param index - the count index at the start of the round
+	 */
+	void recordRound(double result, double bet, int index) {
+		rounds++;
+		wagered += bet;
+		net += result;
+		netSquares += result * result;
+		int slot = Math.max(MIN_INDEX, Math.min(MAX_INDEX, index)) - MIN_INDEX;
+		indexRounds[slot]++;
+		indexNet[slot] += result;
+	}
+
+	/**
+	 * Adds the specified statistics to these statistics.
+	 *
+	 * @param statistics - the statistics to be added
+	 * @return these statistics
+	 */
+	public BlackjackStatistics merge(BlackjackStatistics statistics) {
+		rounds += statistics.rounds;
+		hands += statistics.hands;
+		wins += statistics.wins;
+		losses += statistics.losses;
+		pushes += statistics.pushes;
+		blackjacks += statistics.blackjacks;
+		surrenders += statistics.surrenders;
+		wagered += statistics.wagered;
+		net += statistics.net;
+		netSquares += statistics.netSquares;
+		for (int i = 0; i < indexRounds.length; i++) {
+			indexRounds[i] += statistics.indexRounds[i];
+			indexNet[i] += statistics.indexNet[i];
+		}
+		return this;
+	}
+
+
+	// Estimates
+
+	/**
+	 * Returns the expected loss of the player per initial bet, or {@code NaN} if no rounds were played.
+	 *
+	 * @return the house edge
+	 */
+	public double getHouseEdge() {
+		return -net / rounds;
+	}
+
+	/**
+	 * Returns the standard error of the house edge, or {@code NaN} if fewer than two rounds were played.
+	 *
+	 * @return the standard error of the house edge
+	 */
+	public double getStandardError() {
+		double mean = net / rounds;
+		double variance = (netSquares / rounds - mean * mean) * rounds / (rounds - 1);
+		return Math.sqrt(variance / rounds);
+	}
+
+	/**
+	 * Returns the expected net amount won by the player per initial bet in rounds starting at the specified count index, or {@code NaN} if there were none.
+	 *
+	 * @param index - the count index, between {@link #MIN_INDEX} and {@link #MAX_INDEX} inclusive
+	 * @return the expected net amount won per initial bet at the specified count index
+	 * @throws IndexOutOfBoundsException if the index is out of bounds
+	 */
+	public double getExpectation(int index) {
+		return indexNet[index - MIN_INDEX] / indexRounds[index - MIN_INDEX];
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the number of rounds played.
+	 *
+	 * @return the number of rounds played
+	 */
+	public long getRounds() {
+		return rounds;
+	}
+
+	/**
+	 * Returns the number of rounds played starting at the specified count index.
+	 *
+	 * @param index - the count index, between {@link #MIN_INDEX} and {@link #MAX_INDEX} inclusive
+	 * @return the number of rounds played at the specified count index
+	 * @throws IndexOutOfBoundsException if the index is out of bounds
+	 */
+	public long getRounds(int index) {
+		return indexRounds[index - MIN_INDEX];
+	}
+
+	/**
+	 * Returns the number of hands played, including hands created by splits.
+	 *
+	 * @return the number of hands played
+	 */
+	public long getHands() {
+		return hands;
+	}
+
+	/**
+	 * Returns the number of hands won, including blackjacks.
+	 *
+	 * @return the number of hands won
+	 */
+	public long getWins() {
+		return wins;
+	}
+
+	/**
+	 * Returns the number of hands lost, excluding surrenders.
+	 *
+	 * @return the number of hands lost
+	 */
+	public long getLosses() {
+		return losses;
+	}
+
+	/**
+	 * Returns the number of hands pushed.
+	 *
+	 * @return the number of hands pushed
+	 */
+	public long getPushes() {
+		return pushes;
+	}
+
+	/**
+	 * Returns the number of player blackjacks paid.
+	 *
+	 * @return the number of player blackjacks paid
+	 */
+	public long getBlackjacks() {
+		return blackjacks;
+	}
+
+	/**
+	 * Returns the number of hands surrendered.
+	 *
+	 * @return the number of hands surrendered
+	 */
+	public long getSurrenders() {
+		return surrenders;
+	}
+
+	/**
+	 * Returns the total amount bet, including splits and doubles.
+	 *
+	 * @return the total amount bet
+	 */
+	public double getWagered() {
+		return wagered;
+	}
+
+	/**
+	 * Returns the total net amount won by the player.
+	 *
+	 * @return the total net amount won by the player
+	 */
+	public double getNet() {
+		return net;
+	}
+
+
+	// Overrides
+
+	/**
+	 * Returns a string representation of these statistics.
+	 *
+	 * @return a string representation of these statistics
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d rounds, house edge %.4f%% +/- %.4f%%", rounds, getHouseEdge() * 100, getStandardError() * 100);
+	}
+
+}
@@ -1,7 +1,45 @@
 package io.github.martindes01.pickcard;
 
-// TODO javadoc
-public class Card {
+/**
+ * Card is the immutable representation of a playing card.
+ * <p>
+ * A card encapsulates a {@link Suit}, a {@link Rank} and a face visibility.
+ * Since there are only 104 distinct cards, each is represented by a single canonical instance, which is returned using {@link #of(Suit, Rank, boolean)}.
+ * Hence, two cards are equal if and only if they are the same instance, and copying a card or a pile of cards never allocates a new card.
+ * Cards nevertheless define {@link #equals(Object)} and {@link #hashCode()} by value, so they may be used in hashed collections.
+ * Methods which would change a card, such as {@link #withFaceUp(boolean)}, return the canonical instance of the changed card instead.
+ * 
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile
+ * @since 1.0
+ */
+public final class Card {
+	
+	// Constants
+	
+	/**
+	 * The number of ranks in each suit.
+	 */
+	private static final int RANKS = Rank.values().length;
+	
+	/**
+	 * The canonical instances of all cards, indexed by their {@link #code}.
+	 */
+	private static final Card[] CARDS;
+	
+	static {
+		CARDS = new Card[Suit.values().length * RANKS * 2];
+		for (Suit suit : Suit.values()) {
+			for (Rank rank : Rank.values()) {
+				for (int face = 0; face < 2; face++) {
+					int code = (suit.ordinal() * RANKS + rank.ordinal()) << 1 | face;
+					CARDS[code] = new Card(suit, rank, face == 1, code);
+				}
+			}
+		}
+	}
+	
 	
 	// Fields
 	
@@ -9,35 +47,119 @@ public class Card {
 	 * The {@link Suit} of this card.
 	 * This is a reference to an immutable object.
 	 */
-	private Suit suit;
+	private final Suit suit;
 	
 	/**
 	 * The {@link Rank} of this card.
 	 * This is a reference to an immutable object.
 	 */
-	private Rank rank;
+	private final Rank rank;
 	
 	// TODO Consider enum ViewableBy
 	/**
 	 * The face visibility of this card.
 	 * This is a primitive field.
 	 */
-	private boolean faceUp;
+	private final boolean faceUp;
+	
+	/**
+	 * The code of this card, {@code (suit * 13 + rank) << 1 | faceUp}, where {@code suit} and {@code rank} are ordinals.
+	 * This is a primitive field.
+	 */
+	private final int code;
+	
+	/**
+	 * The compact string representation of this card.
+	 * This is a reference to an immutable object.
+	 * 
+	 * @see CardFormat#COMPACT
+	 */
+	private final String compact;
+	
+	/**
+	 * The verbose string representation of this card.
+	 * This is a reference to an immutable object.
+	 * 
+	 * @see CardFormat#VERBOSE
+	 */
+	private final String verbose;
 	
 	
 	// Constructors
 	
 	/**
-	 * Constructs a new card with the specified suit, rank and face visibility.
+	 * Constructs a new card with the specified suit, rank, face visibility and code.
 	 * 
 	 * @param suit - suit to set as the suit of this card
 	 * @param rank - rank to set as the rank of this card
 	 * @param faceUp - whether the face of this card should be visible
+	 * @param code - the code of this card
 	 */
-	public Card(Suit suit, Rank rank, boolean faceUp) {
+	private Card(Suit suit, Rank rank, boolean faceUp, int code) {
 		this.suit = suit;
 		this.rank = rank;
 		this.faceUp = faceUp;
+		this.code = code;
+		// Render both formats once, since each card is canonical
+		StringBuilder builder = new StringBuilder(4);
+		if (!faceUp) {
+			builder.append('[');
+		}
+		builder.append(rank.getSymbol()).append(suit.getSymbol());
+		if (!faceUp) {
+			builder.append(']');
+		}
+		this.compact = builder.toString();
+		builder = new StringBuilder(40);
+		pad(builder.append(rank.name()), 8).append("   of   ");
+		pad(builder.append(suit.name()), 24).append(" ( face ");
+		pad(builder.append(faceUp ? "up" : "down"), 36).append(" )");
+		this.verbose = builder.toString();
+	}
+	
+	
+	// Helper functions
+	
+	/**
+	 * Appends spaces to the specified builder until its length is at least the specified length.
+	 * 
+	 * @param builder - the builder to be padded
+	 * @param length - the minimum length of the builder
+	 * @return the specified builder
+	 */
+	private static StringBuilder pad(StringBuilder builder, int length) {
+		while (builder.length() < length) {
+			builder.append(' ');
+		}
+		return builder;
+	}
+	
+	
+	// Factories
+	
+	/**
+	 * Returns the canonical card with the specified suit, rank and face visibility.
+	 * 
+	 * @param suit - suit of the card
+	 * @param rank - rank of the card
+	 * @param faceUp - whether the face of the card should be visible
+	 * @return the canonical card with the specified suit, rank and face visibility
+	 * @throws NullPointerException if {@code suit} or {@code rank} is {@code null}
+	 */
+	public static Card of(Suit suit, Rank rank, boolean faceUp) {
+		return CARDS[(suit.ordinal() * RANKS + rank.ordinal()) << 1 | (faceUp ? 1 : 0)];
+	}
+	
+	/**
+	 * Returns the canonical card with the specified code.
+	 * 
+	 * @param code - the code of the card
+	 * @return the canonical card with the specified code
+	 * @throws ArrayIndexOutOfBoundsException if {@code code} is not the code of a card
+	 * @see #code()
+	 */
+	static Card of(int code) {
+		return CARDS[code];
 	}
 	
 	
@@ -46,39 +168,122 @@ public class Card {
 	/**
 	 * Returns a copy of this card.
 	 * <p>
-	 * A card contains only primitive fields and references to immutable objects.
-	 * Hence, a shallow copy of this card functions the same as a deep copy.
-	 * Changes to the returned card will not be reflected in this card, nor will changes to this card be reflected in the returned card.
+	 * A card is immutable and canonical, so this card is returned.
 	 * 
-	 * @return a copy of this instance of the {@code Card} class
+	 * @return this card
 	 */
 	public Card copy() {
-		return new Card(suit, rank, faceUp);
+		return this;
 	}
 	
 	
 	// Card manipulation
 	
 	/**
-	 * Toggles the face visibility of this card.
+	 * Returns the card with the same suit and rank as this card and the specified face visibility.
+	 * 
+	 * @param faceUp - whether the face of the returned card should be visible
+	 * @return the card with the same suit and rank as this card and the specified face visibility
+	 */
+	public Card withFaceUp(boolean faceUp) {
+		return CARDS[(code & ~1) | (faceUp ? 1 : 0)];
+	}
+	
+	/**
+	 * Returns the card with the same suit and rank as this card and the opposite face visibility.
+	 * 
+	 * @return the card with the same suit and rank as this card and the opposite face visibility
+	 */
+	public Card withFaceToggled() {
+		return CARDS[code ^ 1];
+	}
+	
+	/**
+	 * Returns the card with the same suit and face visibility as this card and the specified rank.
+	 * 
+	 * @param rank - rank of the returned card
+	 * @return the card with the same suit and face visibility as this card and the specified rank
+	 * @see Rank
+	 */
+	public Card withRank(Rank rank) {
+		return of(suit, rank, faceUp);
+	}
+	
+	/**
+	 * Returns the card with the same rank and face visibility as this card and the specified suit.
+	 * 
+	 * @param suit - suit of the returned card
+	 * @return the card with the same rank and face visibility as this card and the specified suit
+	 * @see Suit
 	 */
-	public void toggleFaceUp() {
-		faceUp = !faceUp;
+	public Card withSuit(Suit suit) {
+		return of(suit, rank, faceUp);
 	}
 	
 	// Overrides
 	
+	/**
+	 * Compares the specified object with this card for equality.
+	 * Returns {@code true} if the specified object is a card with the same suit, rank and face visibility as this card.
+	 * Since each card has a single canonical instance, this is equivalent to comparing references.
+	 * 
+	 * @param object - the object to be compared with this card
+	 * @return {@code true} if the specified object is equal to this card
+	 */
+	@Override
+	public boolean equals(Object object) {
+		return this == object || object instanceof Card && ((Card) object).code == code;
+	}
+	
+	/**
+	 * Returns the hash code of this card.
+	 * This is the code of this card, which is distinct for each of the 104 cards and requires no computation.
+	 * 
+	 * @return the hash code of this card
+	 */
+	@Override
+	public int hashCode() {
+		return code;
+	}
+	
 	/**
 	 * Returns a string representation of this card.
 	 * This is a formatted string containing the rank, suit and face visibility of this card.
 	 * 
 	 * @return a string representation of this card 
+	 * @see CardFormat#VERBOSE
 	 */
 	@Override
 	public String toString() {
-		return String.format("%-8s   of   %-8s ( face %-4s )", rank.name(), suit.name(), faceUp ? "up" : "down");		
+		return verbose;
 	}
-
+	
+	
+	// Rendering
+	
+	/**
+	 * Appends the verbose string representation of this card to the specified builder.
+	 * 
+	 * @param builder - the builder to which this card is to be appended
+	 * @return the specified builder
+	 * @see CardFormat#VERBOSE
+	 */
+	public StringBuilder appendTo(StringBuilder builder) {
+		return builder.append(verbose);
+	}
+	
+	/**
+	 * Appends the string representation of this card in the specified format to the specified builder.
+	 * No formatter is used, since the string representations of each canonical card are rendered once.
+	 * 
+	 * @param builder - the builder to which this card is to be appended
+	 * @param format - the format of the string representation
+	 * @return the specified builder
+	 */
+	public StringBuilder appendTo(StringBuilder builder, CardFormat format) {
+		return builder.append(format == CardFormat.COMPACT ? compact : verbose);
+	}
+	
 	
 	// Getters
 
@@ -111,36 +316,13 @@ public class Card {
 		return suit;
 	}
 	
-	
-	// Setters
-	
-	/**
-	 * Sets the face visibility of this card.
-	 * 
-	 * @param faceUp - whether the face of this card should be visible
-	 */
-	public void setFaceUp(boolean faceUp) {
-		this.faceUp = faceUp;
-	}
-
-	/**
-	 * Sets the rank of this card to the specified rank.
-	 * 
-	 * @param rank - rank to set as the rank of this card
-	 * @see Rank
-	 */
-	public void setRank(Rank rank) {
-		this.rank = rank;
-	}
-	
 	/**
-	 * Sets the suit of this card to the specified suit.
+	 * Returns the code of this card, {@code (suit * 13 + rank) << 1 | faceUp}, where {@code suit} and {@code rank} are ordinals.
 	 * 
-	 * @param suit - suit to set as the suit of this card 
-	 * @see Suit
+	 * @return the code of this card
 	 */
-	public void setSuit(Suit suit) {
-		this.suit = suit;
+	int code() {
+		return code;
 	}
 
 }
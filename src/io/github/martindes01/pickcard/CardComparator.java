@@ -1,12 +1,14 @@
 package io.github.martindes01.pickcard;
 
+import java.util.Arrays;
 import java.util.Comparator;
 
 /**
  * CardComparator is the public enumeration of card comparators.
  * <p>
- * Each enum constant encapsulates one field.<br>
- * The {@link Comparator} {@link #comparator} is returned using {@link #getComparator()}
+ * Each enum constant encapsulates two fields.<br>
+ * The {@link Comparator} {@link #comparator} is returned using {@link #getComparator()}.<br>
+ * The sort key of a card in the precomputed table {@link #keys} is returned using {@link #getKey(Card)}.
  * <p>
  * The available enum constants are:
  * <ul>
@@ -84,16 +86,33 @@ public enum CardComparator {
 	 */
 	private final Comparator<Card> comparator;
 	
+	/**
+	 * The sort key of each card type, indexed by {@code suit * 13 + rank}, where {@code suit} and {@code rank} are ordinals.
+	 * Keys range from {@code 1} to {@code 52} in the order induced by {@link #comparator}.
+	 * This array is never modified.
+	 */
+	private final int[] keys;
+	
 	
 	// Constuctors
 	
 	/**
 	 * Constructs a new card comparator with the specified comparator.
+	 * The sort key of each card type is precomputed from the comparator.
 	 * 
 	 * @param comparator - the comparator associated with this {@code CardComparator}
 	 */
 	CardComparator(Comparator<Card> comparator) {
 		this.comparator = comparator;
+		Card[] cards = new Card[Suit.values().length * Rank.values().length];
+		for (int type = 0; type < cards.length; type++) {
+			cards[type] = Card.of(type << 1);
+		}
+		Arrays.sort(cards, comparator);
+		keys = new int[cards.length];
+		for (int key = 0; key < cards.length; key++) {
+			keys[cards[key].code() >> 1] = key + 1;
+		}
 	}
 	
 	
@@ -108,4 +127,16 @@ public enum CardComparator {
 		return comparator;
 	}
 	
+	/**
+	 * Returns the sort key of the specified card under this {@code CardComparator}.
+	 * Keys range from {@code 0} for {@code null} to {@code 52}, and compare in the same order as the cards they represent.
+	 * The face visibility of the card is ignored.
+	 * 
+	 * @param card - the card whose sort key is to be returned, which may be {@code null}
+	 * @return the sort key of the specified card
+	 */
+	public int getKey(Card card) {
+		return card != null ? keys[card.code() >> 1] : 0;
+	}
+	
 }
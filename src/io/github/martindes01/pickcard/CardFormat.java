@@ -0,0 +1,35 @@
+package io.github.martindes01.pickcard;
+
+/**
+ * CardFormat is the public enumeration of the textual formats of cards and piles.
+ * <p>
+ * The available enum constants are:
+ * <ul>
+ * <li>{@link #COMPACT}
+ * <li>{@link #VERBOSE}
+ * </ul>
+ * 
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Card#appendTo(StringBuilder, CardFormat)
+ * @see Pile#writeTo(Appendable, CardFormat)
+ * @since 1.1
+ */
+public enum CardFormat {
+	
+	/**
+	 * Formats a card as the symbols of its rank and suit, such as {@code AS} for the ace of spades.
+	 * A face down card is enclosed in square brackets, such as {@code [AS]}, and a {@code null} card is formatted as {@code --}.
+	 * A pile is formatted on a single line, with its cards separated by spaces from top to bottom.
+	 */
+	COMPACT,
+	
+	/**
+	 * Formats a card as its rank, suit and face visibility, aligned in columns.
+	 * A {@code null} card is formatted as {@code ( NULL )}.
+	 * A pile is formatted with each card on a new line with its index, from top to bottom.
+	 * This is the format of {@link Card#toString()} and {@link Pile#toString()}.
+	 */
+	VERBOSE;
+	
+}
@@ -0,0 +1,203 @@
+package io.github.martindes01.pickcard;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * CardMask is a mutable set of cards represented as a bitmask.
+ * <p>
+ * Each combination of suit, rank and face visibility, and {@code null}, is represented by one bit of two {@code long} words.
+ * Hence, membership is tested in constant time without hashing, and a mask of any collection of cards is built in a single pass.
+ * Pile uses masks to test and delete many cards at once in time linear in the sizes of the pile and the collection, rather than in their product.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile#containsCards(Collection)
+ * @see Pile#deleteAllOfTypes(Collection)
+ * @see PackedPile#deleteAllOfTypes(Collection)
+ * @since 1.1
+ */
+final class CardMask {
+
+	// Constants
+
+	/**
+	 * The key of {@code null} cards, one greater than the greatest card code.
+	 */
+	static final int NULL_KEY = 104;
+
+	/**
+	 * The number of keys.
+	 */
+	static final int KEYS = NULL_KEY + 1;
+
+
+	// Fields
+
+	/**
+	 * The bits of keys {@code 0} to {@code 63}.
+	 */
+	private long low;
+
+	/**
+	 * The bits of keys {@code 64} to {@link #NULL_KEY}.
+	 */
+	private long high;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new empty mask.
+	 */
+	CardMask() {
+	}
+
+
+	// Factories
+
+	/**
+	 * Returns a new mask containing the cards in the specified collection.
+	 * Objects which are neither cards nor {@code null} are ignored.
+	 *
+	 * @param collection - the collection of cards to be contained in the mask
+	 * @return a new mask containing the cards in the specified collection
+	 */
+	static CardMask of(Collection<?> collection) {
+		CardMask mask = new CardMask();
+		for (Object object : collection) {
+			mask.add(object);
+		}
+		return mask;
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the key of the specified object, or {@code -1} if the object is neither a card nor {@code null}.
+	 * The key of a card is its code.
+	 *
+	 * @param object - the object whose key is to be returned
+	 * @return the key of the specified object, or {@code -1} if the object is neither a card nor {@code null}
+	 * @see Card#code()
+	 */
+	static int key(Object object) {
+		if (object == null) {
+			return NULL_KEY;
+		} else if (object instanceof Card) {
+			return ((Card) object).code();
+		} else {
+			return -1;
+		}
+	}
+
+
+	// Mask operations
+
+	/**
+	 * Adds the specified card to this mask.
+	 * Returns {@code false} if the specified object is neither a card nor {@code null}.
+	 *
+	 * @param object - the card to be added
+	 * @return {@code true} if the specified object is a card or {@code null}
+	 */
+	boolean add(Object object) {
+		int key = key(object);
+		if (key < 0) {
+			return false;
+		}
+		addKey(key);
+		return true;
+	}
+
+	/**
+	 * Adds the card with the specified key to this mask.
+	 *
+	 * @param key - the key of the card to be added, from {@code 0} to {@link #NULL_KEY}
+	 */
+	void addKey(int key) {
+		if (key < Long.SIZE) {
+			low |= 1L << key;
+		} else {
+			high |= 1L << (key - Long.SIZE);
+		}
+	}
+
+	/**
+	 * Returns {@code true} if this mask contains the specified card.
+	 *
+	 * @param object - the card whose presence in this mask is to be tested
+	 * @return {@code true} if this mask contains the specified card
+	 */
+	boolean contains(Object object) {
+		int key = key(object);
+		return key >= 0 && containsKey(key);
+	}
+
+	/**
+	 * Returns {@code true} if this mask contains the card with the specified key.
+	 *
+	 * @param key - the key of the card whose presence in this mask is to be tested, from {@code 0} to {@link #NULL_KEY}
+	 * @return {@code true} if this mask contains the card with the specified key
+	 */
+	boolean containsKey(int key) {
+		if (key < Long.SIZE) {
+			return (low & 1L << key) != 0;
+		} else {
+			return (high & 1L << (key - Long.SIZE)) != 0;
+		}
+	}
+
+	/**
+	 * Returns {@code true} if this mask contains all of the cards in the specified collection.
+	 *
+	 * @param collection - the collection whose cards are to be checked for containment in this mask
+	 * @return {@code true} if this mask contains all of the cards in the specified collection
+	 */
+	boolean containsAll(Collection<?> collection) {
+		for (Object object : collection) {
+			if (!contains(object)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns {@code true} if this mask contains no cards.
+	 *
+	 * @return {@code true} if this mask contains no cards
+	 */
+	boolean isEmpty() {
+		return (low | high) == 0;
+	}
+
+	/**
+	 * Removes from the specified list all of its cards that this mask contains, preserving the order of the remaining cards.
+	 * The remaining cards are compacted towards the start of the list in a single pass, and the vacated end of the list is cleared as a range.
+	 * Returns {@code true} if the list changed as a result of the call.
+	 *
+	 * @param list - the list of cards from which cards are to be removed
+	 * @return {@code true} if the list changed as a result of the call
+	 */
+	boolean removeFrom(List<Card> list) {
+		if (isEmpty()) {
+			return false;
+		}
+		int size = list.size();
+		int retained = 0;
+		for (int i = 0; i < size; i++) {
+			Card card = list.get(i);
+			if (!contains(card)) {
+				if (retained != i) {
+					list.set(retained, card);
+				}
+				retained++;
+			}
+		}
+		list.subList(retained, size).clear();
+		return retained != size;
+	}
+
+}
@@ -0,0 +1,432 @@
+package io.github.martindes01.pickcard;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * CardSet is an immutable set of card types, encoded as the bits of a single {@code long}.
+ * <p>
+ * Each of the 52 combinations of {@link Suit} and {@link Rank} is represented by the bit {@code suit * 13 + rank}, where {@code suit} and {@code rank} are ordinals.
+ * Hence, the 13 ranks of each suit occupy a contiguous run of bits, and membership, union, intersection and difference are single bitwise operations.
+ * <p>
+ * A card set records card types only.
+ * The face visibility of cards is ignored, null cards are ignored, and duplicate cards are represented once.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Card
+ * @see Pile
+ * @since 1.1
+ */
+public final class CardSet implements Iterable<Card> {
+
+	// Constants
+
+	/**
+	 * The number of ranks in each suit.
+	 */
+	static final int RANKS = Rank.values().length;
+
+	/**
+	 * The number of card types.
+	 */
+	static final int TYPES = Suit.values().length * RANKS;
+
+	/**
+	 * The mask of the bits of the ranks of a single suit.
+	 */
+	static final long SUIT_MASK = (1L << RANKS) - 1;
+
+	/**
+	 * The empty card set.
+	 */
+	public static final CardSet EMPTY = new CardSet(0L);
+
+	/**
+	 * The card set containing all 52 card types.
+	 */
+	public static final CardSet FULL = new CardSet((1L << TYPES) - 1);
+
+	/**
+	 * The bit indices of the card types in the order induced by each {@link CardComparator}, indexed by the ordinal of the comparator.
+	 */
+	private static final int[][] ORDERS = new int[CardComparator.values().length][TYPES];
+
+	static {
+		for (CardComparator comparator : CardComparator.values()) {
+			for (int index = 0; index < TYPES; index++) {
+				// Keys of non-null cards start from 1
+				ORDERS[comparator.ordinal()][comparator.getKey(card(index, false)) - 1] = index;
+			}
+		}
+	}
+
+
+	// Fields
+
+	/**
+	 * The bits of this card set.
+	 */
+	private final long bits;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new card set with the specified bits.
+	 *
+	 * @param bits - the bits of this card set
+	 */
+	private CardSet(long bits) {
+		this.bits = bits;
+	}
+
+
+	// Factories
+
+	/**
+	 * Returns the card set with the specified bits.
+	 * Bits above the 52 card types are ignored.
+	 *
+	 * @param bits - the bits of the card set
+	 * @return the card set with the specified bits
+	 */
+	public static CardSet ofBits(long bits) {
+		return new CardSet(bits & FULL.bits);
+	}
+
+	/**
+	 * Returns the card set containing the single card type with the specified suit and rank.
+	 *
+	 * @param suit - suit of the card type
+	 * @param rank - rank of the card type
+	 * @return the card set containing the single card type with the specified suit and rank
+	 */
+	public static CardSet of(Suit suit, Rank rank) {
+		return new CardSet(bit(suit, rank));
+	}
+
+	/**
+	 * Returns the card set containing the types of the specified cards.
+	 * Null cards are ignored.
+	 *
+	 * @param cards - cards whose types are to be contained in the card set
+	 * @return the card set containing the types of the specified cards
+	 */
+	public static CardSet of(Card... cards) {
+		return new CardSet(bitsOf(Arrays.asList(cards)));
+	}
+
+	/**
+	 * Returns the card set containing the types of the cards in the specified collection.
+	 * Null cards are ignored.
+	 *
+	 * @param collection - collection of cards whose types are to be contained in the card set
+	 * @return the card set containing the types of the cards in the specified collection
+	 */
+	public static CardSet of(Collection<Card> collection) {
+		return new CardSet(bitsOf(collection));
+	}
+
+	/**
+	 * Returns the card set containing the types of the cards in the specified pile.
+	 * Null cards are ignored.
+	 *
+	 * @param pile - pile of cards whose types are to be contained in the card set
+	 * @return the card set containing the types of the cards in the specified pile
+	 */
+	public static CardSet of(Pile pile) {
+		return new CardSet(bitsOf(pile.getList()));
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the bit representing the card type with the specified suit and rank.
+	 *
+	 * @param suit - suit of the card type
+	 * @param rank - rank of the card type
+	 * @return the bit representing the card type with the specified suit and rank
+	 */
+	static long bit(Suit suit, Rank rank) {
+		return 1L << (suit.ordinal() * RANKS + rank.ordinal());
+	}
+
+	/**
+	 * Returns the bits representing the types of the cards in the specified collection.
+	 *
+	 * @param collection - collection of cards, which may contain {@code null}
+	 * @return the bits representing the types of the cards in the specified collection
+	 */
+	private static long bitsOf(Collection<Card> collection) {
+		long bits = 0L;
+		for (Card card : collection) {
+			// Prevent NullPointerException (thrown if card null)
+			if (card != null) {
+				bits |= bit(card.getSuit(), card.getRank());
+			}
+		}
+		return bits;
+	}
+
+	/**
+	 * Returns the card of the type represented by the specified bit index.
+	 *
+	 * @param index - bit index of the card type
+	 * @param faceUp - whether the face of the card should be visible
+	 * @return the card of the type represented by the specified bit index
+	 */
+	private static Card card(int index, boolean faceUp) {
+		return Card.of(index << 1 | (faceUp ? 1 : 0));
+	}
+
+
+	// Card inclusion
+
+	/**
+	 * Returns {@code true} if this card set contains the type of the specified card.
+	 * Returns {@code false} if the specified card is {@code null}.
+	 *
+	 * @param card - card whose type is to be tested
+	 * @return {@code true} if this card set contains the type of the specified card
+	 */
+	public boolean contains(Card card) {
+		return card != null && contains(card.getSuit(), card.getRank());
+	}
+
+	/**
+	 * Returns {@code true} if this card set contains the card type with the specified suit and rank.
+	 *
+	 * @param suit - suit of the card type
+	 * @param rank - rank of the card type
+	 * @return {@code true} if this card set contains the card type with the specified suit and rank
+	 */
+	public boolean contains(Suit suit, Rank rank) {
+		return (bits & bit(suit, rank)) != 0;
+	}
+
+	/**
+	 * Returns {@code true} if this card set contains every card type in the specified card set.
+	 *
+	 * @param set - card set whose card types are to be tested
+	 * @return {@code true} if this card set contains every card type in the specified card set
+	 */
+	public boolean containsAll(CardSet set) {
+		return (set.bits & ~bits) == 0;
+	}
+
+	/**
+	 * Returns {@code true} if this card set contains no card types.
+	 *
+	 * @return {@code true} if this card set contains no card types
+	 */
+	public boolean isEmpty() {
+		return bits == 0;
+	}
+
+	/**
+	 * Returns the number of card types in this card set.
+	 *
+	 * @return the number of card types in this card set
+	 */
+	public int size() {
+		return Long.bitCount(bits);
+	}
+
+
+	// Set algebra
+
+	/**
+	 * Returns the card set containing the card types in this card set and the card type with the specified suit and rank.
+	 *
+	 * @param suit - suit of the card type to be added
+	 * @param rank - rank of the card type to be added
+	 * @return the card set containing the card types in this card set and the specified card type
+	 */
+	public CardSet with(Suit suit, Rank rank) {
+		return new CardSet(bits | bit(suit, rank));
+	}
+
+	/**
+	 * Returns the card set containing the card types in this card set except the card type with the specified suit and rank.
+	 *
+	 * @param suit - suit of the card type to be removed
+	 * @param rank - rank of the card type to be removed
+	 * @return the card set containing the card types in this card set except the specified card type
+	 */
+	public CardSet without(Suit suit, Rank rank) {
+		return new CardSet(bits & ~bit(suit, rank));
+	}
+
+	/**
+	 * Returns the card set containing the card types in this card set or the specified card set.
+	 *
+	 * @param set - card set to be united with this card set
+	 * @return the union of this card set and the specified card set
+	 */
+	public CardSet union(CardSet set) {
+		return new CardSet(bits | set.bits);
+	}
+
+	/**
+	 * Returns the card set containing the card types in both this card set and the specified card set.
+	 *
+	 * @param set - card set to be intersected with this card set
+	 * @return the intersection of this card set and the specified card set
+	 */
+	public CardSet intersection(CardSet set) {
+		return new CardSet(bits & set.bits);
+	}
+
+	/**
+	 * Returns the card set containing the card types in this card set but not in the specified card set.
+	 *
+	 * @param set - card set to be subtracted from this card set
+	 * @return the difference of this card set and the specified card set
+	 */
+	public CardSet difference(CardSet set) {
+		return new CardSet(bits & ~set.bits);
+	}
+
+	/**
+	 * Returns the card set containing the card types not in this card set.
+	 *
+	 * @return the complement of this card set
+	 */
+	public CardSet complement() {
+		return new CardSet(~bits & FULL.bits);
+	}
+
+
+	// Suits
+
+	/**
+	 * Returns the card set containing the card types in this card set with the specified suit.
+	 *
+	 * @param suit - suit of the card types to be returned
+	 * @return the card set containing the card types in this card set with the specified suit
+	 */
+	public CardSet ofSuit(Suit suit) {
+		return new CardSet(bits & (SUIT_MASK << (suit.ordinal() * RANKS)));
+	}
+
+	/**
+	 * Returns the mask of the ranks in this card set with the specified suit.
+	 * Bit {@code n} of the returned mask is set if this card set contains the card type with the specified suit and the rank whose ordinal is {@code n}.
+	 *
+	 * @param suit - suit of the card types whose ranks are to be returned
+	 * @return the mask of the ranks in this card set with the specified suit
+	 */
+	public int ranksOf(Suit suit) {
+		return (int) ((bits >>> (suit.ordinal() * RANKS)) & SUIT_MASK);
+	}
+
+
+	// Conversion and iteration
+
+	/**
+	 * Returns the bits of this card set.
+	 *
+	 * @return the bits of this card set
+	 */
+	public long bits() {
+		return bits;
+	}
+
+	/**
+	 * Performs the specified action for the card of each card type in this card set, in the order induced by the specified card comparator.
+	 *
+	 * @param comparator - the comparator to determine the order of iteration
+	 * @param faceUp - whether the faces of the cards should be visible
+	 * @param action - the action to be performed for each card
+	 */
+	public void forEach(CardComparator comparator, boolean faceUp, Consumer<? super Card> action) {
+		for (int index : ORDERS[comparator.ordinal()]) {
+			if ((bits & (1L << index)) != 0) {
+				action.accept(card(index, faceUp));
+			}
+		}
+	}
+
+	/**
+	 * Returns a new pile containing one card of each card type in this card set, sorted from bottom to top according to the specified card comparator.
+	 *
+	 * @param comparator - the comparator to determine the order of the returned pile
+	 * @param faceUp - whether the faces of the cards should be visible
+	 * @return a new pile containing one card of each card type in this card set
+	 */
+	public Pile toPile(CardComparator comparator, boolean faceUp) {
+		Pile pile = new Pile();
+		forEach(comparator, faceUp, pile::addCard);
+		return pile;
+	}
+
+	/**
+	 * Returns an iterator over the face down cards of each card type in this card set, in the order induced by {@link CardComparator#BY_SUIT_THEN_RANK}.
+	 *
+	 * @return an iterator over the card types in this card set
+	 */
+	@Override
+	public Iterator<Card> iterator() {
+		return new Iterator<Card>() {
+
+			private long remaining = bits;
+
+			@Override
+			public boolean hasNext() {
+				return remaining != 0;
+			}
+
+			@Override
+			public Card next() {
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+				int index = Long.numberOfTrailingZeros(remaining);
+				remaining &= remaining - 1;
+				return card(index, false);
+			}
+
+		};
+	}
+
+
+	// Overrides
+
+	/**
+	 * Returns {@code true} if the specified object is a card set containing the same card types as this card set.
+	 *
+	 * @param obj - object to be compared with this card set
+	 * @return {@code true} if the specified object is a card set containing the same card types as this card set
+	 */
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof CardSet && ((CardSet) obj).bits == bits;
+	}
+
+	/**
+	 * Returns a hash code for this card set.
+	 *
+	 * @return a hash code for this card set
+	 */
+	@Override
+	public int hashCode() {
+		return Long.hashCode(bits);
+	}
+
+	/**
+	 * Returns a string representation of this card set.
+	 * This is the bits of this card set as a hexadecimal string.
+	 *
+	 * @return a string representation of this card set
+	 */
+	@Override
+	public String toString() {
+		return "CardSet[0x" + Long.toHexString(bits) + "]";
+	}
+
+}
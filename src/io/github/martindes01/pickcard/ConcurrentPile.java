@@ -0,0 +1,273 @@
+package io.github.martindes01.pickcard;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.random.RandomGenerator;
+
+/**
+ * ConcurrentPile is a thread-safe, lock-free pile from which any number of threads may draw cards at once, such as a shoe shared by several dealers.
+ * <p>
+ * The cards are held in an array which is never written once it is published.
+ * Threads claim cards from the top by decrementing a shared top index using compare-and-set, so every card is drawn by exactly one thread, and no card is lost or duplicated.
+ * Drawing never blocks and never allocates, except for the pile returned by {@link #pickCards(int)}.
+ * <p>
+ * The pile is refilled or reshuffled by publishing a new array and top index.
+ * Before doing so, the old top index is sealed, which atomically claims all cards still on the old array, so that a draw racing with the refill either completes before it or retries on the new array.
+ * Refills and reshuffles are serialised with each other.
+ * Draws spin only between sealing the old array and publishing the new one, which for a reshuffle includes shuffling the remaining cards.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile
+ * @since 1.1
+ */
+public class ConcurrentPile {
+
+	// Constants
+
+	/**
+	 * The top index of an array which has been replaced by a refill or reshuffle.
+	 */
+	private static final int SEALED = -1;
+
+
+	// Nested classes
+
+	/**
+	 * An immutable array of cards with a shared top index.
+	 */
+	private static final class Shoe {
+
+		/**
+		 * The cards, with the top card at the highest index.
+		 * This array is never written after the shoe is published.
+		 */
+		final Card[] cards;
+
+		/**
+		 * The number of cards not yet drawn, or {@link #SEALED}.
+		 */
+		final AtomicInteger top;
+
+		/**
+		 * Constructs a new shoe containing the specified array of cards.
+		 *
+		 * @param cards - the array of cards, which must not be written afterwards
+		 */
+		Shoe(Card[] cards) {
+			this.cards = cards;
+			this.top = new AtomicInteger(cards.length);
+		}
+
+	}
+
+
+	// Fields
+
+	/**
+	 * The current shoe.
+	 */
+	private final AtomicReference<Shoe> shoe;
+
+	/**
+	 * The lock serialising refills and reshuffles.
+	 */
+	private final Object refillLock = new Object();
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new empty concurrent pile.
+	 */
+	public ConcurrentPile() {
+		this.shoe = new AtomicReference<>(new Shoe(new Card[0]));
+	}
+
+	/**
+	 * Constructs a new concurrent pile containing the specified {@link Collection} of {@link Card} objects.
+	 * The last card of the collection is at the top of this pile.
+	 *
+	 * @param collection - the collection of cards to be contained in this pile
+	 */
+	public ConcurrentPile(Collection<Card> collection) {
+		this.shoe = new AtomicReference<>(new Shoe(collection.toArray(new Card[0])));
+	}
+
+	/**
+	 * Constructs a new concurrent pile containing the cards of the specified pile, in the same order.
+	 * The specified pile is unchanged.
+	 *
+	 * @param pile - the pile whose cards are to be contained in this pile
+	 */
+	public ConcurrentPile(Pile pile) {
+		this(pile.getList());
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Claims up to the specified quantity of cards from the top of the current shoe.
+	 * Retries while the current shoe is sealed and its replacement has not yet been published.
+	 *
+	 * @param quantity - the maximum number of cards to claim, which must not be negative
+	 * @return a pile containing the claimed cards, which may be empty
+	 */
+	private Pile claim(int quantity) {
+		while (true) {
+			Shoe current = shoe.get();
+			int top = current.top.get();
+			if (top == SEALED) {
+				// A refill is publishing a new shoe
+				Thread.onSpinWait();
+			} else {
+				int bottom = Math.max(0, top - quantity);
+				if (top == bottom || current.top.compareAndSet(top, bottom)) {
+					return new Pile(Arrays.asList(current.cards).subList(bottom, top));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Seals the current shoe and returns the cards which had not been drawn from it.
+	 * Must be called while holding {@link #refillLock}.
+	 *
+	 * @return the cards which had not been drawn from the current shoe, with the top card last
+	 */
+	private Card[] seal() {
+		Shoe current = shoe.get();
+		int top = current.top.getAndSet(SEALED);
+		return Arrays.copyOf(current.cards, top);
+	}
+
+
+	// Card removal
+
+	/**
+	 * Removes a card from the top of this pile.
+	 * This method may be called by any number of threads at once, and no two calls return the same drawn card.
+	 *
+	 * @return the card that was removed from this pile
+	 * @throws IndexOutOfBoundsException if this pile is empty {@code (size() == 0)}
+	 */
+	public Card pickCard() {
+		while (true) {
+			Shoe current = shoe.get();
+			int top = current.top.get();
+			if (top == SEALED) {
+				// A refill is publishing a new shoe
+				Thread.onSpinWait();
+			} else if (top == 0) {
+				throw new IndexOutOfBoundsException("Index -1 out of bounds for length 0");
+			} else if (current.top.compareAndSet(top, top - 1)) {
+				return current.cards[top - 1];
+			}
+		}
+	}
+
+	/**
+	 * Removes the specified quantity of cards from the top of this pile.
+	 * If the specified quantity is greater than or equal to the size of this pile, all of its cards are removed.
+	 * The cards are claimed atomically, so they were adjacent in this pile.
+	 *
+	 * @param quantity - number of cards to remove
+	 * @return a pile containing the cards that were removed from this pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 */
+	public Pile pickCards(int quantity) {
+		if (quantity < 0) {
+			throw new IllegalArgumentException("Negative quantity: " + quantity);
+		}
+		return claim(quantity);
+	}
+
+
+	// Pile refilling
+
+	/**
+	 * Replaces the cards in this pile with the specified collection of cards.
+	 * The last card of the collection is at the top of this pile.
+	 * Cards remaining in this pile are discarded.
+	 *
+	 * @param collection - the collection of cards to be contained in this pile
+	 * @return a pile containing the cards that were discarded from this pile
+	 */
+	public Pile refill(Collection<Card> collection) {
+		Card[] cards = collection.toArray(new Card[0]);
+		synchronized (refillLock) {
+			Card[] discarded = seal();
+			shoe.set(new Shoe(cards));
+			return new Pile(Arrays.asList(discarded));
+		}
+	}
+
+	/**
+	 * Shuffles the cards remaining in this pile using the specified source of randomness.
+	 *
+	 * @param random - the source of randomness
+	 * @see ShuffleMode#FISHER_YATES
+	 */
+	public void reshuffle(RandomGenerator random) {
+		reshuffle(new Pile(), random);
+	}
+
+	/**
+	 * Returns the cards in the specified pile to this pile, and shuffles all of the cards in this pile using the specified source of randomness.
+	 * The specified pile is unchanged.
+	 *
+	 * @param returned - the pile of cards to be returned to this pile, such as a discard pile
+	 * @param random - the source of randomness
+	 * @see ShuffleMode#FISHER_YATES
+	 */
+	public void reshuffle(Pile returned, RandomGenerator random) {
+		synchronized (refillLock) {
+			Card[] remaining = seal();
+			Card[] added = returned.getList().toArray(new Card[0]);
+			Card[] cards = Arrays.copyOf(remaining, remaining.length + added.length);
+			System.arraycopy(added, 0, cards, remaining.length, added.length);
+			ShuffleMode.FISHER_YATES.shuffle(Arrays.asList(cards), random);
+			shoe.set(new Shoe(cards));
+		}
+	}
+
+
+	// Pile copying
+
+	/**
+	 * Returns a pile containing the cards remaining in this pile, in the same order.
+	 * This pile is unchanged.
+	 * The returned pile is a snapshot, which may be out of date as soon as it is returned if other threads are drawing.
+	 *
+	 * @return a pile containing the cards remaining in this pile
+	 */
+	public Pile toPile() {
+		while (true) {
+			Shoe current = shoe.get();
+			int top = current.top.get();
+			if (top == SEALED) {
+				// A refill is publishing a new shoe
+				Thread.onSpinWait();
+			} else {
+				return new Pile(Arrays.asList(current.cards).subList(0, top));
+			}
+		}
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the number of cards in this pile.
+	 * The returned number may be out of date as soon as it is returned if other threads are drawing.
+	 *
+	 * @return the number of cards in this pile
+	 */
+	public int size() {
+		return Math.max(0, shoe.get().top.get());
+	}
+
+}
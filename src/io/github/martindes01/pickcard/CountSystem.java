@@ -0,0 +1,122 @@
+package io.github.martindes01.pickcard;
+
+/**
+ * CountSystem is the public enumeration of card counting systems for blackjack.
+ * <p>
+ * Each enum constant assigns a tag to each card value, which is added to the running count as the card is seen.
+ * A balanced system starts at {@code 0} and converts the running count to a true count by dividing it by the number of decks remaining.
+ * An unbalanced system starts at an initial running count depending on the number of decks, and uses the running count itself as its index.
+ * <p>
+ * The available enum constants are:
+ * <ul>
+ * <li>{@link #HI_LO}
+ * <li>{@link #KO}
+ * </ul>
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see BlackjackSimulator
+ * @since 1.1
+ */
+public enum CountSystem {
+
+	/**
+	 * The balanced Hi-Lo count, which tags two to six as {@code +1}, seven to nine as {@code 0}, and ten-valued cards and aces as {@code -1}.
+	 */
+	HI_LO(6, true),
+
+	/**
+	 * The unbalanced Knock-Out count, which tags two to seven as {@code +1}, eight and nine as {@code 0}, and ten-valued cards and aces as {@code -1}.
+	 * Its initial running count is {@code 4 - 4 * decks}, so that the key count of {@code +2} is the same for any number of decks.
+	 */
+	KO(7, false);
+
+
+	// Constants
+
+	/**
+	 * The number of cards in a deck.
+	 */
+	private static final int DECK_SIZE = 52;
+
+
+	// Fields
+
+	/**
+	 * The tag of each blackjack card value, from {@code 0} (unused) to {@code 10}.
+	 * This array is never modified.
+	 */
+	private final int[] tags;
+
+	/**
+	 * Whether the tags of a deck sum to {@code 0}.
+	 */
+	private final boolean balanced;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new count system which tags the values from two to the specified value as {@code +1}, and ten-valued cards and aces as {@code -1}.
+	 *
+	 * @param highestLow - the highest value tagged as {@code +1}
+	 * @param balanced - whether the tags of a deck sum to {@code 0}
+	 */
+	private CountSystem(int highestLow, boolean balanced) {
+		this.tags = new int[11];
+		for (int value = 2; value <= highestLow; value++) {
+			tags[value] = 1;
+		}
+		tags[1] = -1;
+		tags[10] = -1;
+		this.balanced = balanced;
+	}
+
+
+	// Counting
+
+	/**
+	 * Returns the tag of the specified blackjack card value.
+	 *
+	 * @param value - the blackjack value of a card, from {@code 1} for an ace to {@code 10}
+	 * @return the tag of the specified value
+	 */
+	public int getTag(int value) {
+		return tags[value];
+	}
+
+	/**
+	 * Returns the running count at the start of a shoe of the specified number of decks.
+	 *
+	 * @param decks - the number of decks in the shoe
+	 * @return the initial running count
+	 */
+	public int getInitialCount(int decks) {
+		return balanced ? 0 : 4 - 4 * decks;
+	}
+
+	/**
+	 * Returns the index of the specified running count with the specified number of cards remaining, rounded towards negative infinity.
+	 * This is the true count for a balanced system, and the running count for an unbalanced system.
+	 *
+	 * @param runningCount - the running count
+	 * @param remaining - the number of cards remaining in the shoe
+	 * @return the index of the running count
+	 */
+	public int getIndex(int runningCount, int remaining) {
+		if (!balanced) {
+			return runningCount;
+		}
+		return (int) Math.floor(runningCount * (double) DECK_SIZE / Math.max(1, remaining));
+	}
+
+	/**
+	 * Returns {@code true} if the tags of a deck of this system sum to {@code 0}.
+	 *
+	 * @return {@code true} if this system is balanced
+	 */
+	public boolean isBalanced() {
+		return balanced;
+	}
+
+}
@@ -0,0 +1,514 @@
+package io.github.martindes01.pickcard;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * DeckArchive is a read-only file of pre-dealt decks of equal size, such as the shuffled decks of a tournament, with random access to each deck.
+ * <p>
+ * An archive consists of a header followed by each deck as a fixed-width run of one byte per card, from the bottom of the deck to the top, encoded as by {@link Pile#writeTo(ByteBuffer)}.
+ * The file is memory-mapped when opened, in chunks of whole decks, so opening takes constant time however large the archive, and decks are read from the page cache rather than through the heap.
+ * A deck may be copied into a {@link Pile} or {@link PackedPile}, or viewed in place as a list of cards or a buffer of encoded cards.
+ * <p>
+ * An archive may be read by any number of threads at once.
+ * Archives are written using a {@link Writer}, returned by {@link #create(Path, int)}.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Writer
+ * @since 1.1
+ */
+public class DeckArchive implements AutoCloseable {
+
+	// Constants
+
+	/**
+	 * The first four bytes of an archive, {@code "PCDA"}.
+	 */
+	private static final int MAGIC = 0x50434441;
+
+	/**
+	 * The version of the archive format.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * The number of bytes in the header, which consists of the magic number, the version, the deck size, a reserved {@code int} and the number of decks as a {@code long}.
+	 */
+	private static final int HEADER_SIZE = 24;
+
+	/**
+	 * The offset in the header of the number of decks.
+	 */
+	private static final int COUNT_OFFSET = 16;
+
+	/**
+	 * The minimum number of bytes buffered by a writer.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * The maximum number of bytes in a mapped chunk.
+	 */
+	private static final int CHUNK_SIZE = 1 << 30;
+
+
+	// Nested classes
+
+	/**
+	 * Writer appends decks to a new archive.
+	 * <p>
+	 * Decks are buffered and written sequentially, and the number of decks is written to the header when the writer is closed.
+	 * An archive whose writer was not closed reads as empty.
+	 * A writer must not be used by more than one thread at once.
+	 *
+	 * @author Martin de Spirlet
+	 * @version 1.1
+	 * @see DeckArchive#create(Path, int)
+	 * @since 1.1
+	 */
+	public static class Writer implements AutoCloseable {
+
+		// Fields
+
+		/**
+		 * The channel to which the archive is written.
+		 */
+		private final FileChannel channel;
+
+		/**
+		 * The buffer of encoded decks not yet written to the channel.
+		 */
+		private final ByteBuffer buffer;
+
+		/**
+		 * The number of cards in each deck.
+		 */
+		private final int deckSize;
+
+		/**
+		 * The number of decks appended.
+		 */
+		private long count;
+
+		/**
+		 * Whether this writer has been closed.
+		 */
+		private boolean closed;
+
+
+		// Constructors
+
+		/**
+		 * Constructs a new writer of an archive with the specified deck size to the specified channel, and writes a header with no decks.
+		 *
+		 * @param channel - the channel to which the archive is to be written
+		 * @param deckSize - the number of cards in each deck
+		 * @throws IOException if an I/O error occurs
+		 */
+		private Writer(FileChannel channel, int deckSize) throws IOException {
+			this.channel = channel;
+			this.deckSize = deckSize;
+			this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, HEADER_SIZE + deckSize));
+			buffer.putInt(MAGIC).putInt(VERSION).putInt(deckSize).putInt(0).putLong(0);
+			flush();
+		}
+
+
+		// Helper functions
+
+		/**
+		 * Writes the buffered bytes to the channel.
+		 *
+		 * @throws IOException if an I/O error occurs
+		 */
+		private void flush() throws IOException {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			buffer.clear();
+		}
+
+		/**
+		 * Ensures the buffer has room for one deck.
+		 *
+		 * @throws IOException if an I/O error occurs
+		 */
+		private void reserve() throws IOException {
+			if (buffer.remaining() < deckSize) {
+				flush();
+			}
+		}
+
+
+		// Deck addition
+
+		/**
+		 * Appends the specified pile to the archive as its next deck.
+		 *
+		 * @param pile - the deck to be appended
+		 * @throws IllegalArgumentException if the size of the pile is not the deck size of the archive
+		 * @throws IOException if an I/O error occurs
+		 */
+		public void append(Pile pile) throws IOException {
+			if (pile.size() != deckSize) {
+				throw new IllegalArgumentException("Deck of " + pile.size() + " cards in archive of " + deckSize + " card decks");
+			}
+			reserve();
+			List<Card> cards = pile.getList();
+			for (int i = 0; i < deckSize; i++) {
+				buffer.put(PackedPile.encode(cards.get(i)));
+			}
+			count++;
+		}
+
+		/**
+		 * Appends the specified packed pile to the archive as its next deck.
+		 *
+		 * @param pile - the deck to be appended
+		 * @throws IllegalArgumentException if the size of the packed pile is not the deck size of the archive
+		 * @throws IOException if an I/O error occurs
+		 */
+		public void append(PackedPile pile) throws IOException {
+			if (pile.size() != deckSize) {
+				throw new IllegalArgumentException("Deck of " + pile.size() + " cards in archive of " + deckSize + " card decks");
+			}
+			reserve();
+			for (int i = 0; i < deckSize; i++) {
+				buffer.put(PackedPile.encode(pile.getCardAt(i)));
+			}
+			count++;
+		}
+
+
+		// Getters
+
+		/**
+		 * Returns the number of decks appended to the archive.
+		 *
+		 * @return the number of decks appended to the archive
+		 */
+		public long size() {
+			return count;
+		}
+
+
+		// Overrides
+
+		/**
+		 * Writes any buffered decks and the number of decks to the archive, and closes it.
+		 * Closing a writer which is already closed has no effect.
+		 *
+		 * @throws IOException if an I/O error occurs
+		 */
+		@Override
+		public void close() throws IOException {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			try {
+				flush();
+				buffer.putLong(count).flip();
+				while (buffer.hasRemaining()) {
+					channel.write(buffer, COUNT_OFFSET + buffer.position());
+				}
+				channel.force(true);
+			} finally {
+				channel.close();
+			}
+		}
+
+	}
+
+	/**
+	 * DeckView is an unmodifiable list of the cards of one deck of an archive, read in place from the mapped file.
+	 *
+	 * @author Martin de Spirlet
+	 * @version 1.1
+	 * @see DeckArchive#viewDeck(long)
+	 * @since 1.1
+	 */
+	private static final class DeckView extends AbstractList<Card> implements RandomAccess {
+
+		/**
+		 * The mapped chunk containing the deck.
+		 */
+		private final ByteBuffer chunk;
+
+		/**
+		 * The offset of the deck in the chunk.
+		 */
+		private final int offset;
+
+		/**
+		 * The number of cards in the deck.
+		 */
+		private final int size;
+
+		/**
+		 * Constructs a new view of the deck at the specified offset in the specified chunk.
+		 *
+		 * @param chunk - the mapped chunk containing the deck
+		 * @param offset - the offset of the deck in the chunk
+		 * @param size - the number of cards in the deck
+		 */
+		DeckView(ByteBuffer chunk, int offset, int size) {
+			this.chunk = chunk;
+			this.offset = offset;
+			this.size = size;
+		}
+
+		@Override
+		public Card get(int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+			}
+			return PackedPile.decode(PileCodec.checkCode(chunk.get(offset + index)));
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+	}
+
+
+	// Fields
+
+	/**
+	 * The channel from which the archive was mapped.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The read-only mapped chunks of the archive, each containing {@link #decksPerChunk} decks, except perhaps the last.
+	 */
+	private final MappedByteBuffer[] chunks;
+
+	/**
+	 * The number of cards in each deck.
+	 */
+	private final int deckSize;
+
+	/**
+	 * The number of decks in each mapped chunk.
+	 */
+	private final int decksPerChunk;
+
+	/**
+	 * The number of decks in the archive.
+	 */
+	private final long count;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new archive mapped from the specified channel.
+	 *
+	 * @param channel - the channel from which the archive is to be mapped
+	 * @throws IOException if an I/O error occurs, or the file is not a valid archive
+	 */
+	private DeckArchive(FileChannel channel) throws IOException {
+		this.channel = channel;
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining()) {
+			if (channel.read(header, header.position()) < 0) {
+				throw new IOException("Truncated deck archive header");
+			}
+		}
+		header.flip();
+		if (header.getInt() != MAGIC) {
+			throw new IOException("Not a deck archive");
+		}
+		int version = header.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unknown deck archive version: " + version);
+		}
+		deckSize = header.getInt();
+		header.getInt();
+		count = header.getLong();
+		// Compare by division, since a corrupt count may overflow the size of the decks
+		if (deckSize <= 0 || count < 0 || count > (channel.size() - HEADER_SIZE) / deckSize) {
+			throw new IOException("Corrupt deck archive header");
+		}
+		decksPerChunk = Math.max(1, CHUNK_SIZE / deckSize);
+		int chunkCount = (int) ((count + decksPerChunk - 1) / decksPerChunk);
+		chunks = new MappedByteBuffer[chunkCount];
+		for (int i = 0; i < chunkCount; i++) {
+			long first = (long) i * decksPerChunk;
+			long decks = Math.min(decksPerChunk, count - first);
+			chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * deckSize, decks * deckSize);
+		}
+	}
+
+
+	// Factories
+
+	/**
+	 * Opens the archive at the specified path for reading.
+	 * The file is mapped, not read, so this takes constant time however large the archive.
+	 *
+	 * @param path - the path of the archive
+	 * @return the archive at the specified path
+	 * @throws IOException if an I/O error occurs, or the file is not a valid archive
+	 */
+	public static DeckArchive open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new DeckArchive(channel);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates a new archive of decks of the specified size at the specified path, replacing any existing file, and returns a writer to which the decks are to be appended.
+	 *
+	 * @param path - the path of the archive
+	 * @param deckSize - the number of cards in each deck
+	 * @return a writer of the new archive
+	 * @throws IllegalArgumentException if {@code deckSize} is not positive
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static Writer create(Path path, int deckSize) throws IOException {
+		if (deckSize <= 0) {
+			throw new IllegalArgumentException("Non-positive deck size: " + deckSize);
+		}
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		try {
+			return new Writer(channel, deckSize);
+		} catch (IOException | RuntimeException | Error e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the mapped chunk containing the specified deck.
+	 *
+	 * @param deck - the index of the deck
+	 * @return the mapped chunk containing the specified deck
+	 * @throws IndexOutOfBoundsException if {@code deck} is negative or not less than {@link #size()}
+	 */
+	private MappedByteBuffer chunkOf(long deck) {
+		if (deck < 0 || deck >= count) {
+			throw new IndexOutOfBoundsException("Deck " + deck + " out of bounds for length " + count);
+		}
+		return chunks[(int) (deck / decksPerChunk)];
+	}
+
+	/**
+	 * Returns the offset of the specified deck in its mapped chunk.
+	 *
+	 * @param deck - the index of the deck
+	 * @return the offset of the specified deck in its mapped chunk
+	 */
+	private int offsetOf(long deck) {
+		return (int) (deck % decksPerChunk) * deckSize;
+	}
+
+
+	// Deck access
+
+	/**
+	 * Returns a new pile containing the cards of the specified deck.
+	 *
+	 * @param deck - the index of the deck
+	 * @return a new pile containing the cards of the specified deck
+	 * @throws IndexOutOfBoundsException if {@code deck} is negative or not less than {@link #size()}
+	 * @throws IllegalArgumentException if the deck contains an invalid card
+	 */
+	public Pile getDeck(long deck) {
+		return new Pile(viewDeck(deck));
+	}
+
+	/**
+	 * Returns a new packed pile containing the cards of the specified deck, copied in bulk from the mapped file.
+	 *
+	 * @param deck - the index of the deck
+	 * @return a new packed pile containing the cards of the specified deck
+	 * @throws IndexOutOfBoundsException if {@code deck} is negative or not less than {@link #size()}
+	 * @throws IllegalArgumentException if the deck contains an invalid card
+	 */
+	public PackedPile getPackedDeck(long deck) {
+		ByteBuffer encoded = ByteBuffer.allocate(PileCodec.encodedSize(deckSize));
+		PileCodec.writeHeader(encoded, deckSize);
+		encoded.put(PileCodec.HEADER_SIZE, chunkOf(deck), offsetOf(deck), deckSize);
+		return PackedPile.readFrom(encoded);
+	}
+
+	/**
+	 * Returns an unmodifiable list of the cards of the specified deck, read in place from the mapped file.
+	 * The list allocates no storage of its own, and may be passed to {@link Pile#Pile(java.util.Collection)} to build a pile.
+	 *
+	 * @param deck - the index of the deck
+	 * @return an unmodifiable list of the cards of the specified deck
+	 * @throws IndexOutOfBoundsException if {@code deck} is negative or not less than {@link #size()}
+	 */
+	public List<Card> viewDeck(long deck) {
+		return new DeckView(chunkOf(deck), offsetOf(deck), deckSize);
+	}
+
+	/**
+	 * Returns a read-only buffer of the encoded cards of the specified deck, sharing the mapped file.
+	 * Each card is encoded as by {@link Pile#writeTo(ByteBuffer)}, from the bottom of the deck to the top.
+	 *
+	 * @param deck - the index of the deck
+	 * @return a read-only buffer of the encoded cards of the specified deck
+	 * @throws IndexOutOfBoundsException if {@code deck} is negative or not less than {@link #size()}
+	 */
+	public ByteBuffer sliceDeck(long deck) {
+		return chunkOf(deck).slice(offsetOf(deck), deckSize).asReadOnlyBuffer();
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the number of cards in each deck of this archive.
+	 *
+	 * @return the number of cards in each deck of this archive
+	 */
+	public int getDeckSize() {
+		return deckSize;
+	}
+
+	/**
+	 * Returns the number of decks in this archive.
+	 *
+	 * @return the number of decks in this archive
+	 */
+	public long size() {
+		return count;
+	}
+
+
+	// Overrides
+
+	/**
+	 * Closes the channel from which this archive was mapped.
+	 * The mapping remains valid until it is garbage collected, so decks already viewed remain readable.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
@@ -0,0 +1,110 @@
+package io.github.martindes01.pickcard;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * DeckType is the public enumeration of the kinds of deck from which piles may be built.
+ * <p>
+ * Each enum constant holds a precomputed template of its cards, face down, ordered by suit and then by rank.
+ * Decks and shoes are built by copying the template in bulk, so no cards are constructed or looked up per card.
+ * <p>
+ * The available enum constants are:
+ * <ul>
+ * <li>{@link #STANDARD}
+ * <li>{@link #PIQUET}
+ * <li>{@link #EUCHRE}
+ * </ul>
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile#deck(DeckType)
+ * @see Pile#shoe(DeckType, int, PileStorage)
+ * @since 1.1
+ */
+public enum DeckType {
+
+	/**
+	 * The standard deck of 52 cards, from two to ace in each suit.
+	 */
+	STANDARD(Rank.TWO),
+
+	/**
+	 * The piquet deck of 32 cards, from seven to ace in each suit, also used for belote and skat.
+	 */
+	PIQUET(Rank.SEVEN),
+
+	/**
+	 * The euchre deck of 24 cards, from nine to ace in each suit, also used for pinochle.
+	 */
+	EUCHRE(Rank.NINE);
+
+
+	// Fields
+
+	/**
+	 * The cards of this kind of deck, face down.
+	 * This is a reference to an array which must not be changed.
+	 */
+	private final Card[] template;
+
+	/**
+	 * An unmodifiable view of the template.
+	 * This is a reference to an immutable object.
+	 */
+	private final List<Card> cards;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new kind of deck containing each rank from the specified rank to ace in each suit.
+	 *
+	 * @param lowest - the lowest rank of the deck
+	 */
+	private DeckType(Rank lowest) {
+		Rank[] ranks = Rank.values();
+		Suit[] suits = Suit.values();
+		int perSuit = ranks.length - lowest.ordinal();
+		this.template = new Card[suits.length * perSuit];
+		int count = 0;
+		for (Suit suit : suits) {
+			for (int rank = lowest.ordinal(); rank < ranks.length; rank++) {
+				template[count++] = Card.of(suit, ranks[rank], false);
+			}
+		}
+		this.cards = Collections.unmodifiableList(Arrays.asList(template));
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the template of this kind of deck, which must not be changed.
+	 *
+	 * @return the template of this kind of deck
+	 */
+	Card[] template() {
+		return template;
+	}
+
+	/**
+	 * Returns an unmodifiable list of the cards of this kind of deck, face down, ordered by suit and then by rank.
+	 *
+	 * @return an unmodifiable list of the cards of this kind of deck
+	 */
+	public List<Card> getCards() {
+		return cards;
+	}
+
+	/**
+	 * Returns the number of cards in this kind of deck.
+	 *
+	 * @return the number of cards in this kind of deck
+	 */
+	public int size() {
+		return template.length;
+	}
+
+}
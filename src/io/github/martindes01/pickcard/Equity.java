@@ -0,0 +1,170 @@
+package io.github.martindes01.pickcard;
+
+/**
+ * Equity is the immutable result of an equity calculation for a poker hand.
+ * <p>
+ * For each player, an equity records the number of deals won outright, the number of deals tied, and the share of the pot won in tied deals.
+ * The equity of a player is the expected share of the pot won by that player.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see EquityCalculator
+ * @since 1.1
+ */
+public final class Equity {
+
+	// Fields
+
+	/**
+	 * The number of deals evaluated.
+	 * This is a primitive field.
+	 */
+	private final long deals;
+
+	/**
+	 * Whether every possible deal was evaluated exactly once.
+	 * This is a primitive field.
+	 */
+	private final boolean exact;
+
+	/**
+	 * The number of deals won outright by each player.
+	 * This array is never modified.
+	 */
+	private final long[] wins;
+
+	/**
+	 * The number of deals tied by each player.
+	 * This array is never modified.
+	 */
+	private final long[] ties;
+
+	/**
+	 * The sum of the shares of the pot won by each player in tied deals.
+	 * This array is never modified.
+	 */
+	private final double[] tieShares;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new equity from the specified tallies, which are not copied.
+	 *
+	 * @param deals - the number of deals evaluated
+	 * @param exact - whether every possible deal was evaluated exactly once
+	 * @param wins - the number of deals won outright by each player
+	 * @param ties - the number of deals tied by each player
+	 * @param tieShares - the sum of the shares of the pot won by each player in tied deals
+	 */
+	Equity(long deals, boolean exact, long[] wins, long[] ties, double[] tieShares) {
+		this.deals = deals;
+		this.exact = exact;
+		this.wins = wins;
+		this.ties = ties;
+		this.tieShares = tieShares;
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the number of deals evaluated.
+	 *
+	 * @return the number of deals evaluated
+	 */
+	public long getDeals() {
+		return deals;
+	}
+
+	/**
+	 * Returns the equity of the specified player, which is the expected share of the pot won by that player.
+	 *
+	 * @param player - index of the player
+	 * @return the equity of the specified player, between {@code 0} and {@code 1}, inclusive
+	 */
+	public double getEquity(int player) {
+		return deals == 0 ? 0 : (wins[player] + tieShares[player]) / deals;
+	}
+
+	/**
+	 * Returns the number of players.
+	 *
+	 * @return the number of players
+	 */
+	public int getPlayers() {
+		return wins.length;
+	}
+
+	/**
+	 * Returns the probability that the specified player ties for the best hand.
+	 *
+	 * @param player - index of the player
+	 * @return the probability that the specified player ties for the best hand
+	 */
+	public double getTieProbability(int player) {
+		return deals == 0 ? 0 : (double) ties[player] / deals;
+	}
+
+	/**
+	 * Returns the number of deals tied by the specified player.
+	 *
+	 * @param player - index of the player
+	 * @return the number of deals tied by the specified player
+	 */
+	public long getTies(int player) {
+		return ties[player];
+	}
+
+	/**
+	 * Returns the probability that the specified player wins outright.
+	 *
+	 * @param player - index of the player
+	 * @return the probability that the specified player wins outright
+	 */
+	public double getWinProbability(int player) {
+		return deals == 0 ? 0 : (double) wins[player] / deals;
+	}
+
+	/**
+	 * Returns the number of deals won outright by the specified player.
+	 *
+	 * @param player - index of the player
+	 * @return the number of deals won outright by the specified player
+	 */
+	public long getWins(int player) {
+		return wins[player];
+	}
+
+	/**
+	 * Returns {@code true} if every possible deal was evaluated exactly once, so that this equity is exact rather than estimated.
+	 *
+	 * @return {@code true} if this equity is exact
+	 */
+	public boolean isExact() {
+		return exact;
+	}
+
+
+	// Overrides
+
+	/**
+	 * Returns a string representation of this equity.
+	 * This is the number of deals followed by the win probability, tie probability and equity of each player.
+	 *
+	 * @return a string representation of this equity
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(exact ? "Exact equity over " : "Estimated equity over ").append(deals).append(" deals");
+		for (int player = 0; player < wins.length; player++) {
+			builder.append("\n  Player ").append(player)
+					.append(" : win ").append(getWinProbability(player))
+					.append(", tie ").append(getTieProbability(player))
+					.append(", equity ").append(getEquity(player));
+		}
+		return builder.toString();
+	}
+
+}
@@ -0,0 +1,559 @@
+package io.github.martindes01.pickcard;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * EquityCalculator is the parallel calculator of the equities of poker hands in Texas hold 'em and its variants.
+ * <p>
+ * Given the hole cards of each player and a partial board, the remaining board cards, and the hole cards of any player with fewer than two, are dealt from the unseen cards and each player's best hand is evaluated using {@link HandEvaluator}.
+ * When the number of possible deals does not exceed the requested number of deals, every possible deal is enumerated exactly once.
+ * Otherwise, deals are sampled at random.
+ * <p>
+ * Work is split across a {@link ForkJoinPool}.
+ * Sampling splits a {@link SplittableRandom} seeded with the specified seed along with the work, so the result for a given seed does not depend on the number of threads or on scheduling.
+ * Unseen cards are held in one {@code int} array per task and dealt by partial Fisher-Yates shuffling, so no cards or piles are allocated per deal.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Equity
+ * @see HandEvaluator
+ * @since 1.1
+ */
+public final class EquityCalculator {
+
+	// Constants
+
+	/**
+	 * The number of cards on a complete board.
+	 */
+	private static final int BOARD_SIZE = 5;
+
+	/**
+	 * The number of hole cards of each player.
+	 */
+	private static final int HOLE_SIZE = 2;
+
+	/**
+	 * The maximum number of deals sampled by a single task before it is split.
+	 */
+	private static final long THRESHOLD = 1 << 14;
+
+
+	// Fields
+
+	/**
+	 * The pool in which calculations are run.
+	 * This is a reference to a thread-safe object.
+	 */
+	private final ForkJoinPool pool;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new equity calculator which runs calculations in the common pool.
+	 *
+	 * @see ForkJoinPool#commonPool()
+	 */
+	public EquityCalculator() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Constructs a new equity calculator which runs calculations in the specified pool.
+	 *
+	 * @param pool - the pool in which calculations are run
+	 */
+	public EquityCalculator(ForkJoinPool pool) {
+		this.pool = Objects.requireNonNull(pool);
+	}
+
+
+	// Calculation
+
+	/**
+	 * Returns the equities of the specified hands, evaluated over at most the specified number of deals.
+	 * If the number of possible deals does not exceed the specified number, every possible deal is enumerated and the result is exact.
+	 * Otherwise, the specified number of deals is sampled, reproducibly for the specified seed.
+	 *
+	 * @param holeCards - the hole cards of each player, at most 2 cards each, where missing hole cards are dealt from the unseen cards
+	 * @param board - the cards already on the board, at most 5 cards
+	 * @param deals - the maximum number of deals to evaluate
+	 * @param seed - the seed from which deals are sampled
+	 * @return the equities of the specified hands
+	 * @throws IllegalArgumentException if there are no hands, any two hands or the board share a card, a hand has more than 2 cards, the board has more than 5 cards, there are not enough unseen cards to deal the missing cards, or {@code deals} is not positive
+	 */
+	public Equity calculate(List<CardSet> holeCards, CardSet board, long deals, long seed) {
+		if (deals <= 0) {
+			throw new IllegalArgumentException("Non-positive number of deals: " + deals);
+		}
+		Table table = new Table(holeCards, board);
+		if (table.deals() <= deals) {
+			return enumerate(table);
+		}
+		Tally tally = pool.invoke(new SamplingTask(table, deals, new SplittableRandom(seed)));
+		return tally.toEquity(false);
+	}
+
+	/**
+	 * Returns the exact equities of the specified hands, evaluated over every possible deal.
+	 *
+	 * @param holeCards - the hole cards of each player, at most 2 cards each, where missing hole cards are dealt from the unseen cards
+	 * @param board - the cards already on the board, at most 5 cards
+	 * @return the exact equities of the specified hands
+	 * @throws IllegalArgumentException if there are no hands, any two hands or the board share a card, a hand has more than 2 cards, the board has more than 5 cards, or there are not enough unseen cards to deal the missing cards
+	 */
+	public Equity enumerate(List<CardSet> holeCards, CardSet board) {
+		return enumerate(new Table(holeCards, board));
+	}
+
+	/**
+	 * Returns the exact equities of the hands at the specified table, evaluated over every possible deal.
+	 *
+	 * @param table - the table to be evaluated
+	 * @return the exact equities of the hands at the specified table
+	 */
+	private Equity enumerate(Table table) {
+		Tally tally;
+		if (table.dealt == 0) {
+			tally = new Tally(table);
+			tally.score(table.hands());
+		} else {
+			tally = pool.invoke(new EnumerationTask(table));
+		}
+		return tally.toEquity(true);
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the number of ways to choose the specified number of items from the specified number of items, or {@link Long#MAX_VALUE} if the number overflows.
+	 *
+	 * @param n - the number of items to choose from
+	 * @param k - the number of items to choose
+	 * @return the binomial coefficient of {@code n} and {@code k}
+	 */
+	private static long combinations(int n, int k) {
+		long result = 1;
+		for (int i = 1; i <= k; i++) {
+			long high = Math.multiplyHigh(result, n - k + i);
+			long low = result * (n - k + i);
+			if (high != 0 || low < 0) {
+				return Long.MAX_VALUE;
+			}
+			result = low / i;
+		}
+		return result;
+	}
+
+
+	// Tasks
+
+	/**
+	 * The validated hands, board and unseen cards of a calculation.
+	 */
+	private static final class Table {
+
+		/**
+		 * The bits of the hole cards of each player.
+		 */
+		final long[] holes;
+
+		/**
+		 * The bits of the cards already on the board.
+		 */
+		final long board;
+
+		/**
+		 * The bit indices of the unseen cards.
+		 */
+		final int[] unseen;
+
+		/**
+		 * The number of cards still to be dealt to each slot, where slot {@code 0} is the board and slot {@code player + 1} is the hole of each player.
+		 */
+		final int[] missing;
+
+		/**
+		 * The total number of cards dealt per deal.
+		 */
+		final int dealt;
+
+		/**
+		 * Constructs a new table from the specified hands and board.
+		 *
+		 * @param holeCards - the hole cards of each player
+		 * @param board - the cards already on the board
+		 * @throws IllegalArgumentException if the hands and board are invalid
+		 */
+		Table(List<CardSet> holeCards, CardSet board) {
+			if (holeCards.isEmpty()) {
+				throw new IllegalArgumentException("No hands");
+			}
+			if (board.size() > BOARD_SIZE) {
+				throw new IllegalArgumentException("Board has more than " + BOARD_SIZE + " cards: " + board);
+			}
+			long seen = board.bits();
+			holes = new long[holeCards.size()];
+			missing = new int[holes.length + 1];
+			missing[0] = BOARD_SIZE - board.size();
+			for (int player = 0; player < holes.length; player++) {
+				CardSet hole = holeCards.get(player);
+				if (hole.size() > HOLE_SIZE) {
+					throw new IllegalArgumentException("Player " + player + " has more than " + HOLE_SIZE + " hole cards: " + hole);
+				}
+				missing[player + 1] = HOLE_SIZE - hole.size();
+				if ((seen & hole.bits()) != 0) {
+					throw new IllegalArgumentException("Player " + player + " shares a card: " + hole);
+				}
+				holes[player] = hole.bits();
+				seen |= hole.bits();
+			}
+			this.board = board.bits();
+			unseen = new int[CardSet.TYPES - Long.bitCount(seen)];
+			for (int bit = 0, i = 0; bit < CardSet.TYPES; bit++) {
+				if ((seen & 1L << bit) == 0) {
+					unseen[i++] = bit;
+				}
+			}
+			int total = 0;
+			for (int count : missing) {
+				total += count;
+			}
+			if (total > unseen.length) {
+				throw new IllegalArgumentException("Not enough unseen cards to deal " + total + " cards: " + unseen.length);
+			}
+			dealt = total;
+		}
+
+		/**
+		 * Returns the bits of the known cards of each slot, which are the board followed by the hole cards of each player.
+		 *
+		 * @return the bits of the known cards of each slot
+		 */
+		long[] hands() {
+			long[] hands = new long[missing.length];
+			reset(hands);
+			return hands;
+		}
+
+		/**
+		 * Resets the specified bits of each slot to the known cards of the slot.
+		 *
+		 * @param hands - the bits of each slot, which are the board followed by the hole cards of each player
+		 */
+		void reset(long[] hands) {
+			hands[0] = board;
+			System.arraycopy(holes, 0, hands, 1, holes.length);
+		}
+
+		/**
+		 * Returns the number of distinct deals at this table, or {@link Long#MAX_VALUE} if the number overflows.
+		 *
+		 * @return the number of distinct deals at this table
+		 */
+		long deals() {
+			long result = 1;
+			int remaining = unseen.length;
+			for (int count : missing) {
+				long ways = combinations(remaining, count);
+				if (ways != 0 && result > Long.MAX_VALUE / ways) {
+					return Long.MAX_VALUE;
+				}
+				result *= ways;
+				remaining -= count;
+			}
+			return result;
+		}
+
+	}
+
+	/**
+	 * The mergeable tallies of the outcomes of deals at a table.
+	 */
+	private static final class Tally {
+
+		/**
+		 * The table whose deals are tallied.
+		 */
+		private final Table table;
+
+		/**
+		 * The hand value of each player in the current deal.
+		 */
+		private final int[] values;
+
+		/**
+		 * The number of deals tallied.
+		 */
+		private long deals;
+
+		/**
+		 * The number of deals won outright by each player.
+		 */
+		private final long[] wins;
+
+		/**
+		 * The number of deals tied by each player.
+		 */
+		private final long[] ties;
+
+		/**
+		 * The sum of the shares of the pot won by each player in tied deals.
+		 */
+		private final double[] tieShares;
+
+		/**
+		 * Constructs a new empty tally for the specified table.
+		 *
+		 * @param table - the table whose deals are tallied
+		 */
+		Tally(Table table) {
+			int players = table.holes.length;
+			this.table = table;
+			values = new int[players];
+			wins = new long[players];
+			ties = new long[players];
+			tieShares = new double[players];
+		}
+
+		/**
+		 * Evaluates each player's hand on the specified complete board and tallies the outcome.
+		 *
+		 * @param hands - the bits of the complete board, followed by the bits of the complete hole cards of each player
+		 */
+		void score(long[] hands) {
+			int best = Integer.MIN_VALUE;
+			int winners = 0;
+			int winner = -1;
+			for (int player = 0; player < values.length; player++) {
+				int value = HandEvaluator.evaluate(hands[player + 1] | hands[0]);
+				values[player] = value;
+				if (value > best) {
+					best = value;
+					winners = 1;
+					winner = player;
+				} else if (value == best) {
+					winners++;
+				}
+			}
+			deals++;
+			if (winners == 1) {
+				wins[winner]++;
+			} else {
+				double share = 1.0 / winners;
+				for (int player = 0; player < values.length; player++) {
+					if (values[player] == best) {
+						ties[player]++;
+						tieShares[player] += share;
+					}
+				}
+			}
+		}
+
+		/**
+		 * Adds the specified tally to this tally.
+		 *
+		 * @param tally - the tally to be added
+		 * @return this tally
+		 */
+		Tally merge(Tally tally) {
+			deals += tally.deals;
+			for (int player = 0; player < values.length; player++) {
+				wins[player] += tally.wins[player];
+				ties[player] += tally.ties[player];
+				tieShares[player] += tally.tieShares[player];
+			}
+			return this;
+		}
+
+		/**
+		 * Returns the equity described by this tally.
+		 *
+		 * @param exact - whether every possible deal was tallied exactly once
+		 * @return the equity described by this tally
+		 */
+		Equity toEquity(boolean exact) {
+			return new Equity(deals, exact, wins, ties, tieShares);
+		}
+
+	}
+
+	/**
+	 * The task which samples a number of deals at random, splitting itself while the number is large.
+	 */
+	private static final class SamplingTask extends RecursiveTask<Tally> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The table whose deals are sampled.
+		 */
+		private final Table table;
+
+		/**
+		 * The number of deals to sample.
+		 */
+		private final long deals;
+
+		/**
+		 * The source of randomness of this task.
+		 */
+		private final SplittableRandom random;
+
+		/**
+		 * Constructs a new task which samples the specified number of deals.
+		 *
+		 * @param table - the table whose deals are sampled
+		 * @param deals - the number of deals to sample
+		 * @param random - the source of randomness of this task
+		 */
+		SamplingTask(Table table, long deals, SplittableRandom random) {
+			this.table = table;
+			this.deals = deals;
+			this.random = random;
+		}
+
+		@Override
+		protected Tally compute() {
+			if (deals > THRESHOLD) {
+				// Split the generator before forking so that the split does not depend on scheduling
+				SamplingTask left = new SamplingTask(table, deals / 2, random.split());
+				SamplingTask right = new SamplingTask(table, deals - deals / 2, random);
+				left.fork();
+				return right.compute().merge(left.join());
+			}
+			Tally tally = new Tally(table);
+			int[] unseen = table.unseen.clone();
+			int[] missing = table.missing;
+			int dealt = table.dealt;
+			long[] hands = table.hands();
+			for (long deal = 0; deal < deals; deal++) {
+				table.reset(hands);
+				for (int i = 0, slot = 0, filled = 0; i < dealt; i++, filled++) {
+					while (filled == missing[slot]) {
+						slot++;
+						filled = 0;
+					}
+					int j = i + random.nextInt(unseen.length - i);
+					int card = unseen[j];
+					unseen[j] = unseen[i];
+					unseen[i] = card;
+					hands[slot] |= 1L << card;
+				}
+				tally.score(hands);
+			}
+			return tally;
+		}
+
+	}
+
+	/**
+	 * The task which enumerates every deal, splitting itself by the first card dealt.
+	 * <p>
+	 * A deal fills each slot in turn, the board and then the hole of each player, with a combination of the unseen cards not yet dealt, so every distinct deal is enumerated exactly once.
+	 */
+	private static final class EnumerationTask extends RecursiveTask<Tally> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The table whose deals are enumerated.
+		 */
+		private final Table table;
+
+		/**
+		 * The index in the unseen cards of the first card dealt, or {@code -1} if this task enumerates every first card.
+		 */
+		private final int first;
+
+		/**
+		 * Constructs a new task which enumerates every deal.
+		 *
+		 * @param table - the table whose deals are enumerated
+		 */
+		EnumerationTask(Table table) {
+			this(table, -1);
+		}
+
+		/**
+		 * Constructs a new task which enumerates every deal whose first card is the specified unseen card.
+		 *
+		 * @param table - the table whose deals are enumerated
+		 * @param first - the index in the unseen cards of the first card dealt
+		 */
+		private EnumerationTask(Table table, int first) {
+			this.table = table;
+			this.first = first;
+		}
+
+		@Override
+		protected Tally compute() {
+			// The first slot to which cards are dealt
+			int slot = 0;
+			while (table.missing[slot] == 0) {
+				slot++;
+			}
+			if (first < 0) {
+				List<EnumerationTask> tasks = new ArrayList<>();
+				for (int i = 0; i <= table.unseen.length - table.missing[slot]; i++) {
+					tasks.add(new EnumerationTask(table, i));
+				}
+				Tally tally = new Tally(table);
+				for (EnumerationTask task : invokeAll(tasks)) {
+					tally.merge(task.join());
+				}
+				return tally;
+			}
+			Tally tally = new Tally(table);
+			long[] hands = table.hands();
+			long card = 1L << table.unseen[first];
+			hands[slot] |= card;
+			enumerate(tally, hands, slot, first + 1, table.missing[slot] - 1, card);
+			return tally;
+		}
+
+		/**
+		 * Tallies every deal completing the specified slot with the specified number of unseen cards from the specified index upwards, and then completing every later slot.
+		 *
+		 * @param tally - the tally to which deals are added
+		 * @param hands - the bits of each slot dealt so far, which are restored before returning
+		 * @param slot - the slot being dealt
+		 * @param from - the lowest index in the unseen cards which may be dealt to the slot
+		 * @param missing - the number of cards still to be dealt to the slot
+		 * @param dealt - the bits of the cards dealt so far
+		 */
+		private void enumerate(Tally tally, long[] hands, int slot, int from, int missing, long dealt) {
+			if (missing == 0) {
+				// Move to the next slot which needs cards, whose cards may be any not yet dealt
+				do {
+					slot++;
+				} while (slot < hands.length && table.missing[slot] == 0);
+				if (slot == hands.length) {
+					tally.score(hands);
+				} else {
+					enumerate(tally, hands, slot, 0, table.missing[slot], dealt);
+				}
+				return;
+			}
+			int[] unseen = table.unseen;
+			long hand = hands[slot];
+			for (int i = from; i <= unseen.length - missing; i++) {
+				long card = 1L << unseen[i];
+				if ((dealt & card) == 0) {
+					hands[slot] = hand | card;
+					enumerate(tally, hands, slot, i + 1, missing - 1, dealt | card);
+				}
+			}
+			hands[slot] = hand;
+		}
+
+	}
+
+}
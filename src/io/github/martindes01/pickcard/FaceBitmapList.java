@@ -0,0 +1,341 @@
+package io.github.martindes01.pickcard;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * FaceBitmapList is a list of cards which keeps the face visibility of its cards in a bitmap beside another list of cards.
+ * <p>
+ * The other list holds each card face down, and bit {@code i} of the bitmap is set if the card at index {@code i} is face up.
+ * Since cards are canonical, the card at each index is recombined from the two in constant time.
+ * Setting, toggling or counting the face visibility of a range of cards therefore operates on whole words of the bitmap, 64 cards at a time, rather than on each card.
+ * <p>
+ * The bit at the index of a {@code null} card is ignored.
+ * Adding or removing a card anywhere but the top of the list moves the bits above it, one at a time.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile#setFaceBitmap(boolean)
+ * @since 1.1
+ */
+class FaceBitmapList extends AbstractList<Card> implements RandomAccess {
+
+	// Fields
+
+	/**
+	 * The list of cards, each face down.
+	 */
+	private final List<Card> list;
+
+	/**
+	 * The face visibility of the cards in the list, one bit per card.
+	 */
+	private long[] bits;
+
+	/**
+	 * The number of {@code null} cards in the list.
+	 */
+	private int nulls;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new list over the specified list of cards, turning its cards face down and recording their face visibility in the bitmap.
+	 * The specified list must not be modified other than through this list.
+	 *
+	 * @param list - the list of cards
+	 */
+	FaceBitmapList(List<Card> list) {
+		this.list = list;
+		int size = list.size();
+		bits = new long[Math.max(1, (size + 63) >>> 6)];
+		for (int i = 0; i < size; i++) {
+			Card card = list.get(i);
+			if (card == null) {
+				nulls++;
+			} else if (card.isFaceUp()) {
+				bits[i >>> 6] |= 1L << i;
+				list.set(i, card.withFaceUp(false));
+			}
+		}
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the value of the bit at the specified index.
+	 *
+	 * @param index - the index of the bit
+	 * @return the value of the bit at the specified index
+	 */
+	private boolean bit(int index) {
+		return (bits[index >>> 6] & 1L << index) != 0;
+	}
+
+	/**
+	 * Sets the bit at the specified index to the specified value.
+	 *
+	 * @param index - the index of the bit
+	 * @param value - the value of the bit
+	 */
+	private void setBit(int index, boolean value) {
+		if (value) {
+			bits[index >>> 6] |= 1L << index;
+		} else {
+			bits[index >>> 6] &= ~(1L << index);
+		}
+	}
+
+	/**
+	 * Moves the bits from the specified index upwards by the specified distance, which may be negative, within the specified number of bits.
+	 * The bitmap is grown if needed.
+	 *
+	 * @param index - the index of the lowest bit to be moved
+	 * @param distance - the distance by which to move the bits
+	 * @param size - the number of bits in use before the move
+	 */
+	private void moveBits(int index, int distance, int size) {
+		int words = (size + Math.max(distance, 0) + 63) >>> 6;
+		if (words > bits.length) {
+			bits = Arrays.copyOf(bits, Math.max(words, bits.length + (bits.length >> 1)));
+		}
+		if (distance > 0) {
+			for (int i = size - 1; i >= index; i--) {
+				setBit(i + distance, bit(i));
+			}
+		} else if (distance < 0) {
+			for (int i = index; i < size; i++) {
+				setBit(i + distance, bit(i));
+			}
+		}
+	}
+
+	/**
+	 * Returns the specified card turned face down, and records its face visibility and whether it is {@code null} at the specified index.
+	 *
+	 * @param index - the index of the card
+	 * @param card - the card, which may be {@code null}
+	 * @return the card turned face down, or {@code null}
+	 */
+	private Card store(int index, Card card) {
+		if (card == null) {
+			nulls++;
+			return null;
+		}
+		setBit(index, card.isFaceUp());
+		return card.withFaceUp(false);
+	}
+
+
+	// Face visibility
+
+	/**
+	 * Sets the face visibility of the cards in the specified range to the specified state.
+	 *
+	 * @param fromIndex - the lowest index of the range, inclusive
+	 * @param toIndex - the highest index of the range, exclusive
+	 * @param faceUp - whether the faces of the cards should be visible
+	 */
+	void setFaceUp(int fromIndex, int toIndex, boolean faceUp) {
+		if (fromIndex < toIndex) {
+			int first = fromIndex >>> 6;
+			int last = (toIndex - 1) >>> 6;
+			long firstMask = -1L << fromIndex;
+			long lastMask = -1L >>> -toIndex;
+			if (first == last) {
+				firstMask &= lastMask;
+			}
+			bits[first] = faceUp ? bits[first] | firstMask : bits[first] & ~firstMask;
+			if (first != last) {
+				Arrays.fill(bits, first + 1, last, faceUp ? -1L : 0L);
+				bits[last] = faceUp ? bits[last] | lastMask : bits[last] & ~lastMask;
+			}
+			modCount++;
+		}
+	}
+
+	/**
+	 * Toggles the face visibility of the cards in the specified range.
+	 *
+	 * @param fromIndex - the lowest index of the range, inclusive
+	 * @param toIndex - the highest index of the range, exclusive
+	 */
+	void toggleFaceUp(int fromIndex, int toIndex) {
+		if (fromIndex < toIndex) {
+			int first = fromIndex >>> 6;
+			int last = (toIndex - 1) >>> 6;
+			long firstMask = -1L << fromIndex;
+			long lastMask = -1L >>> -toIndex;
+			if (first == last) {
+				bits[first] ^= firstMask & lastMask;
+			} else {
+				bits[first] ^= firstMask;
+				for (int i = first + 1; i < last; i++) {
+					bits[i] = ~bits[i];
+				}
+				bits[last] ^= lastMask;
+			}
+			modCount++;
+		}
+	}
+
+	/**
+	 * Returns the number of face up cards in the specified range.
+	 *
+	 * @param fromIndex - the lowest index of the range, inclusive
+	 * @param toIndex - the highest index of the range, exclusive
+	 * @return the number of face up cards in the specified range
+	 */
+	int countFaceUp(int fromIndex, int toIndex) {
+		if (fromIndex >= toIndex) {
+			return 0;
+		}
+		if (nulls != 0) {
+			// Skip the bits of null cards
+			int count = 0;
+			for (int i = fromIndex; i < toIndex; i++) {
+				if (bit(i) && list.get(i) != null) {
+					count++;
+				}
+			}
+			return count;
+		}
+		int first = fromIndex >>> 6;
+		int last = (toIndex - 1) >>> 6;
+		long firstMask = -1L << fromIndex;
+		long lastMask = -1L >>> -toIndex;
+		if (first == last) {
+			return Long.bitCount(bits[first] & firstMask & lastMask);
+		}
+		int count = Long.bitCount(bits[first] & firstMask) + Long.bitCount(bits[last] & lastMask);
+		for (int i = first + 1; i < last; i++) {
+			count += Long.bitCount(bits[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the list of cards, with the face visibility of each card restored from the bitmap.
+	 * This list must not be used afterwards.
+	 *
+	 * @return the list of cards
+	 */
+	List<Card> unwrap() {
+		for (int i = 0, size = list.size(); i < size; i++) {
+			if (bit(i)) {
+				Card card = list.get(i);
+				if (card != null) {
+					list.set(i, card.withFaceUp(true));
+				}
+			}
+		}
+		return list;
+	}
+
+
+	// Overrides
+
+	@Override
+	public Card get(int index) {
+		Card card = list.get(index);
+		return card != null && bit(index) ? card.withFaceUp(true) : card;
+	}
+
+	@Override
+	public Card set(int index, Card card) {
+		Card previous = get(index);
+		if (previous == null) {
+			nulls--;
+		}
+		list.set(index, store(index, card));
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return list.size();
+	}
+
+	@Override
+	public boolean add(Card card) {
+		add(list.size(), card);
+		return true;
+	}
+
+	@Override
+	public void add(int index, Card card) {
+		int size = list.size();
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		}
+		moveBits(index, 1, size);
+		list.add(index, store(index, card));
+		modCount++;
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Card> collection) {
+		int size = list.size();
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		}
+		Card[] cards = collection.toArray(new Card[0]);
+		moveBits(index, cards.length, size);
+		for (int i = 0; i < cards.length; i++) {
+			cards[i] = store(index + i, cards[i]);
+		}
+		list.addAll(index, Arrays.asList(cards));
+		modCount++;
+		return cards.length != 0;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Card> collection) {
+		return addAll(list.size(), collection);
+	}
+
+	@Override
+	public Card remove(int index) {
+		Card card = get(index);
+		int size = list.size();
+		list.remove(index);
+		if (card == null) {
+			nulls--;
+		}
+		moveBits(index + 1, -1, size);
+		modCount++;
+		return card;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		if (toIndex > fromIndex) {
+			int size = list.size();
+			List<Card> range = list.subList(fromIndex, toIndex);
+			if (nulls != 0) {
+				for (int i = 0, length = toIndex - fromIndex; i < length; i++) {
+					if (range.get(i) == null) {
+						nulls--;
+					}
+				}
+			}
+			range.clear();
+			moveBits(toIndex, fromIndex - toIndex, size);
+			modCount++;
+		}
+	}
+
+	@Override
+	public void clear() {
+		list.clear();
+		Arrays.fill(bits, 0L);
+		nulls = 0;
+		modCount++;
+	}
+
+}
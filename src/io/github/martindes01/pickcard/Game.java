@@ -1,56 +1,153 @@
 package io.github.martindes01.pickcard;
 
-import java.util.ArrayList;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
-public class Game {
+/**
+ * Game is the base class of a table hosted by a {@link GameEngine}.
+ * <p>
+ * A game owns its piles and runs its turn loop, {@link #play()}, as ordinary blocking code on a thread of its own.
+ * Players act by submitting actions from any thread using {@link #submit(Object)}, and the turn loop waits for them using {@link #awaitAction()}.
+ * Waiting blocks the table's thread, which is cheap when the engine runs tables on virtual threads, so a turn loop needs no callbacks or hand-written state machine.
+ * <p>
+ * The piles of a game are confined to its turn loop and must not be accessed from other threads.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @param <A> the type of the actions submitted by players
+ * @see GameEngine
+ * @since 1.0
+ */
+public abstract class Game<A> {
 
+	// Fields
+
+	/**
+	 * The piles owned by this game, by name.
+	 * This is a reference to a mutable object which is confined to the turn loop.
+	 */
+	private final Map<String, Pile> piles = new LinkedHashMap<>();
+
+	/**
+	 * The actions submitted by players and not yet taken by the turn loop.
+	 * This is a reference to a thread-safe object.
+	 */
+	private final BlockingQueue<A> actions = new LinkedBlockingQueue<>();
+
+	/**
+	 * The longest time for which {@link #awaitAction()} waits, or {@code null} if the default of the hosting engine applies.
+	 */
+	private volatile Duration actionTimeout;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new game with no piles and no pending actions.
+	 */
 	public Game() {
-		
+
 	}
 
-	public static void main(String[] args) {
-
-		
-		
-		ArrayList<Card> cards = new ArrayList<>();
-		cards.add(new Card(Suit.CLUBS, Rank.TWO, false));
-		cards.add(new Card(Suit.CLUBS, Rank.THREE, false));
-		cards.add(new Card(Suit.CLUBS, Rank.FOUR, false));
-		cards.add(new Card(Suit.DIAMONDS, Rank.TWO, false));
-		cards.add(new Card(Suit.DIAMONDS, Rank.THREE, false));
-		cards.add(new Card(Suit.DIAMONDS, Rank.FOUR, false));
-		cards.add(new Card(Suit.HEARTS, Rank.TWO, false));
-		cards.add(new Card(Suit.HEARTS, Rank.THREE, false));
-		cards.add(new Card(Suit.HEARTS, Rank.FOUR, false));
-		
-//		Pile fkn = new Pile();
-		
-		int tot = 0;
-		
-		for (int i = 0; i < 4000; i ++) {
-		
-			Pile pile = new Pile(cards);
-			long t1 = System.nanoTime();
-			pile.pickCardsAt(2, 2);
-			long t2 = System.nanoTime();
-			tot += (i < 1000 || i > 3000) ? 0 : (t2 - t1); 
-			//System.out.println(t2 - t1);
-			
-			System.out.println(pile);
+
+	// Turn loop
+
+	/**
+	 * Runs the turn loop of this game until the game ends.
+	 * This method is called once by the hosting engine, on a thread of its own.
+	 * <p>
+	 * An exception thrown by this method ends the game, and completes the future returned by {@link GameEngine#open(Game)} exceptionally.
+	 * The thread is interrupted if the engine is shut down immediately, which ends any wait for an action with {@link InterruptedException}.
+	 *
+	 * @throws Exception if the game ends abnormally
+	 */
+	protected abstract void play() throws Exception;
+
+
+	// Actions
+
+	/**
+	 * Submits the specified action to this game, to be taken by its turn loop.
+	 * This method may be called from any thread and never blocks.
+	 *
+	 * @param action - the action to be submitted
+	 * @throws NullPointerException if {@code action} is {@code null}
+	 */
+	public void submit(A action) {
+		actions.add(action);
+	}
+
+	/**
+	 * Takes the next action submitted to this game, waiting for at most the action timeout of this game.
+	 *
+	 * @return the next action submitted to this game
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 * @throws TimeoutException if no action is submitted within the action timeout
+	 * @see #getActionTimeout()
+	 */
+	protected A awaitAction() throws InterruptedException, TimeoutException {
+		Duration timeout = actionTimeout;
+		if (timeout == null) {
+			return actions.take();
+		}
+		A action = actions.poll(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		if (action == null) {
+			throw new TimeoutException("No action within " + timeout);
 		}
-		System.out.println(tot);
-
-//		System.out.println(pile);
-//		
-//		Pile pile2 = pile.pickCardsAt(10, 5);
-//		
-////		Pile pile2 = new Pile(pile.getList().subList(0, 3));
-////		pile.getList().subList(0, 3).clear();
-//		
-//		pile.getCardsAt(3, 2).toggleFaceUp();
-//		
-//		System.out.println(pile);
-//		System.out.println(pile2);
+		return action;
+	}
+
+
+	// Piles
+
+	/**
+	 * Returns the pile of this game with the specified name, creating an empty pile if there is none.
+	 *
+	 * @param name - the name of the pile
+	 * @return the pile of this game with the specified name
+	 */
+	protected Pile getPile(String name) {
+		return piles.computeIfAbsent(name, key -> new Pile());
+	}
+
+	/**
+	 * Returns an unmodifiable view of the piles of this game, by name, in the order in which they were created.
+	 *
+	 * @return an unmodifiable view of the piles of this game
+	 */
+	protected Map<String, Pile> getPiles() {
+		return Collections.unmodifiableMap(piles);
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the longest time for which {@link #awaitAction()} waits, or {@code null} if it waits indefinitely.
+	 *
+	 * @return the longest time for which {@code awaitAction()} waits, or {@code null} if it waits indefinitely
+	 */
+	public Duration getActionTimeout() {
+		return actionTimeout;
+	}
+
+
+	// Setters
+
+	/**
+	 * Sets the longest time for which {@link #awaitAction()} waits.
+	 * A {@code null} timeout waits indefinitely, unless this game is then opened by an engine with a default action timeout.
+	 *
+	 * @param actionTimeout - the longest time for which {@code awaitAction()} waits, or {@code null}
+	 */
+	public void setActionTimeout(Duration actionTimeout) {
+		this.actionTimeout = actionTimeout;
 	}
 
 }
@@ -0,0 +1,216 @@
+package io.github.martindes01.pickcard;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GameEngine hosts many concurrent games, running the turn loop of each on a thread of its own.
+ * <p>
+ * Where the runtime supports virtual threads, each game runs on a virtual thread, so a game blocked waiting for player actions holds no platform thread, and tens of thousands of mostly idle games may be hosted at once.
+ * Otherwise, each game runs on a platform thread from a cached pool, and the admission limit should be set accordingly.
+ * <p>
+ * The number of open games is bounded by an admission limit, beyond which {@link #open(Game)} rejects games rather than queueing them.
+ * Each game waits for actions for at most its action timeout, which defaults to that of the engine.
+ * Shutting down an engine stops the admission of new games and lets open games finish, and closing it waits for them for a grace period before interrupting them.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Game
+ * @since 1.1
+ */
+public class GameEngine implements AutoCloseable {
+
+	// Fields
+
+	/**
+	 * The executor running the turn loops.
+	 * This is a reference to a thread-safe object.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * Whether the executor runs each task on a new virtual thread.
+	 */
+	private final boolean virtual;
+
+	/**
+	 * The permits for open games.
+	 * This is a reference to a thread-safe object.
+	 */
+	private final Semaphore admission;
+
+	/**
+	 * The maximum number of open games.
+	 */
+	private final int maxGames;
+
+	/**
+	 * The default action timeout of opened games, or {@code null} if they wait indefinitely.
+	 */
+	private final Duration actionTimeout;
+
+	/**
+	 * The time for which {@link #close()} waits for open games to finish before interrupting them.
+	 */
+	private final Duration gracePeriod;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new engine hosting at most the specified number of games at once, with the specified default action timeout and grace period.
+	 *
+	 * @param maxGames - the maximum number of open games
+	 * @param actionTimeout - the default action timeout of opened games, or {@code null} if they wait indefinitely
+	 * @param gracePeriod - the time for which {@link #close()} waits for open games to finish before interrupting them
+	 * @throws IllegalArgumentException if {@code maxGames} is not positive
+	 * @throws NullPointerException if {@code gracePeriod} is {@code null}
+	 */
+	public GameEngine(int maxGames, Duration actionTimeout, Duration gracePeriod) {
+		if (maxGames <= 0) {
+			throw new IllegalArgumentException("Non-positive maximum number of games: " + maxGames);
+		}
+		Objects.requireNonNull(gracePeriod);
+		ExecutorService virtualExecutor = newVirtualThreadPerTaskExecutor();
+		this.virtual = virtualExecutor != null;
+		this.executor = virtual ? virtualExecutor : Executors.newCachedThreadPool();
+		this.admission = new Semaphore(maxGames);
+		this.maxGames = maxGames;
+		this.actionTimeout = actionTimeout;
+		this.gracePeriod = gracePeriod;
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns a new executor which runs each task on a new virtual thread, or {@code null} if the runtime does not support virtual threads.
+	 * The executor is looked up reflectively so that the library still runs on runtimes without virtual threads.
+	 *
+	 * @return a new executor which runs each task on a new virtual thread, or {@code null} if the runtime does not support virtual threads
+	 */
+	private static ExecutorService newVirtualThreadPerTaskExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+
+	// Game hosting
+
+	/**
+	 * Opens the specified game, running its turn loop on a thread of its own.
+	 * The game is given the default action timeout of this engine unless it has an action timeout of its own.
+	 * <p>
+	 * The returned future completes when the turn loop returns, or completes exceptionally with the exception thrown by the turn loop.
+	 * The admission permit of the game is released in either case.
+	 *
+	 * @param game - the game to be opened
+	 * @return a future which completes when the game ends
+	 * @throws RejectedExecutionException if this engine already hosts its maximum number of games, or has been shut down
+	 */
+	public CompletableFuture<Void> open(Game<?> game) {
+		if (!admission.tryAcquire()) {
+			throw new RejectedExecutionException("Engine is hosting its maximum of " + maxGames + " games");
+		}
+		if (game.getActionTimeout() == null) {
+			game.setActionTimeout(actionTimeout);
+		}
+		CompletableFuture<Void> ended = new CompletableFuture<>();
+		try {
+			executor.execute(() -> {
+				try {
+					game.play();
+					ended.complete(null);
+				} catch (Throwable e) {
+					ended.completeExceptionally(e);
+				} finally {
+					admission.release();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// Thrown if this engine has been shut down
+			admission.release();
+			throw e;
+		}
+		return ended;
+	}
+
+
+	// Engine shutdown
+
+	/**
+	 * Stops the admission of new games.
+	 * Open games continue until their turn loops return.
+	 *
+	 * @see #awaitTermination(Duration)
+	 */
+	public void shutdown() {
+		executor.shutdown();
+	}
+
+	/**
+	 * Stops the admission of new games and interrupts the turn loops of all open games.
+	 */
+	public void shutdownNow() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * Waits for all open games to end after this engine has been shut down, for at most the specified time.
+	 *
+	 * @param timeout - the longest time for which to wait
+	 * @return {@code true} if all games ended, or {@code false} if the timeout elapsed first
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public boolean awaitTermination(Duration timeout) throws InterruptedException {
+		return executor.awaitTermination(timeout.toNanos(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Shuts down this engine gracefully.
+	 * Stops the admission of new games and waits for open games to end for the grace period of this engine, after which any remaining games are interrupted.
+	 */
+	@Override
+	public void close() {
+		shutdown();
+		try {
+			if (!awaitTermination(gracePeriod)) {
+				shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the number of games currently open in this engine.
+	 *
+	 * @return the number of games currently open in this engine
+	 */
+	public int getOpenGames() {
+		return maxGames - admission.availablePermits();
+	}
+
+	/**
+	 * Returns {@code true} if this engine runs each game on a virtual thread.
+	 *
+	 * @return {@code true} if this engine runs each game on a virtual thread
+	 */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+}
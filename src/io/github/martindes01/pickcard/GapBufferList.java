@@ -0,0 +1,212 @@
+package io.github.martindes01.pickcard;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * GapBufferList is a list of cards backed by a gap buffer.
+ * <p>
+ * Cards are stored in an array containing a single gap of unused slots, which is moved to the position of each insertion or removal.
+ * Moving the gap costs time proportional to the distance moved, so repeated cuts and insertions at or near the same depth take amortised constant time, however large the pile.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see PileStorage#GAP
+ * @since 1.1
+ */
+class GapBufferList extends AbstractList<Card> implements RandomAccess {
+
+	// Constants
+
+	/**
+	 * The minimum capacity of the buffer.
+	 */
+	private static final int MIN_CAPACITY = 16;
+
+
+	// Fields
+
+	/**
+	 * The buffer of cards, containing the gap.
+	 */
+	private Card[] buffer;
+
+	/**
+	 * The index in the buffer of the first slot of the gap.
+	 */
+	private int gapStart;
+
+	/**
+	 * The index in the buffer of the first slot after the gap.
+	 */
+	private int gapEnd;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new gap buffer list containing the specified collection of cards, with the gap at the top.
+	 *
+	 * @param collection - the collection of cards to be contained in this list
+	 */
+	GapBufferList(Collection<Card> collection) {
+		Card[] cards = collection.toArray(new Card[0]);
+		buffer = Arrays.copyOf(cards, Math.max(MIN_CAPACITY, cards.length + (cards.length >> 1)));
+		gapStart = cards.length;
+		gapEnd = buffer.length;
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the index in the buffer of the specified index in this list.
+	 *
+	 * @param index - the index in this list
+	 * @return the index in the buffer of the specified index in this list
+	 */
+	private int physical(int index) {
+		return index < gapStart ? index : index + gapEnd - gapStart;
+	}
+
+	/**
+	 * Throws an exception if the specified index is not within the specified bound.
+	 *
+	 * @param index - the index to be checked
+	 * @param bound - the exclusive upper bound
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@code bound}
+	 */
+	private static void checkIndex(int index, int bound) {
+		if (index < 0 || index >= bound) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+		}
+	}
+
+	/**
+	 * Grows the buffer if necessary so that the gap has at least the specified length.
+	 *
+	 * @param length - the minimum length of the gap
+	 */
+	private void ensureGap(int length) {
+		if (gapEnd - gapStart < length) {
+			int size = size();
+			Card[] grown = new Card[Math.max(size + length, buffer.length + (buffer.length >> 1))];
+			int tail = buffer.length - gapEnd;
+			System.arraycopy(buffer, 0, grown, 0, gapStart);
+			System.arraycopy(buffer, gapEnd, grown, grown.length - tail, tail);
+			gapEnd = grown.length - tail;
+			buffer = grown;
+		}
+	}
+
+	/**
+	 * Moves the gap to the specified index in this list.
+	 * Vacated slots are cleared.
+	 *
+	 * @param index - the index in this list at which the gap is to start
+	 */
+	private void moveGap(int index) {
+		if (index < gapStart) {
+			// Move the cards below the gap up
+			int length = gapStart - index;
+			System.arraycopy(buffer, index, buffer, gapEnd - length, length);
+			Arrays.fill(buffer, index, Math.min(gapStart, gapEnd - length), null);
+			gapStart = index;
+			gapEnd -= length;
+		} else if (index > gapStart) {
+			// Move the cards above the gap down
+			int length = index - gapStart;
+			System.arraycopy(buffer, gapEnd, buffer, gapStart, length);
+			Arrays.fill(buffer, Math.max(gapEnd, index), gapEnd + length, null);
+			gapStart = index;
+			gapEnd += length;
+		}
+	}
+
+
+	// Overrides
+
+	@Override
+	public Card get(int index) {
+		checkIndex(index, size());
+		return buffer[physical(index)];
+	}
+
+	@Override
+	public Card set(int index, Card card) {
+		checkIndex(index, size());
+		int physical = physical(index);
+		Card previous = buffer[physical];
+		buffer[physical] = card;
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return buffer.length - (gapEnd - gapStart);
+	}
+
+	@Override
+	public boolean add(Card card) {
+		add(size(), card);
+		return true;
+	}
+
+	@Override
+	public void add(int index, Card card) {
+		checkIndex(index, size() + 1);
+		ensureGap(1);
+		moveGap(index);
+		buffer[gapStart++] = card;
+		modCount++;
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Card> collection) {
+		checkIndex(index, size() + 1);
+		Object[] cards = collection.toArray();
+		ensureGap(cards.length);
+		moveGap(index);
+		for (Object card : cards) {
+			buffer[gapStart++] = (Card) card;
+		}
+		modCount++;
+		return cards.length != 0;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Card> collection) {
+		return addAll(size(), collection);
+	}
+
+	@Override
+	public Card remove(int index) {
+		checkIndex(index, size());
+		moveGap(index);
+		Card card = buffer[gapEnd];
+		buffer[gapEnd++] = null;
+		modCount++;
+		return card;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		if (toIndex > fromIndex) {
+			moveGap(fromIndex);
+			Arrays.fill(buffer, gapEnd, gapEnd + (toIndex - fromIndex), null);
+			gapEnd += toIndex - fromIndex;
+			modCount++;
+		}
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(buffer, null);
+		gapStart = 0;
+		gapEnd = buffer.length;
+		modCount++;
+	}
+
+}
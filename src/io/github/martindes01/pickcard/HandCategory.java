@@ -0,0 +1,128 @@
+package io.github.martindes01.pickcard;
+
+/**
+ * HandCategory is the public enumeration of poker hand categories.
+ * <p>
+ * Each enum constant encapsulates one field.<br>
+ * The {@code String} {@link #name} is returned using {@link #toString()}.
+ * <p>
+ * The available enum constants are:
+ * <ul>
+ * <li>{@link #HIGH_CARD}
+ * <li>{@link #ONE_PAIR}
+ * <li>{@link #TWO_PAIR}
+ * <li>{@link #THREE_OF_A_KIND}
+ * <li>{@link #STRAIGHT}
+ * <li>{@link #FLUSH}
+ * <li>{@link #FULL_HOUSE}
+ * <li>{@link #FOUR_OF_A_KIND}
+ * <li>{@link #STRAIGHT_FLUSH}
+ * </ul>
+ * The natural ascending order of hand categories is determined by the order of their declaration.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see HandEvaluator
+ * @since 1.1
+ */
+public enum HandCategory {
+
+	/**
+	 * {@link HandCategory}{@code .values()[0]}
+	 * <p>
+	 * {@code name : "High card"}
+	 */
+	HIGH_CARD("High card"),
+
+	/**
+	 * {@link HandCategory}{@code .values()[1]}
+	 * <p>
+	 * {@code name : "One pair"}
+	 */
+	ONE_PAIR("One pair"),
+
+	/**
+	 * {@link HandCategory}{@code .values()[2]}
+	 * <p>
+	 * {@code name : "Two pair"}
+	 */
+	TWO_PAIR("Two pair"),
+
+	/**
+	 * {@link HandCategory}{@code .values()[3]}
+	 * <p>
+	 * {@code name : "Three of a kind"}
+	 */
+	THREE_OF_A_KIND("Three of a kind"),
+
+	/**
+	 * {@link HandCategory}{@code .values()[4]}
+	 * <p>
+	 * {@code name : "Straight"}
+	 */
+	STRAIGHT("Straight"),
+
+	/**
+	 * {@link HandCategory}{@code .values()[5]}
+	 * <p>
+	 * {@code name : "Flush"}
+	 */
+	FLUSH("Flush"),
+
+	/**
+	 * {@link HandCategory}{@code .values()[6]}
+	 * <p>
+	 * {@code name : "Full house"}
+	 */
+	FULL_HOUSE("Full house"),
+
+	/**
+	 * {@link HandCategory}{@code .values()[7]}
+	 * <p>
+	 * {@code name : "Four of a kind"}
+	 */
+	FOUR_OF_A_KIND("Four of a kind"),
+
+	/**
+	 * {@link HandCategory}{@code .values()[8]}
+	 * <p>
+	 * {@code name : "Straight flush"}
+	 */
+	STRAIGHT_FLUSH("Straight flush");
+
+
+	// Fields
+
+	/**
+	 * The name of this hand category.
+	 * This is a primitive field.
+	 */
+	private final String name;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new hand category with the specified name.
+	 *
+	 * @param name - the name of this hand category
+	 */
+	HandCategory(String name) {
+		this.name = name;
+	}
+
+
+	// Overrides
+
+	/**
+	 * Returns a string representation of this hand category.
+	 * This is the formatted name of this hand category.
+	 *
+	 * @return a string representation of this hand category
+	 */
+	@Override
+	public String toString() {
+		return name;
+	}
+
+}
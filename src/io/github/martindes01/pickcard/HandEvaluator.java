@@ -0,0 +1,246 @@
+package io.github.martindes01.pickcard;
+
+/**
+ * HandEvaluator is the table-driven evaluator of poker hands of 5, 6 or 7 cards.
+ * <p>
+ * A hand is evaluated to an {@code int} value such that a better hand has a greater value, and equally good hands have equal values.
+ * Bits 20 to 23 of the value hold the ordinal of the {@link HandCategory} of the hand, which is returned using {@link #category(int)}.
+ * Bits 0 to 19 hold up to five rank ordinals, one per four bits, most significant first, which break ties within the category.
+ * <p>
+ * Hands are evaluated from the bits of a {@link CardSet}, where the 13 ranks of each suit occupy a contiguous run of bits.
+ * Flushes are detected by counting the ranks of each suit, and the rank masks of the hand are combined with bitwise operations to find pairs, trips and quads.
+ * Straights and kickers are read from two precomputed tables indexed by a 13 bit rank mask, which occupy 40 KB and are built when this class is initialised.
+ * Evaluation performs no allocation.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see CardSet
+ * @see HandCategory
+ * @since 1.1
+ */
+public final class HandEvaluator {
+
+	// Constants
+
+	/**
+	 * The number of ranks in each suit.
+	 */
+	private static final int RANKS = CardSet.RANKS;
+
+	/**
+	 * The mask of the bits of the ranks of a single suit.
+	 */
+	private static final int SUIT_MASK = (int) CardSet.SUIT_MASK;
+
+	/**
+	 * The mask of the ranks forming the lowest straight, from ace to five.
+	 */
+	private static final int WHEEL = 1 << Rank.ACE.ordinal() | 0xF;
+
+	/**
+	 * The hand categories, indexed by their ordinals.
+	 */
+	private static final HandCategory[] CATEGORIES = HandCategory.values();
+
+	/**
+	 * The position of the hand category within a hand value.
+	 */
+	private static final int CATEGORY_SHIFT = 20;
+
+	/**
+	 * For each rank mask, one more than the ordinal of the highest rank of the best straight in the mask, or {@code 0} if the mask contains no straight.
+	 */
+	private static final byte[] STRAIGHTS = new byte[1 << RANKS];
+
+	/**
+	 * For each rank mask, the ordinals of its five highest ranks, one per four bits, most significant first.
+	 * Masks of fewer than five ranks are padded with zeros.
+	 */
+	private static final int[] KICKERS = new int[1 << RANKS];
+
+	static {
+		for (int mask = 0; mask < 1 << RANKS; mask++) {
+			// Find the highest straight, falling back to the wheel
+			for (int top = RANKS - 1; top >= 4; top--) {
+				int straight = 0x1F << (top - 4);
+				if ((mask & straight) == straight) {
+					STRAIGHTS[mask] = (byte) (top + 1);
+					break;
+				}
+			}
+			if (STRAIGHTS[mask] == 0 && (mask & WHEEL) == WHEEL) {
+				STRAIGHTS[mask] = (byte) (Rank.FIVE.ordinal() + 1);
+			}
+			// Pack the five highest ranks
+			int kickers = 0;
+			int count = 0;
+			for (int rank = RANKS - 1; rank >= 0 && count < 5; rank--) {
+				if ((mask & 1 << rank) != 0) {
+					kickers |= rank << (4 * (4 - count++));
+				}
+			}
+			KICKERS[mask] = kickers;
+		}
+	}
+
+
+	// Constructors
+
+	/**
+	 * Prevents instantiation of this class, which only has static methods.
+	 */
+	private HandEvaluator() {
+
+	}
+
+
+	// Evaluation
+
+	/**
+	 * Returns the value of the poker hand formed by the cards in the specified pile.
+	 * The face visibility of the cards is ignored.
+	 *
+	 * @param pile - pile of 5, 6 or 7 cards of distinct types
+	 * @return the value of the best poker hand of five cards formed by the cards in the specified pile
+	 * @throws IllegalArgumentException if the pile contains {@code null}, duplicate card types, or fewer than 5 or more than 7 cards
+	 */
+	public static int evaluate(Pile pile) {
+		long bits = 0L;
+		for (Card card : pile.getList()) {
+			if (card == null) {
+				throw new IllegalArgumentException("Null card in hand");
+			}
+			long bit = CardSet.bit(card.getSuit(), card.getRank());
+			if ((bits & bit) != 0) {
+				throw new IllegalArgumentException("Duplicate card in hand: " + card);
+			}
+			bits |= bit;
+		}
+		return evaluate(bits);
+	}
+
+	/**
+	 * Returns the value of the poker hand formed by the card types in the specified card set.
+	 *
+	 * @param hand - card set of 5, 6 or 7 card types
+	 * @return the value of the best poker hand of five cards formed by the specified card set
+	 * @throws IllegalArgumentException if the card set contains fewer than 5 or more than 7 card types
+	 */
+	public static int evaluate(CardSet hand) {
+		return evaluate(hand.bits());
+	}
+
+	/**
+	 * Returns the value of the poker hand formed by the card types encoded in the specified bits.
+	 * The bits are encoded as in {@link CardSet#bits()}.
+	 *
+	 * @param bits - bits of 5, 6 or 7 card types
+	 * @return the value of the best poker hand of five cards formed by the specified bits
+	 * @throws IllegalArgumentException if the bits encode fewer than 5 or more than 7 card types, or bits above the 52 card types are set
+	 */
+	public static int evaluate(long bits) {
+		int count = Long.bitCount(bits);
+		if (count < 5 || count > 7 || (bits >>> CardSet.TYPES) != 0) {
+			throw new IllegalArgumentException("Invalid hand: 0x" + Long.toHexString(bits));
+		}
+		int c = (int) bits & SUIT_MASK;
+		int d = (int) (bits >>> RANKS) & SUIT_MASK;
+		int h = (int) (bits >>> (2 * RANKS)) & SUIT_MASK;
+		int s = (int) (bits >>> (3 * RANKS)) & SUIT_MASK;
+		// A flush excludes a full house or four of a kind in at most 7 cards
+		int flush = Integer.bitCount(c) >= 5 ? c : Integer.bitCount(d) >= 5 ? d : Integer.bitCount(h) >= 5 ? h : Integer.bitCount(s) >= 5 ? s : 0;
+		if (flush != 0) {
+			int straight = STRAIGHTS[flush];
+			if (straight != 0) {
+				return value(HandCategory.STRAIGHT_FLUSH, (straight - 1) << 16);
+			} else {
+				return value(HandCategory.FLUSH, KICKERS[flush]);
+			}
+		}
+		int ranks = c | d | h | s;
+		int straight = STRAIGHTS[ranks];
+		if (Integer.bitCount(ranks) == count) {
+			// All ranks distinct
+			if (straight != 0) {
+				return value(HandCategory.STRAIGHT, (straight - 1) << 16);
+			} else {
+				return value(HandCategory.HIGH_CARD, KICKERS[ranks]);
+			}
+		}
+		int fours = c & d & h & s;
+		if (fours != 0) {
+			int quad = top(fours);
+			return value(HandCategory.FOUR_OF_A_KIND, quad << 16 | top(ranks ^ 1 << quad) << 12);
+		}
+		// Ranks held in exactly two suits, and in at least three suits
+		int twos = ranks ^ (c ^ d ^ h ^ s);
+		int threes = ((c & d) | (h & s)) & ((c & h) | (d & s));
+		if (threes != 0) {
+			int trip = top(threes);
+			int pairs = (twos | threes) ^ 1 << trip;
+			if (pairs != 0) {
+				return value(HandCategory.FULL_HOUSE, trip << 16 | top(pairs) << 12);
+			} else if (straight != 0) {
+				return value(HandCategory.STRAIGHT, (straight - 1) << 16);
+			} else {
+				return value(HandCategory.THREE_OF_A_KIND, trip << 16 | kickers(ranks ^ 1 << trip, 2) << 8);
+			}
+		}
+		if (straight != 0) {
+			return value(HandCategory.STRAIGHT, (straight - 1) << 16);
+		}
+		int high = top(twos);
+		int low = top(twos ^ 1 << high);
+		if (low >= 0) {
+			return value(HandCategory.TWO_PAIR, high << 16 | low << 12 | top(ranks ^ 1 << high ^ 1 << low) << 8);
+		} else {
+			return value(HandCategory.ONE_PAIR, high << 16 | kickers(ranks ^ 1 << high, 3) << 4);
+		}
+	}
+
+	/**
+	 * Returns the hand category of the specified hand value.
+	 *
+	 * @param value - a hand value returned by this evaluator
+	 * @return the hand category of the specified hand value
+	 */
+	public static HandCategory category(int value) {
+		return CATEGORIES[value >>> CATEGORY_SHIFT];
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the hand value with the specified category and tie-breaking ranks.
+	 *
+	 * @param category - the category of the hand
+	 * @param ranks - the tie-breaking ranks of the hand
+	 * @return the hand value with the specified category and tie-breaking ranks
+	 */
+	private static int value(HandCategory category, int ranks) {
+		return category.ordinal() << CATEGORY_SHIFT | ranks;
+	}
+
+	/**
+	 * Returns the ordinal of the highest rank in the specified rank mask, or {@code -1} if the mask is empty.
+	 *
+	 * @param mask - the rank mask
+	 * @return the ordinal of the highest rank in the specified rank mask
+	 */
+	private static int top(int mask) {
+		return 31 - Integer.numberOfLeadingZeros(mask);
+	}
+
+	/**
+	 * Returns the ordinals of the specified number of highest ranks in the specified rank mask, one per four bits, most significant first.
+	 *
+	 * @param mask - the rank mask
+	 * @param quantity - number of ranks to return, at most 5
+	 * @return the ordinals of the specified number of highest ranks in the specified rank mask
+	 */
+	private static int kickers(int mask, int quantity) {
+		return KICKERS[mask] >>> (4 * (5 - quantity));
+	}
+
+}
@@ -0,0 +1,343 @@
+package io.github.martindes01.pickcard;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * IndexedList is a list of cards which maintains a position index over another list of cards.
+ * <p>
+ * The index maps the key of each combination of suit, rank and face visibility, and {@code null}, to the number of occurrences in the list and their positions in ascending order.
+ * Counts are always exact, so membership is tested in constant time.
+ * Positions are updated in constant time when cards are added to or removed from the top of the list.
+ * Any other structural change, or any replacement of a card, marks the positions as stale, and they are rebuilt in linear time by the next query which needs them.
+ * First and last occurrence queries then take constant time, and bounded queries take logarithmic time.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see CardMask#key(Object)
+ * @see Pile#setIndexed(boolean)
+ * @since 1.1
+ */
+class IndexedList extends AbstractList<Card> implements RandomAccess {
+
+	// Fields
+
+	/**
+	 * The indexed list of cards.
+	 */
+	private final List<Card> list;
+
+	/**
+	 * The number of occurrences of each key in the list.
+	 */
+	private final int[] counts = new int[CardMask.KEYS];
+
+	/**
+	 * The positions of the occurrences of each key in the list, in ascending order.
+	 * Only the first {@code counts[key]} positions of each array are valid, and only if the positions are not stale.
+	 */
+	private final int[][] positions = new int[CardMask.KEYS][];
+
+	/**
+	 * Whether the positions must be rebuilt before they are next read.
+	 */
+	private boolean stale = true;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new indexed list over the specified list of cards.
+	 * The specified list must not be structurally modified other than through this list.
+	 *
+	 * @param list - the list of cards to be indexed
+	 */
+	IndexedList(List<Card> list) {
+		this.list = list;
+		for (int i = 0, size = list.size(); i < size; i++) {
+			counts[CardMask.key(list.get(i))]++;
+		}
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Rebuilds the positions from the list, if they are stale.
+	 */
+	private void refresh() {
+		if (stale) {
+			int[] filled = new int[CardMask.KEYS];
+			for (int key = 0; key < CardMask.KEYS; key++) {
+				if (positions[key] == null || positions[key].length < counts[key]) {
+					positions[key] = new int[counts[key] + (counts[key] >> 1) + 1];
+				}
+			}
+			for (int i = 0, size = list.size(); i < size; i++) {
+				int key = CardMask.key(list.get(i));
+				positions[key][filled[key]++] = i;
+			}
+			stale = false;
+		}
+	}
+
+	/**
+	 * Records the addition of a card with the specified key to the top of the list, at the specified position.
+	 * The positions must not be stale, and the count of the key must already include the card.
+	 *
+	 * @param key - the key of the card
+	 * @param position - the position of the card in the list
+	 */
+	private void append(int key, int position) {
+		int count = counts[key];
+		if (positions[key].length < count) {
+			positions[key] = Arrays.copyOf(positions[key], count + (count >> 1) + 1);
+		}
+		positions[key][count - 1] = position;
+	}
+
+	/**
+	 * Returns the lowest index of the specified object in the list at or above the specified index, or {@code -1} if there is none.
+	 *
+	 * @param object - the object for which to search
+	 * @param fromIndex - the index at which to start the search, inclusive
+	 * @return the lowest index of the specified object in the list at or above the specified index, or {@code -1} if there is none
+	 */
+	int indexOf(Object object, int fromIndex) {
+		int key = CardMask.key(object);
+		if (key < 0 || counts[key] == 0) {
+			return -1;
+		}
+		refresh();
+		int[] keyed = positions[key];
+		// Find the first position not less than fromIndex
+		int low = 0;
+		int high = counts[key];
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (keyed[middle] < fromIndex) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low < counts[key] ? keyed[low] : -1;
+	}
+
+	/**
+	 * Returns the highest index of the specified object in the list below the specified index, or {@code -1} if there is none.
+	 *
+	 * @param object - the object for which to search
+	 * @param toIndex - the index before which to start the search, exclusive
+	 * @return the highest index of the specified object in the list below the specified index, or {@code -1} if there is none
+	 */
+	int lastIndexOf(Object object, int toIndex) {
+		int key = CardMask.key(object);
+		if (key < 0 || counts[key] == 0) {
+			return -1;
+		}
+		refresh();
+		int[] keyed = positions[key];
+		// Find the first position not less than toIndex
+		int low = 0;
+		int high = counts[key];
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (keyed[middle] < toIndex) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low > 0 ? keyed[low - 1] : -1;
+	}
+
+	/**
+	 * Returns the indexed list of cards.
+	 *
+	 * @return the indexed list of cards
+	 */
+	List<Card> unwrap() {
+		return list;
+	}
+
+
+	// Overrides
+
+	@Override
+	public Card get(int index) {
+		return list.get(index);
+	}
+
+	@Override
+	public Card set(int index, Card card) {
+		Card previous = list.set(index, card);
+		if (previous != card) {
+			counts[CardMask.key(previous)]--;
+			counts[CardMask.key(card)]++;
+			stale = true;
+		}
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return list.size();
+	}
+
+	@Override
+	public boolean add(Card card) {
+		add(list.size(), card);
+		return true;
+	}
+
+	@Override
+	public void add(int index, Card card) {
+		int size = list.size();
+		list.add(index, card);
+		int key = CardMask.key(card);
+		counts[key]++;
+		if (!stale && index == size) {
+			append(key, index);
+		} else {
+			stale = true;
+		}
+		modCount++;
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Card> collection) {
+		int size = list.size();
+		Card[] cards = collection.toArray(new Card[0]);
+		list.addAll(index, Arrays.asList(cards));
+		boolean top = !stale && index == size;
+		for (int i = 0; i < cards.length; i++) {
+			int key = CardMask.key(cards[i]);
+			counts[key]++;
+			if (top) {
+				append(key, index + i);
+			}
+		}
+		stale = !top;
+		modCount++;
+		return cards.length != 0;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Card> collection) {
+		return addAll(list.size(), collection);
+	}
+
+	@Override
+	public Card remove(int index) {
+		int size = list.size();
+		Card card = list.remove(index);
+		// The top card is the last position of its key, which the decremented count discards
+		counts[CardMask.key(card)]--;
+		if (index != size - 1) {
+			stale = true;
+		}
+		modCount++;
+		return card;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		if (toIndex > fromIndex) {
+			int size = list.size();
+			List<Card> range = list.subList(fromIndex, toIndex);
+			for (int i = 0, length = toIndex - fromIndex; i < length; i++) {
+				counts[CardMask.key(range.get(i))]--;
+			}
+			range.clear();
+			if (toIndex != size) {
+				stale = true;
+			}
+			modCount++;
+		}
+	}
+
+	@Override
+	public void clear() {
+		list.clear();
+		Arrays.fill(counts, 0);
+		stale = true;
+		modCount++;
+	}
+
+	@Override
+	public boolean contains(Object object) {
+		int key = CardMask.key(object);
+		return key >= 0 && counts[key] > 0;
+	}
+
+	@Override
+	public boolean containsAll(Collection<?> collection) {
+		for (Object object : collection) {
+			if (!contains(object)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@Override
+	public int indexOf(Object object) {
+		return indexOf(object, 0);
+	}
+
+	@Override
+	public int lastIndexOf(Object object) {
+		return lastIndexOf(object, list.size());
+	}
+
+	@Override
+	public boolean remove(Object object) {
+		int index = indexOf(object, 0);
+		if (index != -1) {
+			remove(index);
+			return true;
+		} else {
+			return false;
+		}
+	}
+
+	@Override
+	public boolean removeAll(Collection<?> collection) {
+		// Mark the keys to be removed, skipping those absent from the list
+		boolean[] removed = new boolean[CardMask.KEYS];
+		boolean changed = false;
+		for (Object object : collection) {
+			int key = CardMask.key(object);
+			if (key >= 0 && counts[key] > 0) {
+				removed[key] = true;
+				changed = true;
+			}
+		}
+		if (changed) {
+			// Compact the retained cards towards the bottom in a single pass
+			int size = list.size();
+			int retained = 0;
+			for (int i = 0; i < size; i++) {
+				Card card = list.get(i);
+				int key = CardMask.key(card);
+				if (removed[key]) {
+					counts[key]--;
+				} else {
+					if (retained != i) {
+						list.set(retained, card);
+					}
+					retained++;
+				}
+			}
+			list.subList(retained, size).clear();
+			stale = true;
+			modCount++;
+		}
+		return changed;
+	}
+
+}
@@ -0,0 +1,286 @@
+package io.github.martindes01.pickcard;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Journal is an append-only log of the changes made to any number of {@link JournalingPile} objects, from which their exact states may be rebuilt.
+ * <p>
+ * Each change is recorded as a fixed-size record of {@value #RECORD_SIZE} bytes, holding the identifier of the pile as an {@code int}, the operation as a byte, an encoded card or enum ordinal as a byte, two reserved bytes and an argument as a {@code long}.
+ * Records are appended to an in-memory batch, and written and forced to the file by {@link #commit()}.
+ * Commits are grouped: a thread which commits while another thread is writing waits for it, and returns without writing if its records were included.
+ * A batch is also committed when it grows beyond a threshold, so memory use is bounded however rarely piles are committed.
+ * <p>
+ * A journal may be appended to and committed by any number of threads at once.
+ * Records of one pile must be appended by one thread at a time, as for any {@link Pile}.
+ * A journal is replayed using {@link #replay(Path)}, which ignores a partial record at the end of the file, such as one left by a crash.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see JournalingPile
+ * @since 1.1
+ */
+public class Journal implements AutoCloseable {
+
+	// Constants
+
+	/**
+	 * The number of bytes in a record.
+	 */
+	public static final int RECORD_SIZE = 16;
+
+	/**
+	 * The number of bytes in a batch above which it is committed by the appending thread.
+	 */
+	private static final int BATCH_SIZE = 1 << 16;
+
+	/**
+	 * The number of bytes read at once during replay.
+	 */
+	private static final int REPLAY_BUFFER_SIZE = 1 << 20;
+
+
+	// Fields
+
+	/**
+	 * The channel to which records are written.
+	 */
+	private final FileChannel channel;
+
+	/**
+	 * The lock held while a batch is written, which groups concurrent commits.
+	 */
+	private final Object commitLock = new Object();
+
+	/**
+	 * The batch of records appended since the last commit.
+	 * Guarded by this journal.
+	 */
+	private ByteBuffer pending = ByteBuffer.allocate(BATCH_SIZE + RECORD_SIZE);
+
+	/**
+	 * The batch most recently written, reused as the next pending batch.
+	 * Guarded by this journal.
+	 */
+	private ByteBuffer spare = ByteBuffer.allocate(BATCH_SIZE + RECORD_SIZE);
+
+	/**
+	 * The number of records appended.
+	 * Guarded by this journal.
+	 */
+	private long appended;
+
+	/**
+	 * The number of records written and forced to the file.
+	 */
+	private volatile long durable;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new journal appending to the specified channel.
+	 *
+	 * @param channel - the channel to which records are to be appended
+	 */
+	private Journal(FileChannel channel) {
+		this.channel = channel;
+	}
+
+
+	// Factories
+
+	/**
+	 * Opens the journal at the specified path for appending, creating the file if it does not exist.
+	 *
+	 * @param path - the path of the journal
+	 * @return the journal at the specified path
+	 * @throws IOException if an I/O error occurs
+	 */
+	public static Journal open(Path path) throws IOException {
+		return new Journal(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+	}
+
+
+	// Recording
+
+	/**
+	 * Appends a record to the pending batch, and commits the batch if it has grown beyond its threshold.
+	 *
+	 * @param pileId - the identifier of the pile
+	 * @param op - the operation
+	 * @param code - the encoded card or enum ordinal
+	 * @param arg - the argument
+	 * @throws UncheckedIOException if the batch is committed and an I/O error occurs
+	 */
+	void append(int pileId, JournalOp op, byte code, long arg) {
+		boolean full;
+		synchronized (this) {
+			if (pending.remaining() < RECORD_SIZE) {
+				// Other threads appended while the batch was being committed
+				ByteBuffer grown = ByteBuffer.allocate(pending.capacity() * 2);
+				pending = grown.put(pending.flip());
+			}
+			pending.putInt(pileId).put((byte) op.ordinal()).put(code).putShort((short) 0).putLong(arg);
+			appended++;
+			full = pending.position() >= BATCH_SIZE;
+		}
+		if (full) {
+			try {
+				commit();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/**
+	 * Writes all records appended before this call to the file, and forces them to the storage device.
+	 * If another thread is committing, waits for it, and returns without writing if it included the records of this thread.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	public void commit() throws IOException {
+		long target;
+		synchronized (this) {
+			target = appended;
+		}
+		synchronized (commitLock) {
+			if (durable >= target) {
+				// Committed by another thread while waiting
+				return;
+			}
+			ByteBuffer batch;
+			long count;
+			synchronized (this) {
+				batch = pending;
+				pending = spare;
+				count = appended;
+			}
+			batch.flip();
+			while (batch.hasRemaining()) {
+				channel.write(batch);
+			}
+			channel.force(false);
+			batch.clear();
+			synchronized (this) {
+				spare = batch;
+			}
+			durable = count;
+		}
+	}
+
+
+	// Replaying
+
+	/**
+	 * Applies the whole records remaining in the specified buffer to the specified piles, and advances its position past them.
+	 *
+	 * @param buffer - the buffer of records
+	 * @param piles - the piles by identifier, to which created piles are added
+	 * @throws IOException if a record is invalid, including a code which does not encode a card or enum constant, or an argument which its pile rejects
+	 */
+	private static void apply(ByteBuffer buffer, Map<Integer, Pile> piles) throws IOException {
+		JournalOp[] ops = JournalOp.values();
+		PileStorage[] storages = PileStorage.values();
+		while (buffer.remaining() >= RECORD_SIZE) {
+			int pileId = buffer.getInt();
+			int op = buffer.get();
+			byte code = buffer.get();
+			buffer.getShort();
+			long arg = buffer.getLong();
+			if (op < 0 || op >= ops.length) {
+				throw new IOException("Invalid journal operation: " + op);
+			}
+			if (ops[op] == JournalOp.CREATE) {
+				if (code < 0 || code >= storages.length) {
+					throw new IOException("Invalid journal storage: " + code);
+				}
+				piles.put(pileId, new Pile(storages[code]));
+			} else {
+				Pile pile = piles.get(pileId);
+				if (pile == null) {
+					throw new IOException("Journal record for unknown pile: " + pileId);
+				}
+				try {
+					ops[op].apply(pile, code, arg);
+				} catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+					// An argument which the pile rejects, such as an index into an empty pile
+					throw new IOException("Invalid journal record for pile " + pileId + ": " + ops[op], e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Rebuilds the piles recorded in the specified buffer of records, and advances its position past them.
+	 * A partial record at the end of the buffer is ignored.
+	 *
+	 * @param buffer - the buffer of records
+	 * @return the rebuilt piles by identifier
+	 * @throws IOException if a record is invalid
+	 */
+	public static Map<Integer, Pile> replay(ByteBuffer buffer) throws IOException {
+		Map<Integer, Pile> piles = new HashMap<>();
+		apply(buffer, piles);
+		return piles;
+	}
+
+	/**
+	 * Rebuilds the piles recorded in the journal at the specified path.
+	 * The file is read sequentially in large blocks, and a partial record at the end of the file is ignored.
+	 *
+	 * @param path - the path of the journal
+	 * @return the rebuilt piles by identifier
+	 * @throws IOException if an I/O error occurs, or a record is invalid
+	 */
+	public static Map<Integer, Pile> replay(Path path) throws IOException {
+		Map<Integer, Pile> piles = new HashMap<>();
+		try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocateDirect(REPLAY_BUFFER_SIZE);
+			while (in.read(buffer) >= 0) {
+				buffer.flip();
+				apply(buffer, piles);
+				// Keep any partial record for the next read
+				buffer.compact();
+			}
+		}
+		return piles;
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the number of records written and forced to the file by this journal.
+	 *
+	 * @return the number of records written and forced to the file by this journal
+	 */
+	public long getDurable() {
+		return durable;
+	}
+
+
+	// Overrides
+
+	/**
+	 * Commits any pending records and closes the file.
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			commit();
+		} finally {
+			channel.close();
+		}
+	}
+
+}
@@ -0,0 +1,293 @@
+package io.github.martindes01.pickcard;
+
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+/**
+ * JournalOp is the enumeration of the operations recorded in a {@link Journal}.
+ * <p>
+ * Each record of a journal holds an operation, a byte which encodes a card or the ordinal of an enum constant, and a {@code long} argument.
+ * Each enum constant replays its operation on a pile by calling the method of {@link Pile} which it records, with the recorded arguments.
+ * Since every operation, including shuffling with its recorded seed, is deterministic, replaying the records of a pile in order rebuilds its exact state.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see JournalingPile
+ * @since 1.1
+ */
+enum JournalOp {
+
+	/**
+	 * Creates an empty pile backed by the {@link PileStorage} whose ordinal is the code.
+	 * Replayed by the journal itself, since it creates rather than changes a pile.
+	 */
+	CREATE {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			throw new UnsupportedOperationException("CREATE is replayed by the journal");
+		}
+
+	},
+
+	/**
+	 * Places the card with the code on top of the pile.
+	 *
+	 * @see Pile#addCard(Card)
+	 */
+	ADD {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.addCard(card(code));
+		}
+
+	},
+
+	/**
+	 * Inserts the card with the code at the index given by the argument.
+	 *
+	 * @see Pile#addCardAt(int, Card)
+	 */
+	ADD_AT {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.addCardAt((int) arg, card(code));
+		}
+
+	},
+
+	/**
+	 * Removes the top card.
+	 *
+	 * @see Pile#pickCard()
+	 */
+	PICK {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.pickCard();
+		}
+
+	},
+
+	/**
+	 * Removes the card at the index given by the argument.
+	 *
+	 * @see Pile#pickCardAt(int)
+	 */
+	PICK_AT {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.pickCardAt((int) arg);
+		}
+
+	},
+
+	/**
+	 * Removes the quantity of cards given by the argument from the top.
+	 *
+	 * @see Pile#pickCards(int)
+	 */
+	PICK_CARDS {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.pickCards((int) arg);
+		}
+
+	},
+
+	/**
+	 * Removes cards from an index, where the argument holds the index in its upper half and the quantity in its lower half.
+	 *
+	 * @see Pile#pickCardsAt(int, int)
+	 */
+	PICK_CARDS_AT {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.pickCardsAt((int) (arg >> Integer.SIZE), (int) arg);
+		}
+
+	},
+
+	/**
+	 * Deletes all occurrences of the card with the code.
+	 *
+	 * @see Pile#deleteAllOfType(Card)
+	 */
+	DELETE_ALL {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.deleteAllOfType(card(code));
+		}
+
+	},
+
+	/**
+	 * Deletes the uppermost occurrence of the card with the code.
+	 *
+	 * @see Pile#deleteHighestOfType(Card)
+	 */
+	DELETE_HIGHEST {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.deleteHighestOfType(card(code));
+		}
+
+	},
+
+	/**
+	 * Deletes the lowermost occurrence of the card with the code.
+	 *
+	 * @see Pile#deleteLowestOfType(Card)
+	 */
+	DELETE_LOWEST {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.deleteLowestOfType(card(code));
+		}
+
+	},
+
+	/**
+	 * Reverses the order of the cards.
+	 *
+	 * @see Pile#reverse()
+	 */
+	REVERSE {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.reverse();
+		}
+
+	},
+
+	/**
+	 * Sets the face visibility of the cards, which is visible if the argument is not {@code 0}.
+	 *
+	 * @see Pile#setFaceUp(boolean)
+	 */
+	SET_FACE_UP {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.setFaceUp(arg != 0);
+		}
+
+	},
+
+	/**
+	 * Toggles the face visibility of the cards.
+	 *
+	 * @see Pile#toggleFaceUp()
+	 */
+	TOGGLE_FACE_UP {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.toggleFaceUp();
+		}
+
+	},
+
+	/**
+	 * Shuffles the cards using the {@link ShuffleMode} whose ordinal is the code and a {@link SplittableRandom} seeded with the argument.
+	 *
+	 * @see Pile#shuffle(ShuffleMode, java.util.random.RandomGenerator)
+	 */
+	SHUFFLE {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.shuffle(constant(ShuffleMode.values(), code, "shuffle mode"), new SplittableRandom(arg));
+		}
+
+	},
+
+	/**
+	 * Sorts the cards using the {@link CardComparator} whose ordinal is the code.
+	 *
+	 * @see Pile#sort(CardComparator)
+	 */
+	SORT {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.sort(constant(CardComparator.values(), code, "comparator"));
+		}
+
+	},
+
+	/**
+	 * Replaces the card at the index given by the argument with the card with the code.
+	 * Recorded once per card when the cards of a pile are dealt again in place.
+	 *
+	 * @see TreeSearch#redeal(java.util.random.RandomGenerator, java.util.List)
+	 */
+	SET_AT {
+
+		@Override
+		void apply(Pile pile, byte code, long arg) throws IOException {
+			pile.replaceCards((int) arg, new Card[] { card(code) });
+		}
+
+	};
+
+
+	// Helper functions
+
+	/**
+	 * Returns the card decoded from the specified code of a record.
+	 *
+	 * @param code - the code of the record
+	 * @return the card decoded from the code, or {@code null} if the code identifies a {@code null} card
+	 * @throws IOException if the code does not encode a card or a {@code null} card
+	 * @see PileCodec#checkCode(byte)
+	 */
+	private static Card card(byte code) throws IOException {
+		try {
+			return PackedPile.decode(PileCodec.checkCode(code));
+		} catch (IllegalArgumentException e) {
+			throw new IOException("Invalid journal card: " + code, e);
+		}
+	}
+
+	/**
+	 * Returns the enum constant whose ordinal is the specified code of a record.
+	 *
+	 * @param <E> the type of the enum
+	 * @param constants - the constants of the enum, in order
+	 * @param code - the code of the record
+	 * @param kind - the kind of constant, for the message of the exception
+	 * @return the enum constant whose ordinal is the code
+	 * @throws IOException if the code is not the ordinal of a constant
+	 */
+	private static <E extends Enum<E>> E constant(E[] constants, byte code, String kind) throws IOException {
+		if (code < 0 || code >= constants.length) {
+			throw new IOException("Invalid journal " + kind + ": " + code);
+		}
+		return constants[code];
+	}
+
+
+	// Replaying
+
+	/**
+	 * Replays this operation on the specified pile with the specified code and argument.
+	 *
+	 * @param pile - the pile on which to replay this operation
+	 * @param code - the encoded card or enum ordinal of the record
+	 * @param arg - the argument of the record
+	 * @throws IOException if the code is invalid for this operation
+	 */
+	abstract void apply(Pile pile, byte code, long arg) throws IOException;
+
+}
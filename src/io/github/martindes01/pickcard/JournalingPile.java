@@ -0,0 +1,270 @@
+package io.github.martindes01.pickcard;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * JournalingPile is a pile which records every change to its cards in a {@link Journal}.
+ * <p>
+ * Each pile is identified in its journal by an {@code int} chosen by the caller, such as the number of its table.
+ * Creating a journaling pile records its storage and initial cards, and each method which changes its cards records one record per call, or one per card added or replaced.
+ * Replaying the journal with {@link Journal#replay(java.nio.file.Path)} rebuilds a pile with the same cards in the same order.
+ * <p>
+ * Shuffles are made reproducible by recording a seed: the specified source of randomness is used only to draw the seed, and the shuffle itself uses a {@link SplittableRandom} with that seed.
+ * The list returned by {@link #getList()} is unmodifiable, so that no change bypasses the journal.
+ * Piles returned by this pile, such as those returned by {@link #pickCards(int)}, are ordinary piles and are not journaled.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Journal
+ * @since 1.1
+ */
+public class JournalingPile extends Pile {
+
+	// Fields
+
+	/**
+	 * The journal in which changes to this pile are recorded.
+	 * This is a reference to a thread-safe object.
+	 */
+	private final Journal journal;
+
+	/**
+	 * The identifier of this pile in its journal.
+	 */
+	private final int id;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new empty journaling pile with the specified identifier in the specified journal, backed by an {@link java.util.ArrayList}.
+	 *
+	 * @param journal - the journal in which changes to this pile are to be recorded
+	 * @param id - the identifier of this pile in the journal
+	 */
+	public JournalingPile(Journal journal, int id) {
+		this(journal, id, Collections.emptyList(), PileStorage.ARRAY);
+	}
+
+	/**
+	 * Constructs a new journaling pile with the specified identifier in the specified journal, containing the specified collection of cards and backed by the specified kind of storage.
+	 * Any pile previously recorded with the same identifier is replaced on replay.
+	 *
+	 * @param journal - the journal in which changes to this pile are to be recorded
+	 * @param id - the identifier of this pile in the journal
+	 * @param collection - the collection of cards to be wrapped by this pile
+	 * @param storage - the kind of list to be wrapped by this pile
+	 */
+	public JournalingPile(Journal journal, int id, Collection<Card> collection, PileStorage storage) {
+		super(storage);
+		this.journal = journal;
+		this.id = id;
+		record(JournalOp.CREATE, (byte) storage.ordinal(), 0);
+		addCards(collection);
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Appends a record of the specified operation on this pile to the journal.
+	 *
+	 * @param op - the operation
+	 * @param code - the encoded card or enum ordinal
+	 * @param arg - the argument
+	 */
+	private void record(JournalOp op, byte code, long arg) {
+		journal.append(id, op, code, arg);
+	}
+
+
+	// Card addition
+
+	@Override
+	public int addCard(Card card) {
+		record(JournalOp.ADD, PackedPile.encode(card), 0);
+		return super.addCard(card);
+	}
+
+	@Override
+	public int addCardAt(int index, Card card) {
+		record(JournalOp.ADD_AT, PackedPile.encode(card), index);
+		return super.addCardAt(index, card);
+	}
+
+	@Override
+	public int addCards(Collection<Card> collection) {
+		if (collection != null) {
+			for (Card card : collection) {
+				record(JournalOp.ADD, PackedPile.encode(card), 0);
+			}
+		}
+		return super.addCards(collection);
+	}
+
+	@Override
+	public int addCardsAt(int index, Collection<Card> collection) {
+		if (collection != null) {
+			// Record each card at its own index within bounds, so that replay needs no wrapping
+			int at = wrapIndex(index, true);
+			for (Card card : collection) {
+				record(JournalOp.ADD_AT, PackedPile.encode(card), at++);
+			}
+		}
+		return super.addCardsAt(index, collection);
+	}
+
+
+	// Card deletion
+
+	@Override
+	public boolean deleteAllOfTypes(Collection<Card> collection) {
+		// Also records deleteAllOfType(Card), which delegates to this method
+		if (collection != null) {
+			for (Card card : collection) {
+				record(JournalOp.DELETE_ALL, PackedPile.encode(card), 0);
+			}
+		}
+		return super.deleteAllOfTypes(collection);
+	}
+
+	@Override
+	public boolean deleteHighestOfType(Card card) {
+		record(JournalOp.DELETE_HIGHEST, PackedPile.encode(card), 0);
+		return super.deleteHighestOfType(card);
+	}
+
+	@Override
+	public boolean deleteLowestOfType(Card card) {
+		record(JournalOp.DELETE_LOWEST, PackedPile.encode(card), 0);
+		return super.deleteLowestOfType(card);
+	}
+
+
+	// Card removal
+
+	@Override
+	public Card pickCard() {
+		Card card = super.pickCard();
+		// Record only once the pile is known not to be empty
+		record(JournalOp.PICK, (byte) 0, 0);
+		return card;
+	}
+
+	@Override
+	public Card pickCardAt(int index) {
+		Card card = super.pickCardAt(index);
+		record(JournalOp.PICK_AT, (byte) 0, index);
+		return card;
+	}
+
+	@Override
+	public Pile pickCards(int quantity) {
+		Pile pile = super.pickCards(quantity);
+		record(JournalOp.PICK_CARDS, (byte) 0, quantity);
+		return pile;
+	}
+
+	@Override
+	public Pile pickCardsAt(int index, int quantity) {
+		Pile pile = super.pickCardsAt(index, quantity);
+		record(JournalOp.PICK_CARDS_AT, (byte) 0, (long) index << Integer.SIZE | quantity & 0xFFFFFFFFL);
+		return pile;
+	}
+
+
+	// Pile manipulation
+
+	@Override
+	void replaceCards(int index, Card[] replacements) {
+		super.replaceCards(index, replacements);
+		// Record only once the replacements are known to fit
+		for (int i = 0; i < replacements.length; i++) {
+			record(JournalOp.SET_AT, PackedPile.encode(replacements[i]), index + i);
+		}
+	}
+
+	@Override
+	public void reverse() {
+		record(JournalOp.REVERSE, (byte) 0, 0);
+		super.reverse();
+	}
+
+	@Override
+	public void setFaceUp(boolean faceUp) {
+		record(JournalOp.SET_FACE_UP, (byte) 0, faceUp ? 1 : 0);
+		super.setFaceUp(faceUp);
+	}
+
+	/**
+	 * Shuffles this pile using the specified shuffle mode, and records the shuffle.
+	 * A seed is drawn from the specified source of randomness, and the shuffle uses a {@link SplittableRandom} with that seed, so that it is replayed exactly.
+	 * Also records {@link #shuffle()} and {@link #shuffle(RandomGenerator)}, which delegate to this method.
+	 *
+	 * @param mode - the method of shuffling
+	 * @param random - the source of randomness from which the seed is drawn
+	 */
+	@Override
+	public void shuffle(ShuffleMode mode, RandomGenerator random) {
+		long seed = random.nextLong();
+		record(JournalOp.SHUFFLE, (byte) mode.ordinal(), seed);
+		super.shuffle(mode, new SplittableRandom(seed));
+	}
+
+	@Override
+	public void sort(CardComparator comparator) {
+		record(JournalOp.SORT, (byte) comparator.ordinal(), 0);
+		super.sort(comparator);
+	}
+
+	@Override
+	public void toggleFaceUp() {
+		record(JournalOp.TOGGLE_FACE_UP, (byte) 0, 0);
+		super.toggleFaceUp();
+	}
+
+
+	// Pile history
+
+	/**
+	 * Throws an exception if {@code undoable} is {@code true}, since rolling back a journaling pile would bypass the journal.
+	 *
+	 * @param undoable - whether this pile should record its changes so that they may be undone
+	 * @throws UnsupportedOperationException if {@code undoable} is {@code true}
+	 */
+	@Override
+	public void setUndoable(boolean undoable) {
+		if (undoable) {
+			throw new UnsupportedOperationException("Journaling piles are not undoable");
+		}
+		super.setUndoable(false);
+	}
+
+
+	// Getters
+
+	/**
+	 * Exposes an unmodifiable view of the {@link List} of {@link Card} objects wrapped by this pile.
+	 * Changes must be made through the methods of this pile, so that they are journaled.
+	 *
+	 * @return an unmodifiable view of the list of cards wrapped by this pile
+	 */
+	@Override
+	public List<Card> getList() {
+		return Collections.unmodifiableList(super.getList());
+	}
+
+	/**
+	 * Returns the identifier of this pile in its journal.
+	 *
+	 * @return the identifier of this pile in its journal
+	 */
+	public int getId() {
+		return id;
+	}
+
+}
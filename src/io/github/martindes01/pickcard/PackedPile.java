@@ -0,0 +1,843 @@
+package io.github.martindes01.pickcard;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * PackedPile is a compact pile of cards which stores each card as a single byte.
+ * <p>
+ * Each byte encodes the ordinal of the {@link Suit} of a card, the ordinal of its {@link Rank} and its face visibility.
+ * The byte {@code (suit * 13 + rank) << 1 | faceUp}, which is the code of the card, identifies each of the 104 distinct cards, and the byte {@code -1} identifies a {@code null} card.
+ * Hence, a packed pile occupies roughly one byte per card, rather than a reference and a {@link Card} object per card.
+ * <p>
+ * A packed pile offers the same index wrapping semantics as {@link Pile}.
+ * Since cards are canonical, a packed pile is equivalent to a pile of the same cards, and the cards it returns are the canonical instances.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Card
+ * @see Pile
+ * @since 1.1
+ */
+public class PackedPile {
+
+	// Constants
+
+	/**
+	 * The byte which identifies a {@code null} card.
+	 */
+	static final byte NULL = -1;
+
+	/**
+	 * The default capacity of the byte array wrapped by a new packed pile.
+	 */
+	private static final int DEFAULT_CAPACITY = 52;
+
+
+	// Fields
+
+	/**
+	 * The array of encoded cards wrapped by this packed pile.
+	 * Only the first {@link #size} elements are in use.
+	 */
+	private byte[] cards;
+
+	/**
+	 * The number of cards in this packed pile.
+	 */
+	private int size;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new empty packed pile.
+	 */
+	public PackedPile() {
+		cards = new byte[DEFAULT_CAPACITY];
+	}
+
+	/**
+	 * Constructs a new packed pile containing the specified {@link Collection} of {@link Card} objects.
+	 *
+	 * @param collection - the collection of cards to be encoded in this packed pile
+	 */
+	public PackedPile(Collection<Card> collection) {
+		cards = new byte[Math.max(collection.size(), DEFAULT_CAPACITY)];
+		for (Card card : collection) {
+			cards[size++] = encode(card);
+		}
+	}
+
+	/**
+	 * Constructs a new packed pile containing the cards in the specified pile, in the same order.
+	 *
+	 * @param pile - the pile whose cards are to be encoded in this packed pile
+	 */
+	public PackedPile(Pile pile) {
+		this(pile.getList());
+	}
+
+	/**
+	 * Constructs a new packed pile wrapping the specified array of encoded cards.
+	 * The array is not copied.
+	 *
+	 * @param cards - the array of encoded cards to be wrapped by this packed pile
+	 * @param size - the number of cards in use at the start of the array
+	 */
+	private PackedPile(byte[] cards, int size) {
+		this.cards = cards;
+		this.size = size;
+	}
+
+
+	// Encoding
+
+	/**
+	 * Returns the byte which encodes the specified card.
+	 *
+	 * @param card - card to be encoded, which may be {@code null}
+	 * @return the byte which encodes the specified card
+	 */
+	static byte encode(Card card) {
+		if (card != null) {
+			return (byte) card.code();
+		} else {
+			return NULL;
+		}
+	}
+
+	/**
+	 * Returns the key in a {@link CardMask} of the card encoded by the specified byte.
+	 *
+	 * @param code - byte which encodes a card
+	 * @return the key of the card encoded by the specified byte
+	 */
+	private static int key(byte code) {
+		return code != NULL ? code : CardMask.NULL_KEY;
+	}
+
+	/**
+	 * Returns the card decoded from the specified byte.
+	 *
+	 * @param code - byte to be decoded
+	 * @return the card decoded from the specified byte, or {@code null} if the byte identifies a {@code null} card
+	 * @see Card#of(int)
+	 */
+	static Card decode(byte code) {
+		if (code != NULL) {
+			return Card.of(code);
+		} else {
+			return null;
+		}
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the most relevant index within the bounds of this packed pile, inclusive.
+	 * Returns {@code 0} if the size of this packed pile is {@code 0}.
+	 * <p>
+	 * An index already within the bounds of this packed pile is left unchanged.
+	 * An index greater than or equal to the size of this packed pile returns the upper bound.
+	 * An index less than or equal to the negative of the size of this packed pile returns {@code 0}.
+	 * Any other negative index returns the sum of the size of this packed pile and itself.
+	 *
+	 * @param index - the index to be placed within the bounds of this packed pile
+	 * @param useSize - whether to use the size of this packed pile as its upper bound
+	 * @return the most relevant index within the bounds of this packed pile, inclusive
+	 */
+	private int wrapIndex(int index, boolean useSize) {
+		if (size == 0) {
+			// Return 0 if size is 0
+			return 0;
+		} else {
+			if (index >= 0) {
+				if (index < size) {
+					// Return index if already within bounds (index >= 0 && index < size)
+					return index;
+				} else {
+					// Return most relevant upper bound if (index >= size)
+					return size + (useSize ? 0 : -1);
+				}
+			} else {
+				if (index > -size) {
+					// Return wrapped index if (index > -size && index < 0)
+					return size + index;
+				} else {
+					// Return 0 if (index <= -size)
+					return 0;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Opens a gap of the specified length at the specified position in the byte array, growing it if necessary.
+	 *
+	 * @param index - index at which the gap is to be opened, between {@code 0} and {@link #size}, inclusive
+	 * @param length - length of the gap
+	 */
+	private void openGap(int index, int length) {
+		if (size + length > cards.length) {
+			// Grow by half again, or by the length of the gap if larger
+			cards = Arrays.copyOf(cards, Math.max(size + length, cards.length + (cards.length >> 1)));
+		}
+		System.arraycopy(cards, index, cards, index + length, size - index);
+		size += length;
+	}
+
+	/**
+	 * Closes a gap of the specified length at the specified position in the byte array.
+	 *
+	 * @param index - index of the first byte to be removed
+	 * @param length - number of bytes to be removed
+	 */
+	private void closeGap(int index, int length) {
+		System.arraycopy(cards, index + length, cards, index, size - index - length);
+		size -= length;
+	}
+
+
+	// Card addition
+
+	/**
+	 * Places the specified card on top of this packed pile.
+	 *
+	 * @param card - card to be added
+	 * @return the new size of this packed pile
+	 */
+	public int addCard(Card card) {
+		openGap(size, 1);
+		cards[size - 1] = encode(card);
+		return size;
+	}
+
+	/**
+	 * Inserts the specified card at the specified position in this packed pile.
+	 * Pushes the card currently at that position (if any) and any cards above it towards the top of this packed pile (adds {@code 1} to their indices).
+	 * <p>
+	 * An index greater than or equal to the size of this packed pile causes the card to be placed on top.
+	 * An index less than or equal to the negative of the size of this packed pile causes the card to be placed on the bottom.
+	 * Any other negative index specifies the position from the top of this packed pile.
+	 *
+	 * @param index - index at which the specified card is to be inserted
+	 * @param card - card to be inserted
+	 * @return the new size of this packed pile
+	 * @see #wrapIndex(int, boolean)
+	 */
+	public int addCardAt(int index, Card card) {
+		index = wrapIndex(index, true);
+		openGap(index, 1);
+		cards[index] = encode(card);
+		return size;
+	}
+
+	/**
+	 * Places the cards in the specified collection on top of this packed pile.
+	 *
+	 * @param collection - collection containing cards to be added to this packed pile
+	 * @return the new size of this packed pile
+	 */
+	public int addCards(Collection<Card> collection) {
+		return addCardsAt(size, collection);
+	}
+
+	/**
+	 * Inserts the cards in the specified collection at the specified position in this packed pile.
+	 * Pushes the cards currently at that position (if any) and any cards above them towards the top of this packed pile (increases their indices).
+	 * <p>
+	 * An index greater than or equal to the size of this packed pile causes the cards to be placed on top.
+	 * An index less than or equal to the negative of the size of this packed pile causes the cards to be placed on the bottom.
+	 * Any other negative index specifies the position from the top of this packed pile.
+	 *
+	 * @param index - index at which the first card from the specified collection is to be inserted
+	 * @param collection - collection containing cards to be inserted
+	 * @return the new size of this packed pile
+	 * @see #wrapIndex(int, boolean)
+	 */
+	public int addCardsAt(int index, Collection<Card> collection) {
+		// Prevent NullPointerException (thrown if collection null)
+		if (collection != null) {
+			index = wrapIndex(index, true);
+			openGap(index, collection.size());
+			for (Card card : collection) {
+				cards[index++] = encode(card);
+			}
+		}
+		return size;
+	}
+
+	/**
+	 * Places the cards in the specified packed pile on top of this packed pile.
+	 * The specified packed pile is unchanged.
+	 *
+	 * @param pile - packed pile containing cards to be added to this packed pile
+	 * @return the new size of this packed pile
+	 */
+	public int addCards(PackedPile pile) {
+		// Prevent NullPointerException (thrown if pile null)
+		if (pile != null) {
+			// Store pile.size as local variable in case pile is this packed pile
+			int length = pile.size;
+			openGap(size, length);
+			System.arraycopy(pile.cards, 0, cards, size - length, length);
+		}
+		return size;
+	}
+
+
+	// Card inclusion
+
+	/**
+	 * Returns {@code true} if this packed pile contains the specified card.
+	 *
+	 * @param card - card whose presence in this packed pile is to be tested
+	 * @return {@code true} if this packed pile contains the specified card
+	 */
+	public boolean containsCard(Card card) {
+		return lowestIndexOf(card) != -1;
+	}
+
+	/**
+	 * Returns {@code true} if this packed pile contains at least one of each of the cards in the specified collection.
+	 * Returns {@code false} if the specified collection is {@code null}.
+	 * <p>
+	 * Cards are compared by value.
+	 * The collection is tested against a bitmask of the cards in this packed pile, built in a single pass, so the call takes time linear in the sizes of this packed pile and the collection.
+	 *
+	 * @param collection - collection whose cards are to be checked for containment in this packed pile
+	 * @return {@code true} if this packed pile contains at least one of each of the cards in the specified collection
+	 */
+	public boolean containsCards(Collection<Card> collection) {
+		// Prevent NullPointerException (thrown if collection null)
+		if (collection != null) {
+			CardMask mask = new CardMask();
+			for (int i = 0; i < size; i++) {
+				mask.addKey(key(cards[i]));
+			}
+			return mask.containsAll(collection);
+		} else {
+			// Return false if collection null
+			return false;
+		}
+	}
+
+
+	// Card deletion
+
+	/**
+	 * Deletes all occurrences of the specified card from this packed pile, if present.
+	 * If this packed pile does not contain the card, it is unchanged.
+	 * Returns {@code true} if this packed pile changed as a result of the call.
+	 *
+	 * @param card - card to be deleted from this packed pile, if present
+	 * @return {@code true} if this packed pile changed as a result of the call
+	 */
+	public boolean deleteAllOfType(Card card) {
+		byte code = encode(card);
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (cards[i] != code) {
+				cards[kept++] = cards[i];
+			}
+		}
+		boolean changed = kept != size;
+		size = kept;
+		return changed;
+	}
+
+	/**
+	 * Deletes from this packed pile all of its cards that appear at least once in the specified collection.
+	 * If this packed pile does not contain any of the cards, it is unchanged.
+	 * Returns {@code true} if this packed pile changed as a result of the call.
+	 * <p>
+	 * Cards are compared by value.
+	 * The specified collection is reduced to a bitmask, and this packed pile is compacted in a single pass, so the call takes time linear in the sizes of this packed pile and the collection.
+	 *
+	 * @param collection - collection containing cards to be deleted from this packed pile, if present
+	 * @return {@code true} if this packed pile changed as a result of the call
+	 */
+	public boolean deleteAllOfTypes(Collection<Card> collection) {
+		// Prevent NullPointerException (thrown if collection null)
+		if (collection != null) {
+			CardMask mask = CardMask.of(collection);
+			int kept = 0;
+			for (int i = 0; i < size; i++) {
+				if (!mask.containsKey(key(cards[i]))) {
+					cards[kept++] = cards[i];
+				}
+			}
+			boolean changed = kept != size;
+			size = kept;
+			return changed;
+		} else {
+			// Return false if collection null
+			return false;
+		}
+	}
+
+	/**
+	 * Deletes the uppermost occurrence of the specified card from this packed pile, if present.
+	 * If this packed pile does not contain the card, it is unchanged.
+	 * Returns {@code true} if this packed pile changed as a result of the call.
+	 *
+	 * @param card - card to be deleted from this packed pile, if present
+	 * @return {@code true} if this packed pile changed as a result of the call
+	 */
+	public boolean deleteHighestOfType(Card card) {
+		int lastIndex = highestIndexOf(card);
+		if (lastIndex != -1) {
+			closeGap(lastIndex, 1);
+			return true;
+		} else {
+			// Return false if card not present
+			return false;
+		}
+	}
+
+	/**
+	 * Deletes the lowermost occurrence of the specified card from this packed pile, if present.
+	 * If this packed pile does not contain the card, it is unchanged.
+	 * Returns {@code true} if this packed pile changed as a result of the call.
+	 *
+	 * @param card - card to be deleted from this packed pile, if present
+	 * @return {@code true} if this packed pile changed as a result of the call
+	 */
+	public boolean deleteLowestOfType(Card card) {
+		int firstIndex = lowestIndexOf(card);
+		if (firstIndex != -1) {
+			closeGap(firstIndex, 1);
+			return true;
+		} else {
+			// Return false if card not present
+			return false;
+		}
+	}
+
+
+	// Card identification
+
+	/**
+	 * Returns the card at the top of this packed pile.
+	 *
+	 * @return the card at the top of this packed pile
+	 * @throws IndexOutOfBoundsException if this packed pile is empty {@code (size() == 0)}
+	 */
+	public Card getCard() {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException("Index -1 out of bounds for length 0");
+		}
+		return decode(cards[size - 1]);
+	}
+
+	/**
+	 * Returns the card at the specified position in this packed pile.
+	 * <p>
+	 * An index greater than or equal to the size of this packed pile returns the top card.
+	 * An index less than or equal to the negative of the size of this packed pile returns the bottom card.
+	 * Any other negative index specifies the position from the top of this packed pile.
+	 *
+	 * @param index - index of the card to return
+	 * @return the card at the specified position in this packed pile
+	 * @throws IndexOutOfBoundsException if this packed pile is empty {@code (size() == 0)}
+	 * @see #wrapIndex(int, boolean)
+	 */
+	public Card getCardAt(int index) {
+		if (size == 0) {
+			throw new IndexOutOfBoundsException("Index 0 out of bounds for length 0");
+		}
+		return decode(cards[wrapIndex(index, false)]);
+	}
+
+	/**
+	 * Returns a packed pile containing copies of the specified quantity of cards from the top of this packed pile.
+	 * If the specified quantity is greater than or equal to the size of this packed pile, a copy of this packed pile is returned.
+	 *
+	 * @param quantity - number of cards to return
+	 * @return a packed pile containing copies of the specified quantity of cards from the top of this packed pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 */
+	public PackedPile getCards(int quantity) {
+		checkQuantity(quantity);
+		quantity = Math.min(quantity, size);
+		return new PackedPile(Arrays.copyOfRange(cards, size - quantity, size), quantity);
+	}
+
+	/**
+	 * Returns a packed pile containing copies of the specified quantity of cards from the specified position in this packed pile.
+	 * This packed pile is unchanged.
+	 * If the sum of the specified index and quantity is greater than or equal to the size of this packed pile, the card at the specified index and all cards above it are returned.
+	 * <p>
+	 * An index greater than or equal to the size of this packed pile returns the top card.
+	 * An index less than or equal to the negative of the size of this packed pile returns the specified quantity of cards from the bottom of this packed pile.
+	 * Any other negative index specifies the position from the top of this packed pile.
+	 *
+	 * @param index - index of the first card to be returned
+	 * @param quantity - number of cards to return
+	 * @return a packed pile containing copies of the specified quantity of cards from the specified position in this packed pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 * @see #wrapIndex(int, boolean)
+	 */
+	public PackedPile getCardsAt(int index, int quantity) {
+		checkQuantity(quantity);
+		index = wrapIndex(index, false);
+		quantity = Math.min(quantity, size - index);
+		return new PackedPile(Arrays.copyOfRange(cards, index, index + quantity), quantity);
+	}
+
+
+	// Card location
+
+	/**
+	 * Returns the index of the uppermost occurrence of the specified card in this packed pile, or {@code -1} if this packed pile does not contain the card.
+	 *
+	 * @param card - card for which to search
+	 * @return the index of the uppermost occurrence of the specified card in this packed pile, or {@code -1} if this packed pile does not contain the card
+	 */
+	public int highestIndexOf(Card card) {
+		return highestIndexOf(card, size);
+	}
+
+	/**
+	 * Returns the index of the uppermost occurrence of the specified card in this packed pile, searching downwards from fromIndex, exclusive; or {@code -1} if this packed pile does not contain the card.
+	 * <p>
+	 * A fromIndex greater than or equal to the size of this packed pile causes the search to be performed over the entire packed pile.
+	 * A fromIndex less than or equal to the negative of the size of this packed pile causes the search to be performed over an empty packed pile and returns {@code -1}.
+	 * Any other negative fromIndex specifies the position from the top of this packed pile.
+	 *
+	 * @param card - card for which to search
+	 * @param fromIndex - index before which to start the search
+	 * @return the index of the uppermost occurrence of the specified card in this packed pile, searching downwards from fromIndex, exclusive; or {@code -1} if this packed pile does not contain the card
+	 * @see #wrapIndex(int, boolean)
+	 */
+	public int highestIndexOf(Card card, int fromIndex) {
+		byte code = encode(card);
+		for (int i = wrapIndex(fromIndex, true) - 1; i >= 0; i--) {
+			if (cards[i] == code) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the index of the lowermost occurrence of the specified card in this packed pile, or {@code -1} if this packed pile does not contain the card.
+	 *
+	 * @param card - card for which to search
+	 * @return the index of the lowermost occurrence of the specified card in this packed pile, or {@code -1} if this packed pile does not contain the card
+	 */
+	public int lowestIndexOf(Card card) {
+		return lowestIndexOf(card, 0);
+	}
+
+	/**
+	 * Returns the index of the lowermost occurrence of the specified card in this packed pile, searching upwards from fromIndex, inclusive; or {@code -1} if this packed pile does not contain the card.
+	 * <p>
+	 * A fromIndex greater than or equal to the size of this packed pile causes the search to be performed over an empty packed pile and returns {@code -1}.
+	 * A fromIndex less than or equal to the negative of the size of this packed pile causes the search to be performed over the entire packed pile.
+	 * Any other negative fromIndex specifies the position from the top of this packed pile.
+	 *
+	 * @param card - card for which to search
+	 * @param fromIndex - index at which to start the search
+	 * @return the index of the lowermost occurrence of the specified card in this packed pile, searching upwards from fromIndex, inclusive; or {@code -1} if this packed pile does not contain the card
+	 * @see #wrapIndex(int, boolean)
+	 */
+	public int lowestIndexOf(Card card, int fromIndex) {
+		byte code = encode(card);
+		for (int i = wrapIndex(fromIndex, true); i < size; i++) {
+			if (cards[i] == code) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+
+	// Card removal
+
+	/**
+	 * Removes a card from the top of this packed pile.
+	 *
+	 * @return the card that was removed from this packed pile
+	 * @throws IndexOutOfBoundsException if this packed pile is empty {@code (size() == 0)}
+	 */
+	public Card pickCard() {
+		Card card = getCard();
+		size--;
+		return card;
+	}
+
+	/**
+	 * Removes a card from the specified position in this packed pile.
+	 * Lowers any cards above it (subtracts one from their indices).
+	 * <p>
+	 * An index greater than or equal to the size of this packed pile causes the top card to be removed from this packed pile.
+	 * An index less than or equal to the negative of the size of this packed pile causes the bottom card to be removed from this packed pile.
+	 * Any other negative index specifies the position from the top of this packed pile.
+	 *
+	 * @param index - index of the card to be removed
+	 * @return the card that was removed from this packed pile
+	 * @throws IndexOutOfBoundsException if this packed pile is empty {@code (size() == 0)}
+	 * @see #wrapIndex(int, boolean)
+	 */
+	public Card pickCardAt(int index) {
+		Card card = getCardAt(index);
+		closeGap(wrapIndex(index, false), 1);
+		return card;
+	}
+
+	/**
+	 * Removes the specified quantity of cards from the top of this packed pile.
+	 * If the specified quantity is greater than or equal to the size of this packed pile, a copy of this packed pile is returned and the original is emptied.
+	 *
+	 * @param quantity - number of cards to remove
+	 * @return a packed pile containing the cards that were removed from this packed pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 */
+	public PackedPile pickCards(int quantity) {
+		PackedPile pile = getCards(quantity);
+		size -= pile.size;
+		return pile;
+	}
+
+	/**
+	 * Removes the specified quantity of cards from the specified position in this packed pile.
+	 * Lowers any cards above them (decreases their indices).
+	 * If the sum of the specified index and quantity is greater than or equal to the size of this packed pile, the card at the specified index and all cards above it are removed.
+	 * <p>
+	 * An index greater than or equal to the size of this packed pile causes the top card to be removed from this packed pile.
+	 * An index less than or equal to the negative of the size of this packed pile causes the specified quantity of cards to be removed from the bottom of this packed pile.
+	 * Any other negative index specifies the position from the top of this packed pile.
+	 *
+	 * @param index - index of the first card to be removed
+	 * @param quantity - number of cards to remove
+	 * @return a packed pile containing the cards that were removed from this packed pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 * @see #wrapIndex(int, boolean)
+	 */
+	public PackedPile pickCardsAt(int index, int quantity) {
+		index = wrapIndex(index, false);
+		PackedPile pile = getCardsAt(index, quantity);
+		closeGap(index, pile.size);
+		return pile;
+	}
+
+
+	// Pile conversion and copying
+
+	/**
+	 * Returns a copy of this packed pile.
+	 * Changes to the returned packed pile will not be reflected in this packed pile, nor will changes to this packed pile be reflected in the returned packed pile.
+	 *
+	 * @return a copy of this instance of the {@code PackedPile} class
+	 */
+	public PackedPile copy() {
+		return new PackedPile(Arrays.copyOf(cards, Math.max(size, DEFAULT_CAPACITY)), size);
+	}
+
+	/**
+	 * Returns a new pile containing the cards in this packed pile, in the same order.
+	 * Null cards in this packed pile will be copied to the returned pile.
+	 *
+	 * @return a new pile containing the cards in this packed pile
+	 */
+	public Pile toPile() {
+		Pile pile = new Pile();
+		for (int i = 0; i < size; i++) {
+			pile.addCard(decode(cards[i]));
+		}
+		return pile;
+	}
+
+
+	// Binary encoding
+
+	/**
+	 * Returns the number of bytes written by {@link #writeTo(ByteBuffer)}.
+	 *
+	 * @return the number of bytes in the binary encoding of this packed pile
+	 */
+	public int encodedSize() {
+		return PileCodec.encodedSize(size);
+	}
+
+	/**
+	 * Writes the binary encoding of this packed pile at the position of the specified buffer, and advances the position past it.
+	 * The encoding is the same as that written by {@link Pile#writeTo(ByteBuffer)}.
+	 * Since a packed pile is already encoded, its cards are written by a single bulk copy.
+	 *
+	 * @param buffer - the buffer to which this packed pile is to be written
+	 * @throws java.nio.BufferOverflowException if the buffer has fewer than {@link #encodedSize()} bytes remaining, in which case it is unchanged
+	 * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+	 */
+	public void writeTo(ByteBuffer buffer) {
+		int position = PileCodec.writeHeader(buffer, size);
+		buffer.put(position, cards, 0, size);
+		buffer.position(position + size);
+	}
+
+	/**
+	 * Reads a packed pile from its binary encoding at the position of the specified buffer, and advances the position past it.
+	 * The encoding may have been written by {@link #writeTo(ByteBuffer)} or by {@link Pile#writeTo(ByteBuffer)}.
+	 *
+	 * @param buffer - the buffer from which a packed pile is to be read
+	 * @return the packed pile read from the specified buffer
+	 * @throws java.nio.BufferUnderflowException if the buffer does not contain a whole encoded pile, in which case it is unchanged
+	 * @throws IllegalArgumentException if the encoding is invalid, in which case the buffer is unchanged
+	 */
+	public static PackedPile readFrom(ByteBuffer buffer) {
+		int size = PileCodec.readHeader(buffer);
+		int position = buffer.position() + PileCodec.HEADER_SIZE;
+		byte[] cards = new byte[Math.max(size, DEFAULT_CAPACITY)];
+		buffer.get(position, cards, 0, size);
+		for (int i = 0; i < size; i++) {
+			PileCodec.checkCode(cards[i]);
+		}
+		buffer.position(position + size);
+		return new PackedPile(cards, size);
+	}
+
+
+	// Pile manipulation
+
+	/**
+	 * Reverses the order of the cards in this packed pile.
+	 */
+	public void reverse() {
+		for (int i = 0, j = size - 1; i < j; i++, j--) {
+			byte code = cards[i];
+			cards[i] = cards[j];
+			cards[j] = code;
+		}
+	}
+
+	/**
+	 * Sets the face visibility of the cards in this packed pile to the specified state.
+	 *
+	 * @param faceUp - whether the faces of the cards in this packed pile should be visible
+	 */
+	public void setFaceUp(boolean faceUp) {
+		for (int i = 0; i < size; i++) {
+			// Leave null cards unchanged
+			if (cards[i] != NULL) {
+				cards[i] = (byte) (faceUp ? cards[i] | 1 : cards[i] & ~1);
+			}
+		}
+	}
+
+	/**
+	 * Shuffles this packed pile.
+	 * Randomly permutes this packed pile using the source of randomness of the current thread.
+	 * All permutations occur with approximately equal likelihood.
+	 *
+	 * @see ThreadLocalRandom#current()
+	 */
+	public void shuffle() {
+		shuffle(ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Shuffles this packed pile using the specified source of randomness.
+	 * All permutations occur with approximately equal likelihood.
+	 * The shuffle is reproducible if the source of randomness is seeded.
+	 *
+	 * @param random - the source of randomness
+	 */
+	public void shuffle(RandomGenerator random) {
+		for (int i = size - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			byte code = cards[i];
+			cards[i] = cards[j];
+			cards[j] = code;
+		}
+	}
+
+	/**
+	 * Returns the number of cards in this packed pile.
+	 *
+	 * @return the number of cards in this packed pile
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Sorts this packed pile according to the order induced by the specified comparator.
+	 * This sort is guaranteed to be stable: equal cards will not be reordered as a result of the sort.
+	 * <p>
+	 * Since there are only 52 card types, this packed pile is sorted in linear time by counting the sort keys of its cards.
+	 *
+	 * @param comparator - the comparator to determine the order of the packed pile
+	 * @see CardComparator#getKey(Card)
+	 */
+	public void sort(CardComparator comparator) {
+		// Look up the sort key of each code once, where null cards have key 0
+		int[] keys = new int[CardMask.KEYS];
+		for (int code = 0; code < CardMask.NULL_KEY; code++) {
+			keys[code] = comparator.getKey(Card.of(code));
+		}
+		// Count the cards with each key
+		int[] starts = new int[Suit.values().length * Rank.values().length + 2];
+		for (int i = 0; i < size; i++) {
+			starts[keys[key(cards[i])] + 1]++;
+		}
+		for (int key = 1; key < starts.length; key++) {
+			starts[key] += starts[key - 1];
+		}
+		// Place each card after the cards with lower keys and the earlier cards with the same key
+		byte[] sorted = new byte[cards.length];
+		for (int i = 0; i < size; i++) {
+			sorted[starts[keys[key(cards[i])]]++] = cards[i];
+		}
+		cards = sorted;
+	}
+
+	/**
+	 * Toggles the face visibility of the cards in this packed pile.
+	 * Cards that are face up will be turned face down, and cards that are face down will be turned face up.
+	 */
+	public void toggleFaceUp() {
+		for (int i = 0; i < size; i++) {
+			// Leave null cards unchanged
+			if (cards[i] != NULL) {
+				cards[i] ^= 1;
+			}
+		}
+	}
+
+
+	// Argument checking
+
+	/**
+	 * Throws an exception if the specified quantity is negative.
+	 *
+	 * @param quantity - quantity to be checked
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 */
+	private static void checkQuantity(int quantity) {
+		if (quantity < 0) {
+			throw new IllegalArgumentException("Negative quantity: " + quantity);
+		}
+	}
+
+
+	// Overrides
+
+	/**
+	 * Returns a string representation of this packed pile.
+	 * This is the string representation of the pile returned by {@link #toPile()}.
+	 *
+	 * @return a string representation of this packed pile
+	 * @see Pile#toString()
+	 */
+	@Override
+	public String toString() {
+		return toPile().toString();
+	}
+
+}
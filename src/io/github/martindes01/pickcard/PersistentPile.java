@@ -0,0 +1,611 @@
+package io.github.martindes01.pickcard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * PersistentPile is an immutable pile of cards which shares structure with the piles from which it is derived.
+ * <p>
+ * A persistent pile is an implicit treap: a binary tree of cards in pile order, balanced by random priorities.
+ * Methods which would change a pile, such as {@link #withCardAt(int, Card)}, return a new pile which copies only the nodes on the path to the change, and shares every other node with this pile.
+ * Hence, taking a snapshot of a persistent pile takes constant time, since the pile itself is the snapshot, and each change takes expected logarithmic time and space, however many snapshots are kept.
+ * <p>
+ * A persistent pile offers the same index wrapping semantics as {@link Pile}, and index {@code 0} is the bottom of the pile.
+ * Conversion from and to a mutable {@link Pile} takes linear time and allocates no cards.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile
+ * @since 1.1
+ */
+public final class PersistentPile {
+
+	// Nested classes
+
+	/**
+	 * An immutable node of a treap.
+	 */
+	private static final class Node {
+
+		/**
+		 * The card at this node.
+		 */
+		final Card card;
+
+		/**
+		 * The subtree of cards below this card, or {@code null}.
+		 */
+		final Node left;
+
+		/**
+		 * The subtree of cards above this card, or {@code null}.
+		 */
+		final Node right;
+
+		/**
+		 * The number of cards in the subtree rooted at this node.
+		 */
+		final int size;
+
+		/**
+		 * The priority of this node, which is not less than the priorities of its children.
+		 */
+		final int priority;
+
+		/**
+		 * Constructs a new node with the specified card, children and priority.
+		 *
+		 * @param card - the card at this node
+		 * @param left - the subtree of cards below the card, or {@code null}
+		 * @param right - the subtree of cards above the card, or {@code null}
+		 * @param priority - the priority of this node
+		 */
+		Node(Card card, Node left, Node right, int priority) {
+			this.card = card;
+			this.left = left;
+			this.right = right;
+			this.size = 1 + sizeOf(left) + sizeOf(right);
+			this.priority = priority;
+		}
+
+	}
+
+
+	// Constants
+
+	/**
+	 * The empty persistent pile.
+	 */
+	private static final PersistentPile EMPTY = new PersistentPile(null);
+
+
+	// Fields
+
+	/**
+	 * The root of the treap, or {@code null} if this pile is empty.
+	 */
+	private final Node root;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new persistent pile with the specified root.
+	 *
+	 * @param root - the root of the treap, or {@code null}
+	 */
+	private PersistentPile(Node root) {
+		this.root = root;
+	}
+
+
+	// Factories
+
+	/**
+	 * Returns the empty persistent pile.
+	 *
+	 * @return the empty persistent pile
+	 */
+	public static PersistentPile empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Returns a persistent pile containing the specified collection of cards, in the same order.
+	 * This takes linear time.
+	 *
+	 * @param collection - the collection of cards to be contained in the returned pile
+	 * @return a persistent pile containing the specified collection of cards
+	 */
+	public static PersistentPile of(Collection<Card> collection) {
+		Node root = build(collection.toArray(new Card[0]));
+		return root != null ? new PersistentPile(root) : EMPTY;
+	}
+
+	/**
+	 * Returns a persistent pile containing the cards in the specified pile, in the same order.
+	 * This takes linear time, and the specified pile is unchanged.
+	 *
+	 * @param pile - the pile whose cards are to be contained in the returned pile
+	 * @return a persistent pile containing the cards in the specified pile
+	 */
+	public static PersistentPile of(Pile pile) {
+		return of(pile.getList());
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the number of cards in the specified subtree.
+	 *
+	 * @param node - the root of the subtree, or {@code null}
+	 * @return the number of cards in the specified subtree
+	 */
+	private static int sizeOf(Node node) {
+		return node != null ? node.size : 0;
+	}
+
+	/**
+	 * Returns a new random priority.
+	 * Priorities affect only the shape of a treap, never its order, so each thread draws them from its own source of randomness, and threads deriving piles in parallel do not contend.
+	 *
+	 * @return a new random priority
+	 * @see ThreadLocalRandom#current()
+	 */
+	private static int nextPriority() {
+		return ThreadLocalRandom.current().nextInt();
+	}
+
+	/**
+	 * Returns a perfectly balanced treap containing the specified cards, in the same order.
+	 * Random priorities are heap-ordered over the balanced shape, so this takes linear time.
+	 *
+	 * @param cards - the cards to be contained in the treap
+	 * @return the root of the treap, or {@code null} if there are no cards
+	 */
+	private static Node build(Card[] cards) {
+		int[] priorities = new int[cards.length];
+		for (int i = 0; i < priorities.length; i++) {
+			priorities[i] = nextPriority();
+		}
+		heapify(priorities, 0, cards.length);
+		return build(cards, priorities, 0, cards.length);
+	}
+
+	/**
+	 * Orders the priorities of the balanced subtree over the specified range so that each is not less than those of its children.
+	 * The root of the subtree over a range is the middle of the range.
+	 *
+	 * @param priorities - the priorities, by position
+	 * @param from - the first position of the range, inclusive
+	 * @param to - the last position of the range, exclusive
+	 */
+	private static void heapify(int[] priorities, int from, int to) {
+		if (to - from > 1) {
+			int middle = (from + to) >>> 1;
+			heapify(priorities, from, middle);
+			heapify(priorities, middle + 1, to);
+			// Sift the priority at the root down into the larger child
+			while (to - from > 1) {
+				middle = (from + to) >>> 1;
+				int child = -1;
+				int childFrom = 0;
+				int childTo = 0;
+				if (middle > from) {
+					child = (from + middle) >>> 1;
+					childFrom = from;
+					childTo = middle;
+				}
+				if (middle + 1 < to) {
+					int right = (middle + 1 + to) >>> 1;
+					if (child == -1 || priorities[right] > priorities[child]) {
+						child = right;
+						childFrom = middle + 1;
+						childTo = to;
+					}
+				}
+				if (child == -1 || priorities[middle] >= priorities[child]) {
+					break;
+				}
+				int priority = priorities[middle];
+				priorities[middle] = priorities[child];
+				priorities[child] = priority;
+				from = childFrom;
+				to = childTo;
+			}
+		}
+	}
+
+	/**
+	 * Returns the balanced subtree over the specified range of cards.
+	 *
+	 * @param cards - the cards
+	 * @param priorities - the heap-ordered priorities, by position
+	 * @param from - the first position of the range, inclusive
+	 * @param to - the last position of the range, exclusive
+	 * @return the root of the subtree, or {@code null} if the range is empty
+	 */
+	private static Node build(Card[] cards, int[] priorities, int from, int to) {
+		if (from >= to) {
+			return null;
+		}
+		int middle = (from + to) >>> 1;
+		return new Node(cards[middle], build(cards, priorities, from, middle), build(cards, priorities, middle + 1, to), priorities[middle]);
+	}
+
+	/**
+	 * Returns the concatenation of the specified treaps, copying only the nodes on their adjoining spines.
+	 *
+	 * @param lower - the treap of lower cards, or {@code null}
+	 * @param upper - the treap of upper cards, or {@code null}
+	 * @return the root of the concatenation, or {@code null} if both are empty
+	 */
+	private static Node merge(Node lower, Node upper) {
+		if (lower == null) {
+			return upper;
+		} else if (upper == null) {
+			return lower;
+		} else if (lower.priority >= upper.priority) {
+			return new Node(lower.card, lower.left, merge(lower.right, upper), lower.priority);
+		} else {
+			return new Node(upper.card, merge(lower, upper.left), upper.right, upper.priority);
+		}
+	}
+
+	/**
+	 * Returns the treap of the specified number of lowest cards of the specified treap, copying only the nodes on the path to the split.
+	 *
+	 * @param node - the treap, or {@code null}
+	 * @param count - the number of cards to keep, between {@code 0} and the size of the treap, inclusive
+	 * @return the root of the treap of the lowest cards, or {@code null} if {@code count} is {@code 0}
+	 */
+	private static Node lowest(Node node, int count) {
+		if (node == null || count == 0) {
+			return null;
+		} else if (count == node.size) {
+			return node;
+		}
+		int leftSize = sizeOf(node.left);
+		if (count <= leftSize) {
+			return lowest(node.left, count);
+		} else {
+			return new Node(node.card, node.left, lowest(node.right, count - leftSize - 1), node.priority);
+		}
+	}
+
+	/**
+	 * Returns the treap of the cards of the specified treap above the specified number of lowest cards, copying only the nodes on the path to the split.
+	 *
+	 * @param node - the treap, or {@code null}
+	 * @param count - the number of cards to skip, between {@code 0} and the size of the treap, inclusive
+	 * @return the root of the treap of the remaining cards, or {@code null} if none remain
+	 */
+	private static Node highest(Node node, int count) {
+		if (node == null || count == node.size) {
+			return null;
+		} else if (count == 0) {
+			return node;
+		}
+		int leftSize = sizeOf(node.left);
+		if (count > leftSize) {
+			return highest(node.right, count - leftSize - 1);
+		} else {
+			return new Node(node.card, highest(node.left, count), node.right, node.priority);
+		}
+	}
+
+	/**
+	 * Returns the most relevant index within the bounds of this pile, inclusive, following the same rules as {@link Pile}.
+	 *
+	 * @param index - the index to be placed within the bounds of this pile
+	 * @param useSize - whether to use the size of this pile as its upper bound
+	 * @return the most relevant index within the bounds of this pile, inclusive
+	 */
+	private int wrapIndex(int index, boolean useSize) {
+		int size = size();
+		if (size == 0) {
+			return 0;
+		} else if (index >= size) {
+			return size + (useSize ? 0 : -1);
+		} else if (index >= 0) {
+			return index;
+		} else if (index > -size) {
+			return size + index;
+		} else {
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns a pile with the specified root, reusing the empty pile.
+	 *
+	 * @param root - the root of the treap, or {@code null}
+	 * @return a pile with the specified root
+	 */
+	private static PersistentPile wrap(Node root) {
+		return root != null ? new PersistentPile(root) : EMPTY;
+	}
+
+
+	// Card addition
+
+	/**
+	 * Returns a pile with the specified card placed on top of this pile.
+	 *
+	 * @param card - card to be added
+	 * @return a pile with the specified card placed on top of this pile
+	 */
+	public PersistentPile withCard(Card card) {
+		return wrap(merge(root, new Node(card, null, null, nextPriority())));
+	}
+
+	/**
+	 * Returns a pile with the specified card inserted at the specified position in this pile.
+	 * Index wrapping follows {@link Pile#addCardAt(int, Card)}.
+	 *
+	 * @param index - index at which the specified card is to be inserted
+	 * @param card - card to be inserted
+	 * @return a pile with the specified card inserted at the specified position in this pile
+	 */
+	public PersistentPile withCardAt(int index, Card card) {
+		index = wrapIndex(index, true);
+		return wrap(merge(merge(lowest(root, index), new Node(card, null, null, nextPriority())), highest(root, index)));
+	}
+
+	/**
+	 * Returns a pile with the cards in the specified collection placed on top of this pile.
+	 *
+	 * @param collection - collection containing cards to be added
+	 * @return a pile with the cards in the specified collection placed on top of this pile
+	 */
+	public PersistentPile withCards(Collection<Card> collection) {
+		return wrap(merge(root, build(collection.toArray(new Card[0]))));
+	}
+
+	/**
+	 * Returns a pile with the cards in the specified pile placed on top of this pile.
+	 * This takes expected logarithmic time, and shares the nodes of both piles.
+	 *
+	 * @param pile - pile containing cards to be added
+	 * @return a pile with the cards in the specified pile placed on top of this pile
+	 */
+	public PersistentPile withCards(PersistentPile pile) {
+		return wrap(merge(root, pile.root));
+	}
+
+	/**
+	 * Returns a pile with the cards in the specified collection inserted at the specified position in this pile.
+	 * Index wrapping follows {@link Pile#addCardsAt(int, Collection)}.
+	 *
+	 * @param index - index at which the first card from the specified collection is to be inserted
+	 * @param collection - collection containing cards to be inserted
+	 * @return a pile with the cards in the specified collection inserted at the specified position in this pile
+	 */
+	public PersistentPile withCardsAt(int index, Collection<Card> collection) {
+		index = wrapIndex(index, true);
+		return wrap(merge(merge(lowest(root, index), build(collection.toArray(new Card[0]))), highest(root, index)));
+	}
+
+
+	// Card identification
+
+	/**
+	 * Returns the card at the top of this pile.
+	 *
+	 * @return the card at the top of this pile
+	 * @throws IndexOutOfBoundsException if this pile is empty {@code (size() == 0)}
+	 */
+	public Card getCard() {
+		return getCardAt(size() - 1);
+	}
+
+	/**
+	 * Returns the card at the specified position in this pile.
+	 * Index wrapping follows {@link Pile#getCardAt(int)}.
+	 *
+	 * @param index - index of the card to return
+	 * @return the card at the specified position in this pile
+	 * @throws IndexOutOfBoundsException if this pile is empty {@code (size() == 0)}
+	 */
+	public Card getCardAt(int index) {
+		if (root == null) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length 0");
+		}
+		index = wrapIndex(index, false);
+		Node node = root;
+		while (true) {
+			int leftSize = sizeOf(node.left);
+			if (index < leftSize) {
+				node = node.left;
+			} else if (index > leftSize) {
+				index -= leftSize + 1;
+				node = node.right;
+			} else {
+				return node.card;
+			}
+		}
+	}
+
+	/**
+	 * Returns a pile of the specified quantity of cards from the top of this pile.
+	 * If the specified quantity is greater than or equal to the size of this pile, this pile is returned.
+	 *
+	 * @param quantity - number of cards to return
+	 * @return a pile of the specified quantity of cards from the top of this pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 */
+	public PersistentPile getCards(int quantity) {
+		checkQuantity(quantity);
+		return wrap(highest(root, Math.max(0, size() - quantity)));
+	}
+
+	/**
+	 * Returns a pile of the specified quantity of cards from the specified position in this pile.
+	 * Index wrapping and truncation follow {@link Pile#getCardsAt(int, int)}.
+	 *
+	 * @param index - index of the first card to be returned
+	 * @param quantity - number of cards to return
+	 * @return a pile of the specified quantity of cards from the specified position in this pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 */
+	public PersistentPile getCardsAt(int index, int quantity) {
+		checkQuantity(quantity);
+		index = wrapIndex(index, false);
+		int to = (int) Math.min(size(), (long) index + quantity);
+		return wrap(highest(lowest(root, to), index));
+	}
+
+
+	// Card removal
+
+	/**
+	 * Returns a pile with the top card of this pile removed.
+	 *
+	 * @return a pile with the top card of this pile removed
+	 * @throws IndexOutOfBoundsException if this pile is empty {@code (size() == 0)}
+	 */
+	public PersistentPile withoutCard() {
+		return withoutCardAt(size() - 1);
+	}
+
+	/**
+	 * Returns a pile with the card at the specified position in this pile removed.
+	 * Index wrapping follows {@link Pile#pickCardAt(int)}.
+	 *
+	 * @param index - index of the card to be removed
+	 * @return a pile with the card at the specified position in this pile removed
+	 * @throws IndexOutOfBoundsException if this pile is empty {@code (size() == 0)}
+	 */
+	public PersistentPile withoutCardAt(int index) {
+		if (root == null) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length 0");
+		}
+		index = wrapIndex(index, false);
+		return wrap(merge(lowest(root, index), highest(root, index + 1)));
+	}
+
+	/**
+	 * Returns a pile with the specified quantity of cards removed from the top of this pile.
+	 * If the specified quantity is greater than or equal to the size of this pile, the empty pile is returned.
+	 *
+	 * @param quantity - number of cards to remove
+	 * @return a pile with the specified quantity of cards removed from the top of this pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 */
+	public PersistentPile withoutCards(int quantity) {
+		checkQuantity(quantity);
+		return wrap(lowest(root, Math.max(0, size() - quantity)));
+	}
+
+	/**
+	 * Returns a pile with the specified quantity of cards removed from the specified position in this pile.
+	 * Index wrapping and truncation follow {@link Pile#pickCardsAt(int, int)}.
+	 *
+	 * @param index - index of the first card to be removed
+	 * @param quantity - number of cards to remove
+	 * @return a pile with the specified quantity of cards removed from the specified position in this pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 */
+	public PersistentPile withoutCardsAt(int index, int quantity) {
+		checkQuantity(quantity);
+		index = wrapIndex(index, false);
+		int to = (int) Math.min(size(), (long) index + quantity);
+		return wrap(merge(lowest(root, index), highest(root, to)));
+	}
+
+
+	// Pile conversion
+
+	/**
+	 * Returns a list of the cards in this pile, in the same order.
+	 * This takes linear time.
+	 *
+	 * @return a new list of the cards in this pile
+	 */
+	public List<Card> toList() {
+		List<Card> cards = new ArrayList<>(size());
+		// Traverse in order with an explicit stack, since the depth is only expected to be logarithmic
+		Node[] stack = new Node[Math.max(1, 4 * (32 - Integer.numberOfLeadingZeros(size())) + 8)];
+		int depth = 0;
+		Node node = root;
+		while (node != null || depth > 0) {
+			while (node != null) {
+				if (depth == stack.length) {
+					stack = Arrays.copyOf(stack, depth * 2);
+				}
+				stack[depth++] = node;
+				node = node.left;
+			}
+			node = stack[--depth];
+			cards.add(node.card);
+			node = node.right;
+		}
+		return cards;
+	}
+
+	/**
+	 * Returns a new mutable pile containing the cards in this pile, in the same order, backed by an {@link ArrayList}.
+	 * This takes linear time.
+	 *
+	 * @return a new mutable pile containing the cards in this pile
+	 */
+	public Pile toPile() {
+		return toPile(PileStorage.ARRAY);
+	}
+
+	/**
+	 * Returns a new mutable pile containing the cards in this pile, in the same order, backed by the specified kind of storage.
+	 * This takes linear time.
+	 *
+	 * @param storage - the kind of list to be wrapped by the returned pile
+	 * @return a new mutable pile containing the cards in this pile
+	 */
+	public Pile toPile(PileStorage storage) {
+		return new Pile(toList(), storage);
+	}
+
+
+	// Argument checking
+
+	/**
+	 * Throws an exception if the specified quantity is negative.
+	 *
+	 * @param quantity - quantity to be checked
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 */
+	private static void checkQuantity(int quantity) {
+		if (quantity < 0) {
+			throw new IllegalArgumentException("Negative quantity: " + quantity);
+		}
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the number of cards in this pile.
+	 *
+	 * @return the number of cards in this pile
+	 */
+	public int size() {
+		return sizeOf(root);
+	}
+
+
+	// Overrides
+
+	/**
+	 * Returns a string representation of this pile, in the same format as {@link Pile#toString()}.
+	 *
+	 * @return a string representation of this pile
+	 */
+	@Override
+	public String toString() {
+		return toPile().toString();
+	}
+
+}
@@ -1,22 +1,54 @@
 package io.github.martindes01.pickcard;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 // TODO simplify index checking, see https://stackoverflow.com/questions/12099721/how-to-use-sublist
 
 // TODO javadoc
 public class Pile {
 	
+	// Constants
+	
+	/**
+	 * The size of a collection of cards above which {@link #containsCards(Collection)} builds a bitmask of this pile rather than searching it once per card.
+	 */
+	private static final int BULK_THRESHOLD = 8;
+	
+	
 	// Fields
 	
 	/**
-	 * The {@link ArrayList} of {@link Card} objects wrapped by this pile.
+	 * The {@link List} of {@link Card} objects wrapped by this pile.
 	 * This is a reference to a mutable object.
 	 */
-	private ArrayList<Card> cards;
+	private List<Card> cards;
+	
+	/**
+	 * The kind of list wrapped by this pile.
+	 * This is a reference to an immutable object.
+	 */
+	private final PileStorage storage;
+	
+	/**
+	 * The log of changes to this pile which may be undone, or {@code null} if this pile is not undoable.
+	 * This is a reference to a mutable object.
+	 */
+	private UndoLog history;
+	
+	/**
+	 * The number of times this pile has been changed through its methods, by which views of this pile detect changes.
+	 */
+	private int modCount;
 	
 	
 	// Constructors
@@ -25,7 +57,7 @@ public class Pile {
 	 * Constructs a new pile containing an empty {@link ArrayList}.
 	 */
 	public Pile() {
-		cards = new ArrayList<>();
+		this(PileStorage.ARRAY);
 	}
 	
 	/**
@@ -36,7 +68,89 @@ public class Pile {
 	 * @see Card
 	 */
 	public Pile(Collection<Card> collection) {
-		cards = new ArrayList<>(collection);
+		this(collection, PileStorage.ARRAY);
+	}
+	
+	/**
+	 * Constructs a new empty pile backed by the specified kind of storage.
+	 * 
+	 * @param storage - the kind of list to be wrapped by this pile
+	 * @see PileStorage
+	 */
+	public Pile(PileStorage storage) {
+		this(Collections.emptyList(), storage);
+	}
+	
+	/**
+	 * Constructs a new pile containing the specified {@link Collection} of {@link Card} objects, backed by the specified kind of storage.
+	 * 
+	 * @param collection - the collection of cards to be wrapped by this pile
+	 * @param storage - the kind of list to be wrapped by this pile
+	 * @see PileStorage
+	 */
+	public Pile(Collection<Card> collection, PileStorage storage) {
+		this.cards = storage.newList(collection);
+		this.storage = storage;
+	}
+	
+	
+	// Factories
+	
+	/**
+	 * Returns a new standard deck of 52 cards, face down, ordered by suit and then by rank, backed by an {@link ArrayList}.
+	 * 
+	 * @return a new standard deck
+	 * @see DeckType#STANDARD
+	 */
+	public static Pile standardDeck() {
+		return deck(DeckType.STANDARD);
+	}
+	
+	/**
+	 * Returns a new deck of the specified kind, face down, ordered by suit and then by rank, backed by an {@link ArrayList}.
+	 * The cards are copied in bulk from a precomputed template.
+	 * 
+	 * @param type - the kind of deck
+	 * @return a new deck of the specified kind
+	 */
+	public static Pile deck(DeckType type) {
+		return new Pile(type.getCards());
+	}
+	
+	/**
+	 * Returns a new shoe of the specified number of standard decks, face down and in order, backed by an {@link ArrayList} once materialised.
+	 * 
+	 * @param decks - the number of decks in the shoe
+	 * @return a new shoe of the specified number of standard decks
+	 * @throws IllegalArgumentException if {@code decks} is negative, or the shoe would hold more than {@link Integer#MAX_VALUE} cards
+	 * @see #shoe(DeckType, int, PileStorage)
+	 */
+	public static Pile shoe(int decks) {
+		return shoe(DeckType.STANDARD, decks, PileStorage.ARRAY);
+	}
+	
+	/**
+	 * Returns a new shoe of the specified number of decks of the specified kind, face down and in order, backed by the specified kind of storage once materialised.
+	 * <p>
+	 * A new shoe stores no cards, so it is created in constant time, however many decks it holds.
+	 * Cards are materialised lazily from the template of the deck as they are read, and drawing from the top of the shoe, by {@link #pickCard()} or {@link #pickCards(int)}, keeps it lazy.
+	 * Shuffling a lazy shoe by the Fisher-Yates method is also lazy, and each card drawn afterwards takes one step of the shuffle, so a shuffled shoe of thousands of decks from which a few hands are dealt costs time proportional to the cards dealt.
+	 * An undoable shoe is shuffled eagerly, since its previous order must be recorded, so the shuffle materialises the whole shoe.
+	 * Any other change materialises the whole shoe into the specified kind of storage.
+	 * 
+	 * @param type - the kind of deck
+	 * @param decks - the number of decks in the shoe
+	 * @param storage - the kind of list to be wrapped by the shoe once materialised
+	 * @return a new shoe of the specified number of decks of the specified kind
+	 * @throws IllegalArgumentException if {@code decks} is negative, or the shoe would hold more than {@link Integer#MAX_VALUE} cards
+	 */
+	public static Pile shoe(DeckType type, int decks, PileStorage storage) {
+		if (decks < 0) {
+			throw new IllegalArgumentException("Negative number of decks: " + decks);
+		}
+		Pile pile = new Pile(storage);
+		pile.cards = new ShoeList(type.template(), decks, storage);
+		return pile;
 	}
 	
 	
@@ -55,7 +169,7 @@ public class Pile {
 	 * @param useSize - whether to use the size of this pile as its upper bound
 	 * @return the most relevant index within the bounds of this pile, inclusive 
 	 */
-	private int wrapIndex(int index, boolean useSize) {
+	int wrapIndex(int index, boolean useSize) {
 		// Store cards.size() as local variable to avoid multiple method calls
 		int size = cards.size();
 		if (size == 0) {
@@ -83,6 +197,20 @@ public class Pile {
 	}
 	
 	
+	/**
+	 * Returns a new pile containing the specified collection of cards, backed by the same kind of storage as this pile, indexed if this pile is indexed and keeping a face bitmap if this pile does.
+	 * 
+	 * @param collection - the collection of cards to be wrapped by the returned pile
+	 * @return a new pile containing the specified collection of cards
+	 */
+	private Pile derive(Collection<Card> collection) {
+		Pile pile = new Pile(collection, storage);
+		pile.setFaceBitmap(hasFaceBitmap());
+		pile.setIndexed(isIndexed());
+		return pile;
+	}
+	
+	
 	// Card addition
 	
 	/** 
@@ -92,7 +220,11 @@ public class Pile {
 	 * @return the new size of this pile 
 	 */
 	public int addCard(Card card) {
+		modCount++;
 		cards.add(card);
+		if (history != null) {
+			history.inserted(cards, cards.size() - 1, cards.size());
+		}
 		return cards.size();		
 	}
 	
@@ -110,8 +242,13 @@ public class Pile {
 	 * @see #wrapIndex(int, boolean)
 	 */
 	public int addCardAt(int index, Card card) {
+		modCount++;
 		// Prevent IndexOutOfBoundsException (index may be equal to size)
-		cards.add(wrapIndex(index, true), card);
+		index = wrapIndex(index, true);
+		cards.add(index, card);
+		if (history != null) {
+			history.inserted(cards, index, index + 1);
+		}
 		return cards.size();
 	}
 	
@@ -124,7 +261,12 @@ public class Pile {
 	public int addCards(Collection<Card> collection) {
 		// Prevent NullPointerException (thrown if collection null)
 		if (collection != null) { 
+			modCount++;
+			int size = cards.size();
 			cards.addAll(collection); 
+			if (history != null) {
+				history.inserted(cards, size, cards.size());
+			}
 		} 
 		return cards.size();
 	}
@@ -145,8 +287,14 @@ public class Pile {
 	public int addCardsAt(int index, Collection<Card> collection) {
 		// Prevent NullPointerException (thrown if collection null)
 		if (collection != null) { 
+			modCount++;
 			// Prevent IndexOutOfBoundsException (index may be equal to size)
-			cards.addAll(wrapIndex(index, true), collection);
+			index = wrapIndex(index, true);
+			int size = cards.size();
+			cards.addAll(index, collection);
+			if (history != null) {
+				history.inserted(cards, index, index + cards.size() - size);
+			}
 		} 
 		return cards.size();
 	}
@@ -167,6 +315,9 @@ public class Pile {
 	/**
 	 * Returns {@code true} if this pile contains at least one of each of the cards in the specified collection.
 	 * Returns {@code false} if the specified collection is {@code null}.
+	 * <p>
+	 * Cards are compared by value.
+	 * A large collection is tested against a bitmask of the cards in this pile, built in a single pass, so the call takes time linear in the sizes of this pile and the collection.
 	 * 
 	 * @param collection - collection whose cards are to be checked for containment in this pile
 	 * @return {@code true} if this pile contains at least one of each of the cards in the specified collection
@@ -174,7 +325,11 @@ public class Pile {
 	public boolean containsCards(Collection<Card> collection) {
 		// Prevent NullPointerException (thrown if collection null)
 		if (collection != null) {
-			return cards.containsAll(collection);
+			if (collection.size() > BULK_THRESHOLD && !(cards instanceof IndexedList)) {
+				return CardMask.of(cards).containsAll(collection);
+			} else {
+				return cards.containsAll(collection);
+			}
 		} else {
 			// Return false if collection null
 			return false;			
@@ -193,13 +348,16 @@ public class Pile {
 	 * @return {@code true} if this pile changed as a result of the call
 	 */
 	public boolean deleteAllOfType(Card card) {
-		return cards.removeAll(Collections.singleton(card));
+		return deleteAllOfTypes(Collections.singleton(card));
 	}
 	
 	/**
 	 * Deletes from this pile all of its cards that appear at least once in the specified collection.
 	 * If this pile does not contain any of the cards, it is unchanged.
 	 * Returns {@code true} if this pile changed as a result of the call. 
+	 * <p>
+	 * Cards are compared by value.
+	 * The specified collection is reduced to a bitmask, and this pile is compacted in a single pass, so the call takes time linear in the sizes of this pile and the collection, whatever the kind of storage.
 	 * 
 	 * @param collection - collection containing cards to be deleted from this pile, if present
 	 * @return {@code true} if this pile changed as a result of the call
@@ -207,7 +365,22 @@ public class Pile {
 	public boolean deleteAllOfTypes(Collection<Card> collection) {
 		// Prevent NullPointerException (thrown if collection null)
 		if (collection != null) {
-			return cards.removeAll(collection);
+			// Record the previous order, since the deleted cards may be anywhere in this pile
+			Card[] previous = history != null ? cards.toArray(new Card[0]) : null;
+			boolean changed;
+			if (cards instanceof IndexedList) {
+				// Keep the index consistent
+				changed = cards.removeAll(collection);
+			} else {
+				changed = CardMask.of(collection).removeFrom(cards);
+			}
+			if (changed) {
+				modCount++;
+				if (history != null) {
+					history.replaced(previous);
+				}
+			}
+			return changed;
 		} else {			
 			// Return false if collection null
 			return false;
@@ -226,7 +399,11 @@ public class Pile {
 		int lastIndex = cards.lastIndexOf(card);
 		// Prevent IndexOutOfBoundsException
 		if (lastIndex != -1) {
-			cards.remove(lastIndex);
+			modCount++;
+			Card removed = cards.remove(lastIndex);
+			if (history != null) {
+				history.removed(lastIndex, removed);
+			}
 			return true;
 		} else {
 			// Return false if card not present
@@ -243,19 +420,32 @@ public class Pile {
 	 * @return {@code true} if this pile changed as a result of the call
 	 */
 	public boolean deleteLowestOfType(Card card) {
-		return cards.remove(card);
+		if (history != null) {
+			int index = cards.indexOf(card);
+			// Prevent IndexOutOfBoundsException
+			if (index != -1) {
+				modCount++;
+				history.removed(index, cards.remove(index));
+				return true;
+			} else {
+				// Return false if card not present
+				return false;
+			}
+		}
+		if (cards.remove(card)) {
+			modCount++;
+			return true;
+		}
+		return false;
 	}
 	
 	
 	// Card identification
 	
 	/**
-	 * Returns a reference to the card at the top of this pile.
-	 * Changes to the returned card are reflected in this pile, and vice-versa.
-	 * <p>
-	 * A deep copy of the returned card can be obtained by calling {@link Card#copy()} on the returned card.
+	 * Returns the card at the top of this pile.
 	 * 
-	 * @return a reference to the card at the top of this pile
+	 * @return the card at the top of this pile
 	 * @throws IndexOutOfBoundsException if this pile is empty {@code (size() == 0)}
 	 */
 	public Card getCard() {
@@ -263,17 +453,14 @@ public class Pile {
 	}
 	
 	/**
-	 * Returns a reference to the card at the specified position in this pile.
-	 * Changes to the returned card are reflected in this pile, and vice-versa.
+	 * Returns the card at the specified position in this pile.
 	 * <p>
 	 * An index greater than or equal to the size of this pile returns the top card.
 	 * An index less than or equal to the negative of the size of this pile returns the bottom card.
 	 * Any other negative index specifies the position from the top of this pile.
-	 * <p>
-	 * A deep copy of the returned card can be obtained by calling {@link Card#copy()} on the returned card.
 	 * 
 	 * @param index - index of the card to return
-	 * @return a reference to the card at the specified position in this pile
+	 * @return the card at the specified position in this pile
 	 * @throws IndexOutOfBoundsException if this pile is empty {@code (size() == 0)}
 	 * @see #wrapIndex(int, boolean)
 	 */
@@ -283,42 +470,38 @@ public class Pile {
 	}
 		
 	/**
-	 * Returns a pile containing references to the specified quantity of cards from the top of this pile.
-	 * Non-structural changes in the returned pile are reflected in this pile, and vice-versa.
-	 * If the specified quantity is greater than or equal to the size of this pile, a copy of this pile is returned.
-	 * <p>
-	 * A deep copy of the returned pile can be obtained by calling {@link #copy()} on the returned pile.
+	 * Returns a new pile holding the specified quantity of cards from the top of this pile, or a copy of this pile if the specified quantity is greater than or equal to its size.
+	 * This pile is unchanged, and the returned pile is independent of it, so changes to either are not reflected in the other.
+	 * The cards are copied into the returned pile; to inspect them without copying, use {@link #viewCards(int)}.
 	 * 
 	 * @param quantity - number of cards to return
-	 * @return a pile containing references to the specified quantity of cards from the top of this pile
+	 * @return a new pile holding the specified quantity of cards from the top of this pile
 	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
 	 */
 	public Pile getCards(int quantity) {
 		// Store cards.size() as local variable to avoid multiple method calls
 		int size = cards.size();
 		if (quantity < size) {
-			return new Pile(cards.subList(size - quantity, size));
+			return derive(cards.subList(size - quantity, size));
 		} else {
 			// Return copy if quantity greater than or equal to size
-			return this;
+			return derive(cards);
 		}
 	}
 	
 	/**
-	 * Returns a pile containing references to the specified quantity of cards from the specified position in this pile.
-	 * This pile is unchanged.
-	 * Non-structural changes in the returned pile are reflected in this pile, and vice-versa.
+	 * Returns a new pile holding the specified quantity of cards from the specified position in this pile.
+	 * This pile is unchanged, and the returned pile is independent of it, so changes to either are not reflected in the other.
 	 * If the sum of the specified index and quantity is greater than or equal to the size of this pile, the card at the specified index and all cards above it are returned.
 	 * <p>
 	 * An index greater than or equal to the size of this pile returns the top card.
 	 * An index less than or equal to the negative of the size of this pile returns the specified quantity of cards from the bottom of this pile.
 	 * Any other negative index specifies the position from the top of this pile.
-	 * <p>
-	 * A deep copy of the returned pile can be obtained by calling {@link #copy()} on the returned pile.
+	 * The cards are copied into the returned pile; to inspect them without copying, use {@link #viewCardsAt(int, int)}.
 	 * 
 	 * @param index - index of the first card to be returned
 	 * @param quantity - number of cards to return
-	 * @return a pile containing references to the specified quantity of cards from the specified position in this pile
+	 * @return a new pile holding the specified quantity of cards from the specified position in this pile
 	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
 	 * @see #wrapIndex(int, boolean)
 	 */
@@ -330,7 +513,55 @@ public class Pile {
 		if (index + quantity > size) {
 			quantity = size - index;
 		}
-		return new Pile(cards.subList(index, index + quantity));
+		return derive(cards.subList(index, index + quantity));
+	}
+	
+	/**
+	 * Returns a read-only view of the specified quantity of cards from the top of this pile.
+	 * If the specified quantity is greater than or equal to the size of this pile, a view of the whole pile is returned.
+	 * <p>
+	 * The view copies no cards, so it is created in constant time.
+	 * It is valid only until this pile is next changed.
+	 * 
+	 * @param quantity - number of cards to view
+	 * @return a read-only view of the specified quantity of cards from the top of this pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 * @see PileView
+	 */
+	public PileView viewCards(int quantity) {
+		if (quantity < 0) {
+			throw new IllegalArgumentException("Negative quantity: " + quantity);
+		}
+		// Store cards.size() as local variable to avoid multiple method calls
+		int size = cards.size();
+		quantity = Math.min(quantity, size);
+		return new PileView(this, size - quantity, quantity);
+	}
+	
+	/**
+	 * Returns a read-only view of the specified quantity of cards from the specified position in this pile.
+	 * If the sum of the specified index and quantity is greater than or equal to the size of this pile, the card at the specified index and all cards above it are viewed.
+	 * <p>
+	 * The view copies no cards, so it is created in constant time.
+	 * It is valid only until this pile is next changed.
+	 * Indices wrap as for {@link #getCardsAt(int, int)}.
+	 * 
+	 * @param index - index of the first card to be viewed
+	 * @param quantity - number of cards to view
+	 * @return a read-only view of the specified quantity of cards from the specified position in this pile
+	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
+	 * @see PileView
+	 * @see #wrapIndex(int, boolean)
+	 */
+	public PileView viewCardsAt(int index, int quantity) {
+		if (quantity < 0) {
+			throw new IllegalArgumentException("Negative quantity: " + quantity);
+		}
+		// Store cards.size() as local variable to avoid multiple method calls
+		int size = cards.size();
+		// Prevent IndexOutOfBoundsException
+		index = wrapIndex(index, false);
+		return new PileView(this, index, Math.min(quantity, size - index));
 	}
 	
 	
@@ -360,7 +591,12 @@ public class Pile {
 	 */
 	public int highestIndexOf(Card card, int fromIndex) {
 		// Prevent IndexOutOfBoundsException (index may be equal to size)
-		return cards.subList(0, wrapIndex(fromIndex, true)).lastIndexOf(card);
+		int toIndex = wrapIndex(fromIndex, true);
+		if (cards instanceof IndexedList) {
+			return ((IndexedList) cards).lastIndexOf(card, toIndex);
+		} else {
+			return cards.subList(0, toIndex).lastIndexOf(card);
+		}
 	}
 	
 	/**
@@ -387,7 +623,14 @@ public class Pile {
 	 */
 	public int lowestIndexOf(Card card, int fromIndex) { 
 		// Prevent IndexOutOfBoundsException (index may be equal to size)
-		return cards.subList(wrapIndex(fromIndex, true), cards.size()).indexOf(card);
+		fromIndex = wrapIndex(fromIndex, true);
+		if (cards instanceof IndexedList) {
+			return ((IndexedList) cards).indexOf(card, fromIndex);
+		} else {
+			// Offset the index within the sublist to an index within this pile
+			int index = cards.subList(fromIndex, cards.size()).indexOf(card);
+			return index != -1 ? fromIndex + index : -1;
+		}
 	}
 	
 	
@@ -402,7 +645,13 @@ public class Pile {
 	 * @throws IndexOutOfBoundsException if this pile is empty {@code (size() == 0)}
 	 */
 	public Card pickCard() {
-		return cards.remove(cards.size() - 1);
+		modCount++;
+		int index = cards.size() - 1;
+		Card card = cards.remove(index);
+		if (history != null) {
+			history.removed(index, card);
+		}
+		return card;
 	}
 	
 	/**
@@ -419,8 +668,14 @@ public class Pile {
 	 * @see #wrapIndex(int, boolean)
 	 */
 	public Card pickCardAt(int index) {
+		modCount++;
 		// Prevent IndexOutOfBoundsException
-		return cards.remove(wrapIndex(index, false));
+		index = wrapIndex(index, false);
+		Card card = cards.remove(index);
+		if (history != null) {
+			history.removed(index, card);
+		}
+		return card;
 	}
 	
 	/**
@@ -434,6 +689,7 @@ public class Pile {
 	 * @throws IllegalArgumentException if {@code quantity} is negative {@code (quantity < 0)}
 	 */
 	public Pile pickCards(int quantity) {
+		modCount++;
 		Pile pile;
 		// Store cards.size() as local variable to avoid multiple method calls
 		int size = cards.size();
@@ -441,11 +697,17 @@ public class Pile {
 		if (quantity < size) {
 			// Store cards.subList() as local variable to avoid multiple method calls
 			List<Card> subList = cards.subList(size - quantity, size);
-			pile = new Pile(subList);
+			pile = derive(subList);
+			if (history != null) {
+				history.removed(size - quantity, subList.toArray(new Card[0]));
+			}
 			subList.clear();
 		} else {
 			// Return copy and empty original if quantity greater than or equal to size
-			pile = new Pile(cards);
+			pile = derive(cards);
+			if (history != null) {
+				history.removed(0, cards.toArray(new Card[0]));
+			}
 			cards.clear();
 		}
 		return pile;
@@ -467,6 +729,7 @@ public class Pile {
 	 * @see #wrapIndex(int, boolean)
 	 */
 	public Pile pickCardsAt(int index, int quantity) {
+		modCount++;
 		Pile pile;
 		// Store cards.size() as local variable to avoid multiple method calls
 		int size = cards.size();
@@ -477,7 +740,10 @@ public class Pile {
 		}
 		// Store cards.subList() as local variable to avoid multiple method calls
 		List<Card> subList = cards.subList(index, index + quantity);
-		pile = new Pile(subList);
+		pile = derive(subList);
+		if (history != null) {
+			history.removed(index, subList.toArray(new Card[0]));
+		}
 		subList.clear();
 		return pile;
 	}
@@ -486,30 +752,160 @@ public class Pile {
 	// Pile copying
 		
 	/**
-	 * Returns a deep copy of this pile.
+	 * Returns a copy of this pile.
 	 * Null cards in this pile will be copied to the returned pile.
 	 * <p>
-	 * A pile contains an {@link ArrayList} of mutable {@link Card} objects.
-	 * Each card in this pile is copied and added to a new list.
-	 * A new pile is constructed from this list and returned.
-	 * Since a shallow copy of a card functions the same as a deep copy, the returned pile is a deep copy of this pile.
+	 * A pile contains a {@link List} of immutable, canonical {@link Card} objects.
+	 * Hence, a shallow copy of this pile functions the same as a deep copy, and no cards are copied.
 	 * Changes to the returned pile will not be reflected in this pile, nor will changes to this pile be reflected in the returned pile.
+	 * The returned pile is backed by the same kind of storage as this pile, and is indexed if this pile is indexed.
 	 * 
-	 * @return a deep copy of this instance of the {@code Pile} class
+	 * @return a copy of this instance of the {@code Pile} class
 	 * @see Card
-	 * @see Card#copy()
 	 */
 	public Pile copy() {
-		ArrayList<Card> copiedCards = new ArrayList<>(cards.size());
-		for (Card card : cards) {
-			// Prevent NullPointerException (thrown if card null)
-			if (card != null) {
-				copiedCards.add(card.copy());
+		return derive(cards);
+	}
+
+	/**
+	 * Returns an immutable snapshot of this pile.
+	 * <p>
+	 * Taking the snapshot takes linear time, but the snapshot and every pile derived from it share structure, so further snapshots and changes to them take constant and logarithmic time respectively.
+	 * Hence, a search which explores many variations of one pile should take one snapshot and derive each variation from it, rather than copy this pile for each variation.
+	 * Use {@link PersistentPile#toPile()} to convert a snapshot back to a mutable pile.
+	 *
+	 * @return an immutable snapshot of this pile
+	 * @see PersistentPile
+	 */
+	public PersistentPile snapshot() {
+		return PersistentPile.of(this);
+	}
+
+	
+	// Pile indexing
+	
+	/**
+	 * Sets whether this pile maintains a position index of its cards.
+	 * <p>
+	 * The index counts the occurrences of each combination of suit, rank and face visibility, and records their positions.
+	 * An indexed pile tests whether it contains cards in constant time, and locates the uppermost or lowermost occurrence of a card in constant time, or logarithmic time from a specified index.
+	 * Cards added to or removed from the top of an indexed pile update the index in constant time.
+	 * Any other change to the order of the cards rebuilds the positions in linear time when next they are needed, so the index suits large piles which are searched more often than they are rearranged, such as multi-deck shoes.
+	 * Deleting all occurrences of one or more cards takes linear time, however many cards are specified.
+	 * 
+	 * @param indexed - whether this pile should maintain a position index of its cards
+	 * @see #isIndexed()
+	 */
+	public void setIndexed(boolean indexed) {
+		if (indexed && !(cards instanceof IndexedList)) {
+			cards = new IndexedList(cards);
+		} else if (!indexed && cards instanceof IndexedList) {
+			cards = ((IndexedList) cards).unwrap();
+		}
+	}
+	
+	
+	// Face bitmap
+	
+	/**
+	 * Sets whether this pile keeps the face visibility of its cards in a bitmap beside its storage.
+	 * <p>
+	 * The bitmap holds one bit per card, so setting or toggling the face visibility of every card, and counting face up cards, operate on 64 cards at a time rather than reading and writing each card.
+	 * Cards added to or removed from the top of the pile update the bitmap in constant time, but any other insertion or removal moves the bits above it in linear time.
+	 * If this pile is also indexed, the index must see every change, so setting or toggling the face visibility of every card reads and writes each card as it would without the bitmap.
+	 * 
+	 * @param bitmap - whether this pile should keep the face visibility of its cards in a bitmap
+	 * @see #hasFaceBitmap()
+	 */
+	public void setFaceBitmap(boolean bitmap) {
+		if (bitmap != hasFaceBitmap()) {
+			// Keep the index above the bitmap, so that the index sees the face visibility of each card
+			boolean indexed = isIndexed();
+			setIndexed(false);
+			if (bitmap) {
+				cards = new FaceBitmapList(cards);
 			} else {
-				copiedCards.add(null);
+				cards = ((FaceBitmapList) cards).unwrap();
 			}
+			setIndexed(indexed);
 		}
-		return new Pile(copiedCards);
+	}
+	
+	
+	// Pile history
+	
+	/**
+	 * Sets whether this pile records its changes so that they may be undone.
+	 * <p>
+	 * An undoable pile records the inverse of each change made through its methods, so that {@link #rollback(int)} undoes changes in time proportional to the number of cards they moved, rather than to the size of this pile.
+	 * Adding or removing cards records the cards added or removed, and reversing or toggling the face visibility of this pile records nothing more.
+	 * Shuffling, sorting, setting the face visibility of and deleting all occurrences of cards from this pile records its previous order.
+	 * Hence, an undoable shoe is shuffled eagerly rather than lazily, materialising the whole shoe.
+	 * Changes made through the list returned by {@link #getList()} are not recorded.
+	 * <p>
+	 * Changes are recorded until this pile is made not undoable, which discards them.
+	 * Hence, a pile should be made undoable only while changes to it may need to be undone, such as for the duration of a search, or the history should be discarded periodically by making the pile not undoable and undoable again.
+	 * 
+	 * @param undoable - whether this pile should record its changes so that they may be undone
+	 * @see #mark()
+	 */
+	public void setUndoable(boolean undoable) {
+		if (undoable && history == null) {
+			history = new UndoLog();
+		} else if (!undoable) {
+			history = null;
+		}
+	}
+	
+	/**
+	 * Returns a mark identifying the current state of this pile, to which it may be rolled back by {@link #rollback(int)}.
+	 * 
+	 * @return a mark identifying the current state of this pile
+	 * @throws IllegalStateException if this pile is not undoable
+	 * @see #setUndoable(boolean)
+	 */
+	public int mark() {
+		return checkHistory().mark();
+	}
+	
+	/**
+	 * Undoes the changes made to this pile since the specified mark was returned, most recent first.
+	 * The undone changes may be redone by {@link #redo()} until another change is made to this pile.
+	 * <p>
+	 * A mark remains valid while the changes made before it are not undone, so a search may roll back to the same mark repeatedly, or to the marks of its enclosing levels.
+	 * 
+	 * @param mark - a mark returned by {@link #mark()}
+	 * @throws IllegalStateException if this pile is not undoable
+	 * @throws IllegalArgumentException if the mark is no longer valid
+	 */
+	public void rollback(int mark) {
+		modCount++;
+		checkHistory().rollback(cards, mark);
+	}
+	
+	/**
+	 * Redoes the changes undone by the most recent call to {@link #rollback(int)} which has not been redone.
+	 * Returns {@code false}, and this pile is unchanged, if there is no such rollback, or if this pile has been changed since.
+	 * 
+	 * @return {@code true} if this pile changed as a result of the call
+	 * @throws IllegalStateException if this pile is not undoable
+	 */
+	public boolean redo() {
+		modCount++;
+		return checkHistory().redo(cards);
+	}
+	
+	/**
+	 * Returns the log of changes to this pile.
+	 * 
+	 * @return the log of changes to this pile
+	 * @throws IllegalStateException if this pile is not undoable
+	 */
+	private UndoLog checkHistory() {
+		if (history == null) {
+			throw new IllegalStateException("Pile is not undoable");
+		}
+		return history;
 	}
 	
 	
@@ -521,7 +917,30 @@ public class Pile {
 	 * @see Collections#reverse(java.util.List)
 	 */
 	public void reverse() {
+		modCount++;
 		Collections.reverse(cards);
+		if (history != null) {
+			history.reversed();
+		}
+	}
+
+	/**
+	 * Replaces the cards of this pile from the specified index upwards with the specified cards, in order.
+	 * The number of cards in this pile is unchanged, and the change is recorded like any other.
+	 * 
+	 * @param index - the index of the lowest card to be replaced
+	 * @param replacements - the cards to be placed from the index upwards
+	 * @throws IndexOutOfBoundsException if the replacements do not fit in this pile from the index {@code (index < 0 || index + replacements.length > size())}
+	 */
+	void replaceCards(int index, Card[] replacements) {
+		Objects.checkFromIndexSize(index, replacements.length, cards.size());
+		modCount++;
+		if (history != null) {
+			history.replaced(cards.toArray(new Card[0]));
+		}
+		for (int i = 0; i < replacements.length; i++) {
+			cards.set(index + i, replacements[i]);
+		}
 	}
 
 	/**
@@ -530,23 +949,86 @@ public class Pile {
 	 * @param faceUp - whether the faces of the cards in this pile should be visible  
 	 */
 	public void setFaceUp(boolean faceUp) {
-		for (Card card : cards) {
+		modCount++;
+		if (history != null) {
+			history.replaced(cards.toArray(new Card[0]));
+		}
+		if (cards instanceof FaceBitmapList) {
+			((FaceBitmapList) cards).setFaceUp(0, cards.size(), faceUp);
+			return;
+		}
+		for (ListIterator<Card> iterator = cards.listIterator(); iterator.hasNext(); ) {
+			Card card = iterator.next();
 			// Prevent NullPointerException (thrown if card null)
 			if (card != null) {
-				card.setFaceUp(faceUp);
+				iterator.set(card.withFaceUp(faceUp));
 			}
 		}
 	}
 	
 	/**
 	 * Shuffles this pile.
-	 * Randomly permutes this pile using a default source of randomness.
+	 * Randomly permutes this pile using the source of randomness of the current thread.
 	 * All permutations occur with approximately equal likelihood.
 	 * 
-	 * @see Collections#shuffle(java.util.List)
+	 * @see ShuffleMode#FISHER_YATES
+	 * @see ThreadLocalRandom#current()
 	 */
 	public void shuffle() {
-		Collections.shuffle(cards);
+		shuffle(ShuffleMode.FISHER_YATES, ThreadLocalRandom.current());
+	}
+	
+	/**
+	 * Shuffles this pile using the specified source of randomness.
+	 * All permutations occur with approximately equal likelihood.
+	 * The shuffle is reproducible if the source of randomness is seeded.
+	 * 
+	 * @param random - the source of randomness
+	 * @see ShuffleMode#FISHER_YATES
+	 */
+	public void shuffle(RandomGenerator random) {
+		shuffle(ShuffleMode.FISHER_YATES, random);
+	}
+	
+	/**
+	 * Shuffles this pile by the specified method using the specified source of randomness.
+	 * The shuffle is reproducible if the source of randomness is seeded.
+	 * 
+	 * @param mode - the method of shuffling
+	 * @param random - the source of randomness
+	 * @see ShuffleMode
+	 */
+	public void shuffle(ShuffleMode mode, RandomGenerator random) {
+		modCount++;
+		if (history != null) {
+			history.replaced(cards.toArray(new Card[0]));
+		}
+		if (history == null && mode == ShuffleMode.FISHER_YATES && cards instanceof ShoeList && ((ShoeList) cards).shuffle(random)) {
+			// Shuffled lazily as cards are drawn, unless the previous order has been recorded
+			return;
+		}
+		mode.shuffle(cards, random);
+	}
+	
+	/**
+	 * Returns the number of face up cards in this pile.
+	 * Null cards are not counted.
+	 * 
+	 * @return the number of face up cards in this pile
+	 * @see #setFaceBitmap(boolean)
+	 */
+	public int countFaceUp() {
+		if (cards instanceof FaceBitmapList) {
+			return ((FaceBitmapList) cards).countFaceUp(0, cards.size());
+		}
+		int count = 0;
+		for (Card card : cards) {
+			// Prevent NullPointerException (thrown if card null)
+			if (card != null && card.isFaceUp()) {
+				count++;
+			}
+		}
+		return count;
 	}
 	
 	/**
@@ -561,13 +1043,33 @@ public class Pile {
 	/**
 	 * Sorts this pile according to the order induced by the specified comparator.
 	 * This sort is guaranteed to be stable: equal cards will not be reordered as a result of the sort. 
+	 * <p>
+	 * Since there are only 52 card types, this pile is sorted in linear time by counting the sort keys of its cards.
 	 * 
 	 * @param comparator - the comparator to determine the order of the pile
-	 * @see Collections#sort(java.util.List, java.util.Comparator) 
-	 * @see CardComparator
+	 * @see CardComparator#getKey(Card)
 	 */
 	public void sort(CardComparator comparator) {
-		Collections.sort(cards, comparator.getComparator());
+		modCount++;
+		// Count the cards with each key, where null cards have key 0
+		int[] starts = new int[Suit.values().length * Rank.values().length + 2];
+		for (Card card : cards) {
+			starts[comparator.getKey(card) + 1]++;
+		}
+		for (int key = 1; key < starts.length; key++) {
+			starts[key] += starts[key - 1];
+		}
+		// Place each card after the cards with lower keys and the earlier cards with the same key
+		Card[] sorted = new Card[cards.size()];
+		for (Card card : cards) {
+			sorted[starts[comparator.getKey(card)]++] = card;
+		}
+		if (history != null) {
+			history.replaced(cards.toArray(new Card[0]));
+		}
+		for (int i = 0; i < sorted.length; i++) {
+			cards.set(i, sorted[i]);
+		}
 	}
 	
 	/**
@@ -575,12 +1077,92 @@ public class Pile {
 	 * Cards that are face up will be turned face down, and cards that are face down will be turned face up. 
 	 */
 	public void toggleFaceUp() {
-		for (Card card : cards) {
-			// Prevent NullPointerException (thrown if card null)
-			if (card != null) {
-				card.setFaceUp(!card.isFaceUp());
+		modCount++;
+		if (cards instanceof FaceBitmapList) {
+			((FaceBitmapList) cards).toggleFaceUp(0, cards.size());
+		} else {
+			for (ListIterator<Card> iterator = cards.listIterator(); iterator.hasNext(); ) {
+				Card card = iterator.next();
+				// Prevent NullPointerException (thrown if card null)
+				if (card != null) {
+					iterator.set(card.withFaceToggled());
+				}
 			}
 		}
+		if (history != null) {
+			history.toggled();
+		}
+	}
+	
+	
+	// Binary encoding
+	
+	/**
+	 * Returns the number of bytes written by {@link #writeTo(ByteBuffer)}.
+	 * 
+	 * @return the number of bytes in the binary encoding of this pile
+	 */
+	public int encodedSize() {
+		return PileCodec.encodedSize(cards.size());
+	}
+	
+	/**
+	 * Writes the binary encoding of this pile at the position of the specified buffer, and advances the position past it.
+	 * <p>
+	 * The encoding consists of a one byte format version and the number of cards as a four byte big-endian integer, followed by one byte per card from the bottom of this pile to the top.
+	 * Each card is encoded as {@code (suit * 13 + rank) << 1 | faceUp}, where {@code suit} and {@code rank} are ordinals, and a {@code null} card is encoded as {@code -1}.
+	 * No objects are allocated, and any kind of buffer may be used, including direct buffers to be written by a {@link java.nio.channels.GatheringByteChannel}, such as a file or socket channel.
+	 * 
+	 * @param buffer - the buffer to which this pile is to be written
+	 * @throws java.nio.BufferOverflowException if the buffer has fewer than {@link #encodedSize()} bytes remaining, in which case it is unchanged
+	 * @throws java.nio.ReadOnlyBufferException if the buffer is read-only
+	 * @see #readFrom(ByteBuffer)
+	 */
+	public void writeTo(ByteBuffer buffer) {
+		// Store cards.size() as local variable to avoid multiple method calls
+		int size = cards.size();
+		int position = PileCodec.writeHeader(buffer, size);
+		for (int i = 0; i < size; i++) {
+			buffer.put(position + i, PackedPile.encode(cards.get(i)));
+		}
+		buffer.position(position + size);
+	}
+	
+	/**
+	 * Reads a pile from its binary encoding at the position of the specified buffer, and advances the position past it.
+	 * The returned pile is backed by an {@link ArrayList}.
+	 * 
+	 * @param buffer - the buffer from which a pile is to be read
+	 * @return the pile read from the specified buffer
+	 * @throws java.nio.BufferUnderflowException if the buffer does not contain a whole encoded pile, in which case it is unchanged
+	 * @throws IllegalArgumentException if the encoding is invalid, in which case the buffer is unchanged
+	 * @see #writeTo(ByteBuffer)
+	 */
+	public static Pile readFrom(ByteBuffer buffer) {
+		return readFrom(buffer, PileStorage.ARRAY);
+	}
+	
+	/**
+	 * Reads a pile from its binary encoding at the position of the specified buffer, and advances the position past it.
+	 * The returned pile is backed by the specified kind of storage.
+	 * Cards are decoded to their canonical instances, so no card objects are allocated.
+	 * 
+	 * @param buffer - the buffer from which a pile is to be read
+	 * @param storage - the kind of list to be wrapped by the returned pile
+	 * @return the pile read from the specified buffer
+	 * @throws java.nio.BufferUnderflowException if the buffer does not contain a whole encoded pile, in which case it is unchanged
+	 * @throws IllegalArgumentException if the encoding is invalid, in which case the buffer is unchanged
+	 * @see #writeTo(ByteBuffer)
+	 */
+	public static Pile readFrom(ByteBuffer buffer, PileStorage storage) {
+		int size = PileCodec.readHeader(buffer);
+		int position = buffer.position() + PileCodec.HEADER_SIZE;
+		Pile pile = new Pile(storage);
+		for (int i = 0; i < size; i++) {
+			pile.cards.add(PackedPile.decode(PileCodec.checkCode(buffer.get(position + i))));
+		}
+		buffer.position(position + size);
+		return pile;
 	}
 	
 	
@@ -594,44 +1176,152 @@ public class Pile {
 	 * 
 	 * @return a string representation of this pile.
 	 * @see Card#toString()
+	 * @see #writeTo(Appendable)
 	 */
 	@Override
 	public String toString() {
-		String str = "Pile of " + cards.size() + " card";
+		// Clamp the capacity hint, which overflows for very large piles
+		StringBuilder builder = new StringBuilder((int) Math.min(Integer.MAX_VALUE - 8, 16 + 48L * cards.size()));
+		try {
+			writeTo(builder);
+		} catch (IOException e) {
+			// StringBuilder does not throw IOException
+			throw new UncheckedIOException(e);
+		}
+		return builder.toString();
+	}
+	
+	
+	// Rendering
+	
+	/**
+	 * Writes the verbose string representation of this pile to the specified appendable.
+	 * This is the string returned by {@link #toString()}.
+	 * 
+	 * @param out - the appendable to which this pile is to be written
+	 * @throws IOException if an I/O error occurs
+	 * @see CardFormat#VERBOSE
+	 */
+	public void writeTo(Appendable out) throws IOException {
+		writeTo(out, CardFormat.VERBOSE);
+	}
+	
+	/**
+	 * Writes the string representation of this pile in the specified format to the specified appendable.
+	 * The representation starts with the number of cards in this pile, followed by each card from top to bottom.
+	 * <p>
+	 * Each card is rendered into a single reused line buffer and appended to the appendable, so writing takes time linear in the size of this pile and no formatter is used.
+	 * 
+	 * @param out - the appendable to which this pile is to be written
+	 * @param format - the format of the string representation
+	 * @throws IOException if an I/O error occurs
+	 * @see CardFormat
+	 */
+	public void writeTo(Appendable out, CardFormat format) throws IOException {
+		StringBuilder line = new StringBuilder(48);
 		// Store cards.size() as local variable to avoid multiple method calls
 		int size = cards.size();
+		line.append("Pile of ").append(size).append(" card");
 		// Handle empty, singular and plural cases
 		switch (size) {
 		case 0:
-			str += "s";
+			line.append('s');
 			break;
 		case 1:
-			str += ":";
+			line.append(':');
 			break;
 		default:
-			str += "s:";
+			line.append("s:");
 		}
-		// Print cards in reverse order
-		for (int i = size - 1; i >= 0; i-- ) {
-			if (cards.get(i) != null) {
-				str += String.format("\n  %7d   :\t%s", i, cards.get(i).toString());
+		out.append(line);
+		// Write cards in reverse order
+		for (int i = size - 1; i >= 0; i--) {
+			line.setLength(0);
+			Card card = cards.get(i);
+			if (format == CardFormat.COMPACT) {
+				line.append(' ');
+				if (card != null) {
+					card.appendTo(line, format);
+				} else {
+					line.append("--");
+				}
 			} else {
-				str += String.format("\n  %7d   : %s", i, "( NULL )");
+				line.append("\n  ");
+				// Right-align index in 7 columns
+				for (int digits = String.valueOf(i).length(); digits < 7; digits++) {
+					line.append(' ');
+				}
+				line.append(i);
+				if (card != null) {
+					card.appendTo(line.append("   :\t"), format);
+				} else {
+					line.append("   : ( NULL )");
+				}
 			}
+			out.append(line);
 		}
-		return str;
 	}
 	
 	
 	// Getters
 	
 	/**
-	 * Exposes the {@link ArrayList} of {@link Card} objects wrapped by this instance of the {@link Pile} class.
+	 * Exposes the {@link List} of {@link Card} objects wrapped by this instance of the {@link Pile} class.
 	 * 
-	 * @return the {@code ArrayList} of {@code Card} objects wrapped by this instance of the {@code Pile} class 
+	 * @return the {@code List} of {@code Card} objects wrapped by this instance of the {@code Pile} class 
 	 */
-	public ArrayList<Card> getList() {
+	public List<Card> getList() {
 		return cards;
 	}
 	
+	/**
+	 * Returns the number of times this pile has been changed through its methods.
+	 * 
+	 * @return the modification count of this pile
+	 * @see PileView
+	 */
+	int modCount() {
+		return modCount;
+	}
+	
+	/**
+	 * Returns the kind of list wrapped by this pile.
+	 * 
+	 * @return the kind of list wrapped by this pile
+	 * @see PileStorage
+	 */
+	public PileStorage getStorage() {
+		return storage;
+	}
+	
+	/**
+	 * Returns {@code true} if this pile maintains a position index of its cards.
+	 * 
+	 * @return {@code true} if this pile maintains a position index of its cards
+	 * @see #setIndexed(boolean)
+	 */
+	public boolean isIndexed() {
+		return cards instanceof IndexedList;
+	}
+	
+	/**
+	 * Returns {@code true} if this pile keeps the face visibility of its cards in a bitmap.
+	 * 
+	 * @return {@code true} if this pile keeps the face visibility of its cards in a bitmap
+	 * @see #setFaceBitmap(boolean)
+	 */
+	public boolean hasFaceBitmap() {
+		return (cards instanceof IndexedList ? ((IndexedList) cards).unwrap() : cards) instanceof FaceBitmapList;
+	}
+	
+	/**
+	 * Returns {@code true} if this pile records its changes so that they may be undone.
+	 * 
+	 * @return {@code true} if this pile records its changes so that they may be undone
+	 * @see #setUndoable(boolean)
+	 */
+	public boolean isUndoable() {
+		return history != null;
+	}
+	
 }
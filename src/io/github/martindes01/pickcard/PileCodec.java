@@ -0,0 +1,126 @@
+package io.github.martindes01.pickcard;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * PileCodec defines the binary format of piles shared by {@link Pile} and {@link PackedPile}.
+ * <p>
+ * An encoded pile consists of a header followed by one byte per card, from the bottom of the pile to the top.
+ * The header consists of the format version, {@link #VERSION}, as a single byte, followed by the number of cards as a big-endian {@code int}.
+ * Each card is encoded as its code, {@code (suit * 13 + rank) << 1 | faceUp}, and a {@code null} card is encoded as {@link PackedPile#NULL}.
+ * <p>
+ * Headers are read and written at absolute positions, and the position of a buffer is advanced only once a whole pile has been read or written.
+ * Hence, a buffer is left unchanged by a read or write which fails.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile#writeTo(ByteBuffer)
+ * @see Pile#readFrom(ByteBuffer)
+ * @since 1.1
+ */
+final class PileCodec {
+
+	// Constants
+
+	/**
+	 * The version of the binary format.
+	 */
+	static final byte VERSION = 1;
+
+	/**
+	 * The number of bytes in a header.
+	 */
+	static final int HEADER_SIZE = 1 + Integer.BYTES;
+
+	/**
+	 * The number of distinct card codes.
+	 */
+	private static final int CODES = 104;
+
+
+	// Constructors
+
+	/**
+	 * Prevents instantiation of this utility class.
+	 */
+	private PileCodec() {
+	}
+
+
+	// Encoding
+
+	/**
+	 * Returns the number of bytes in an encoded pile of the specified size.
+	 *
+	 * @param size - the number of cards in the pile
+	 * @return the number of bytes in an encoded pile of the specified size
+	 */
+	static int encodedSize(int size) {
+		return HEADER_SIZE + size;
+	}
+
+	/**
+	 * Writes the header of a pile of the specified size at the position of the specified buffer, without advancing it.
+	 *
+	 * @param buffer - the buffer to which the header is to be written
+	 * @param size - the number of cards in the pile
+	 * @return the position of the first card in the buffer
+	 * @throws BufferOverflowException if the buffer has insufficient space remaining for the whole pile
+	 */
+	static int writeHeader(ByteBuffer buffer, int size) {
+		if (buffer.remaining() < encodedSize(size)) {
+			throw new BufferOverflowException();
+		}
+		int position = buffer.position();
+		buffer.put(position, VERSION);
+		buffer.putInt(position + 1, size);
+		return position + HEADER_SIZE;
+	}
+
+
+	// Decoding
+
+	/**
+	 * Reads and checks the header of a pile at the position of the specified buffer, without advancing it.
+	 *
+	 * @param buffer - the buffer from which the header is to be read
+	 * @return the number of cards in the pile
+	 * @throws BufferUnderflowException if the buffer does not contain the whole pile
+	 * @throws IllegalArgumentException if the header has an unknown version or a negative size
+	 */
+	static int readHeader(ByteBuffer buffer) {
+		if (buffer.remaining() < HEADER_SIZE) {
+			throw new BufferUnderflowException();
+		}
+		int position = buffer.position();
+		byte version = buffer.get(position);
+		if (version != VERSION) {
+			throw new IllegalArgumentException("Unknown pile format version: " + version);
+		}
+		int size = buffer.getInt(position + 1);
+		if (size < 0) {
+			throw new IllegalArgumentException("Negative pile size: " + size);
+		}
+		if (buffer.remaining() - HEADER_SIZE < size) {
+			throw new BufferUnderflowException();
+		}
+		return size;
+	}
+
+	/**
+	 * Checks that the specified byte encodes a card or a {@code null} card.
+	 *
+	 * @param code - the byte to be checked
+	 * @return the specified byte
+	 * @throws IllegalArgumentException if the byte does not encode a card or a {@code null} card
+	 */
+	static byte checkCode(byte code) {
+		if ((code < 0 || code >= CODES) && code != PackedPile.NULL) {
+			throw new IllegalArgumentException("Invalid card code: " + code);
+		}
+		return code;
+	}
+
+}
@@ -0,0 +1,80 @@
+package io.github.martindes01.pickcard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * PileStorage is the public enumeration of the kinds of list which may back a {@link Pile}.
+ * <p>
+ * Each enum constant creates a list suited to a different pattern of access.
+ * All kinds of storage offer the same behaviour through {@code Pile}, including its index wrapping semantics.
+ * <p>
+ * The available enum constants are:
+ * <ul>
+ * <li>{@link #ARRAY}
+ * <li>{@link #GAP}
+ * <li>{@link #RING}
+ * </ul>
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile#Pile(PileStorage)
+ * @since 1.1
+ */
+public enum PileStorage {
+
+	/**
+	 * Stores cards in an {@link ArrayList}.
+	 * Insertion and removal take constant time at the top of a pile and linear time elsewhere.
+	 * This is the default storage.
+	 */
+	ARRAY {
+
+		@Override
+		List<Card> newList(Collection<Card> collection) {
+			return new ArrayList<>(collection);
+		}
+
+	},
+
+	/**
+	 * Stores cards in a gap buffer.
+	 * Insertion and removal take amortised constant time at or near the position of the previous insertion or removal, and time proportional to the distance from it elsewhere.
+	 * Suited to piles which are repeatedly cut and reassembled at similar depths, such as large shoes.
+	 */
+	GAP {
+
+		@Override
+		List<Card> newList(Collection<Card> collection) {
+			return new GapBufferList(collection);
+		}
+
+	},
+
+	/**
+	 * Stores cards in a circular array.
+	 * Insertion and removal take constant time at both the top and the bottom of a pile, and elsewhere move only the cards nearer to the closer end.
+	 * Suited to piles which are dealt from or added to at the bottom, such as recycled discard piles.
+	 */
+	RING {
+
+		@Override
+		List<Card> newList(Collection<Card> collection) {
+			return new RingBufferList(collection);
+		}
+
+	};
+
+
+	// List creation
+
+	/**
+	 * Returns a new list of this kind containing the specified collection of cards.
+	 *
+	 * @param collection - the collection of cards to be contained in the list
+	 * @return a new list of this kind containing the specified collection of cards
+	 */
+	abstract List<Card> newList(Collection<Card> collection);
+
+}
@@ -0,0 +1,137 @@
+package io.github.martindes01.pickcard;
+
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * PileView is a read-only window onto a range of the cards of a {@link Pile}.
+ * <p>
+ * A view stores no cards: each card is read directly from the storage of the pile, so creating a view takes constant time and copies nothing.
+ * Index {@code 0} is the bottom card of the window, as it is for a pile.
+ * <p>
+ * A view is valid only until its pile is next changed through the methods of the pile, after which any use of the view throws a {@link ConcurrentModificationException}.
+ * Changes made through the list returned by {@link Pile#getList()} are not detected.
+ * Every method which would change the view throws an {@link UnsupportedOperationException}.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile#viewCards(int)
+ * @see Pile#viewCardsAt(int, int)
+ * @since 1.1
+ */
+public final class PileView extends AbstractList<Card> implements RandomAccess {
+
+	// Fields
+
+	/**
+	 * The pile of which this is a view.
+	 */
+	private final Pile pile;
+
+	/**
+	 * The index in the pile of the bottom card of this view.
+	 */
+	private final int from;
+
+	/**
+	 * The number of cards in this view.
+	 */
+	private final int size;
+
+	/**
+	 * The modification count of the pile when this view was created.
+	 */
+	private final int expectedModCount;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new view of the specified number of cards of the specified pile, from the specified index upwards.
+	 *
+	 * @param pile - the pile of which this is a view
+	 * @param from - the index in the pile of the bottom card of this view
+	 * @param size - the number of cards in this view
+	 */
+	PileView(Pile pile, int from, int size) {
+		this.pile = pile;
+		this.from = from;
+		this.size = size;
+		this.expectedModCount = pile.modCount();
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Checks that the pile has not been changed since this view was created.
+	 *
+	 * @throws ConcurrentModificationException if the pile has been changed
+	 */
+	private void checkModCount() {
+		if (pile.modCount() != expectedModCount) {
+			throw new ConcurrentModificationException();
+		}
+	}
+
+
+	// Card identification
+
+	/**
+	 * Returns the card at the top of this view.
+	 *
+	 * @return the card at the top of this view
+	 * @throws IndexOutOfBoundsException if this view is empty {@code (size() == 0)}
+	 * @throws ConcurrentModificationException if the pile has been changed since this view was created
+	 */
+	public Card getCard() {
+		return get(size - 1);
+	}
+
+
+	// Pile copying
+
+	/**
+	 * Returns a new pile containing the cards of this view, backed by the same kind of storage as the pile of this view.
+	 * Changes to the returned pile are not reflected in the pile of this view, nor vice-versa.
+	 *
+	 * @return a new pile containing the cards of this view
+	 * @throws ConcurrentModificationException if the pile has been changed since this view was created
+	 */
+	public Pile toPile() {
+		checkModCount();
+		return new Pile(this, pile.getStorage());
+	}
+
+
+	// Overrides
+
+	/**
+	 * Returns the card at the specified position in this view.
+	 *
+	 * @param index - index of the card to return
+	 * @return the card at the specified position in this view
+	 * @throws IndexOutOfBoundsException if the index is out of range {@code (index < 0 || index >= size())}
+	 * @throws ConcurrentModificationException if the pile has been changed since this view was created
+	 */
+	@Override
+	public Card get(int index) {
+		checkModCount();
+		return pile.getList().get(from + Objects.checkIndex(index, size));
+	}
+
+	/**
+	 * Returns the number of cards in this view.
+	 *
+	 * @return the number of cards in this view
+	 * @throws ConcurrentModificationException if the pile has been changed since this view was created
+	 */
+	@Override
+	public int size() {
+		checkModCount();
+		return size;
+	}
+
+}
@@ -3,8 +3,9 @@ package io.github.martindes01.pickcard;
 /**
  * Rank is the public enumeration of card ranks.
  * <p>
- * Each enum constant encapsulates two fields.<br>
+ * Each enum constant encapsulates three fields.<br>
  * The {@code String} {@link #name} is returned using {@link #toString()}.<br>
+ * The {@code char} {@link #symbol} is returned using {@link #getSymbol()}.<br>
  * The {@code int} {@link #value} is returned using {@link #getValue()}. 
  * <p>
  * The available enum constants are:
@@ -35,105 +36,118 @@ public enum Rank {
 	 * {@link Rank}{@code .values()[0]}
 	 * <p>
 	 * {@code name : "Two"}<br>
+	 * {@code symbol : '2'}<br>
 	 * {@code value : 2}
 	 */
-	TWO("Two", 2),
+	TWO("Two", '2', 2),
 	
 	/**
 	 * {@link Rank}{@code .values()[1]}
 	 * <p>
 	 * {@code name : "Three"}<br>
+	 * {@code symbol : '3'}<br>
 	 * {@code value : 3}
 	 */
-	THREE("Three", 3),
+	THREE("Three", '3', 3),
 	
 	/**
 	 * {@link Rank}{@code .values()[2]}
 	 * <p>
 	 * {@code name : "Four"}<br>
+	 * {@code symbol : '4'}<br>
 	 * {@code value : 4}
 	 */
-	FOUR("Four", 4),
+	FOUR("Four", '4', 4),
 	
 	/**
 	 * {@link Rank}{@code .values()[3]}
 	 * <p>
 	 * {@code name : "Five"}<br>
+	 * {@code symbol : '5'}<br>
 	 * {@code value : 5}
 	 */
-	FIVE("Five", 5),
+	FIVE("Five", '5', 5),
 	
 	/**
 	 * {@link Rank}{@code .values()[4]}
 	 * <p>
 	 * {@code name : "Six"}<br>
+	 * {@code symbol : '6'}<br>
 	 * {@code value : 6}
 	 */
-	SIX("Six", 6),
+	SIX("Six", '6', 6),
 	
 	/**
 	 * {@link Rank}{@code .values()[5]}
 	 * <p>
 	 * {@code name : "Seven"}<br>
+	 * {@code symbol : '7'}<br>
 	 * {@code value : 7}
 	 */
-	SEVEN("Seven", 7),
+	SEVEN("Seven", '7', 7),
 	
 	/**
 	 * {@link Rank}{@code .values()[6]}
 	 * <p>
 	 * {@code name : "Eight"}<br>
+	 * {@code symbol : '8'}<br>
 	 * {@code value : 8}
 	 */
-	EIGHT("Eight", 8),
+	EIGHT("Eight", '8', 8),
 	
 	/**
 	 * {@link Rank}{@code .values()[7]}
 	 * <p>
 	 * {@code name : "Nine"}<br>
+	 * {@code symbol : '9'}<br>
 	 * {@code value : 9}
 	 */
-	NINE("Nine", 9),
+	NINE("Nine", '9', 9),
 	
 	/**
 	 * {@link Rank}{@code .values()[8]}
 	 * <p>
 	 * {@code name : "Ten"}<br>
+	 * {@code symbol : 'T'}<br>
 	 * {@code value : 10}
 	 */
-	TEN("Ten", 10),
+	TEN("Ten", 'T', 10),
 	
 	/**
 	 * {@link Rank}{@code .values()[9]}
 	 * <p>
 	 * {@code name : "Jack"}<br>
+	 * {@code symbol : 'J'}<br>
 	 * {@code value : 11}
 	 */
-	JACK("Jack", 11),
+	JACK("Jack", 'J', 11),
 	
 	/**
 	 * {@link Rank}{@code .values()[10]}
 	 * <p>
 	 * {@code name : "Queen"}<br>
+	 * {@code symbol : 'Q'}<br>
 	 * {@code value : 12}
 	 */
-	QUEEN("Queen", 12),
+	QUEEN("Queen", 'Q', 12),
 	
 	/**
 	 * {@link Rank}{@code .values()[11]}
 	 * <p>
 	 * {@code name : "King"}<br>
+	 * {@code symbol : 'K'}<br>
 	 * {@code value : 13}
 	 */
-	KING("King", 13),
+	KING("King", 'K', 13),
 	
 	/**
 	 * {@link Rank}{@code .values()[12]}
 	 * <p>
 	 * {@code name : "Ace"}<br>
+	 * {@code symbol : 'A'}<br>
 	 * {@code value : 1}
 	 */
-	ACE("Ace", 1);
+	ACE("Ace", 'A', 1);
 	
 	
 	// Fields
@@ -144,6 +158,12 @@ public enum Rank {
 	 */
 	private final String name;
 	
+	/**
+	 * The single character symbol of this rank.
+	 * This is a primitive field.
+	 */
+	private final char symbol;
+	
 	/**
 	 * The value of this rank.
 	 * This is a primitive field.
@@ -154,13 +174,15 @@ public enum Rank {
 	// Constructors
 	
 	/**
-	 * Constructs a new rank with the specified name and value.
+	 * Constructs a new rank with the specified name, symbol and value.
 	 * 
 	 * @param name - name of this rank
+	 * @param symbol - single character symbol of this rank
 	 * @param value - value of this rank
 	 */
-	Rank(String name, int value) {
+	Rank(String name, char symbol, int value) {
 		this.name = name;
+		this.symbol = symbol;
 		this.value = value;
 	}
 	
@@ -181,6 +203,15 @@ public enum Rank {
 	
 	// Getters
 	
+	/**
+	 * Returns the single character symbol of this rank.
+	 * 
+	 * @return the single character symbol of this rank
+	 */
+	public char getSymbol() {
+		return symbol;
+	}
+	
 	/**
 	 * Returns the value of this rank.
 	 * 
@@ -0,0 +1,242 @@
+package io.github.martindes01.pickcard;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * RingBufferList is a list of cards backed by a circular array.
+ * <p>
+ * Cards are stored in a power of two sized array starting from a movable head.
+ * Insertion and removal at either end take constant time, and insertion and removal elsewhere move only the cards on the nearer side of the position.
+ * Hence, a pile backed by a ring buffer list can be dealt from or added to at the bottom as cheaply as at the top.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see PileStorage#RING
+ * @since 1.1
+ */
+class RingBufferList extends AbstractList<Card> implements RandomAccess {
+
+	// Constants
+
+	/**
+	 * The minimum capacity of the circular array, which is a power of two.
+	 */
+	private static final int MIN_CAPACITY = 16;
+
+	/**
+	 * The largest power of two capacity, since no array may have a length of {@code 2^31}.
+	 */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+
+	// Fields
+
+	/**
+	 * The circular array of cards.
+	 * Its length is always a power of two.
+	 */
+	private Card[] elements;
+
+	/**
+	 * The physical index of the card at logical index {@code 0}.
+	 */
+	private int head;
+
+	/**
+	 * The number of cards in this list.
+	 */
+	private int size;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new ring buffer list containing the specified collection of cards.
+	 *
+	 * @param collection - the collection of cards to be contained in this list
+	 */
+	RingBufferList(Collection<Card> collection) {
+		Card[] cards = collection.toArray(new Card[0]);
+		elements = Arrays.copyOf(cards, capacityFor(cards.length));
+		size = cards.length;
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the smallest power of two capacity which holds the specified number of cards.
+	 *
+	 * @param size - the number of cards
+	 * @return the smallest power of two capacity which holds the specified number of cards
+	 * @throws OutOfMemoryError if the number of cards exceeds the largest power of two capacity
+	 */
+	private static int capacityFor(long size) {
+		if (size > MAX_CAPACITY) {
+			throw new OutOfMemoryError("Required capacity " + size + " exceeds the largest ring buffer capacity " + MAX_CAPACITY);
+		}
+		return Math.max(MIN_CAPACITY, Integer.highestOneBit((int) Math.max(1, size - 1)) << 1);
+	}
+
+	/**
+	 * Returns the physical index of the specified logical index.
+	 *
+	 * @param index - the logical index
+	 * @return the physical index of the specified logical index
+	 */
+	private int physical(int index) {
+		return (head + index) & (elements.length - 1);
+	}
+
+	/**
+	 * Throws an exception if the specified index is not within the specified bound.
+	 *
+	 * @param index - the index to be checked
+	 * @param bound - the exclusive upper bound
+	 * @throws IndexOutOfBoundsException if {@code index} is negative or not less than {@code bound}
+	 */
+	private static void checkIndex(int index, int bound) {
+		if (index < 0 || index >= bound) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + bound);
+		}
+	}
+
+	/**
+	 * Opens a gap of the specified length at the specified logical index, moving the cards on the nearer side of the index.
+	 *
+	 * @param index - the logical index at which to open the gap, between {@code 0} and {@link #size}, inclusive
+	 * @param length - the length of the gap
+	 */
+	private void openGap(int index, int length) {
+		if ((long) size + length > elements.length) {
+			Card[] grown = new Card[capacityFor((long) size + length)];
+			for (int i = 0; i < size; i++) {
+				grown[i] = elements[physical(i)];
+			}
+			elements = grown;
+			head = 0;
+		}
+		if (index < size - index) {
+			// Move the lower cards down
+			head = (head - length) & (elements.length - 1);
+			for (int i = 0; i < index; i++) {
+				elements[physical(i)] = elements[physical(i + length)];
+			}
+		} else {
+			// Move the upper cards up
+			for (int i = size - 1; i >= index; i--) {
+				elements[physical(i + length)] = elements[physical(i)];
+			}
+		}
+		size += length;
+		modCount++;
+	}
+
+	/**
+	 * Closes a gap of the specified length at the specified logical index, moving the cards on the nearer side of the gap.
+	 *
+	 * @param index - the logical index of the first card to be removed
+	 * @param length - the number of cards to be removed
+	 */
+	private void closeGap(int index, int length) {
+		if (index < size - index - length) {
+			// Move the lower cards up
+			for (int i = index - 1; i >= 0; i--) {
+				elements[physical(i + length)] = elements[physical(i)];
+			}
+			for (int i = 0; i < length; i++) {
+				elements[physical(i)] = null;
+			}
+			head = physical(length);
+		} else {
+			// Move the upper cards down
+			for (int i = index; i < size - length; i++) {
+				elements[physical(i)] = elements[physical(i + length)];
+			}
+			for (int i = size - length; i < size; i++) {
+				elements[physical(i)] = null;
+			}
+		}
+		size -= length;
+		modCount++;
+	}
+
+
+	// Overrides
+
+	@Override
+	public Card get(int index) {
+		checkIndex(index, size);
+		return elements[physical(index)];
+	}
+
+	@Override
+	public Card set(int index, Card card) {
+		checkIndex(index, size);
+		int physical = physical(index);
+		Card previous = elements[physical];
+		elements[physical] = card;
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public boolean add(Card card) {
+		openGap(size, 1);
+		elements[physical(size - 1)] = card;
+		return true;
+	}
+
+	@Override
+	public void add(int index, Card card) {
+		checkIndex(index, size + 1);
+		openGap(index, 1);
+		elements[physical(index)] = card;
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Card> collection) {
+		checkIndex(index, size + 1);
+		Object[] cards = collection.toArray();
+		openGap(index, cards.length);
+		for (Object card : cards) {
+			elements[physical(index++)] = (Card) card;
+		}
+		return cards.length != 0;
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends Card> collection) {
+		return addAll(size, collection);
+	}
+
+	@Override
+	public Card remove(int index) {
+		Card card = get(index);
+		closeGap(index, 1);
+		return card;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		if (toIndex > fromIndex) {
+			closeGap(fromIndex, toIndex - fromIndex);
+		}
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(elements, null);
+		head = 0;
+		size = 0;
+		modCount++;
+	}
+
+}
@@ -0,0 +1,71 @@
+package io.github.martindes01.pickcard;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * SearchState is the state of a game as seen by {@link TreeSearch}, which searches it for the best move of the player to move.
+ * <p>
+ * A state is modelled with {@link Pile} objects, some of which may be hidden from some players, such as the hands of opponents or the undealt cards of a shoe.
+ * The search never inspects hidden piles directly: each iteration asks the state for a determinization, a state in which every pile hidden from the observer is replaced by a sample consistent with what the observer knows, and plays moves on it.
+ * Hence, a determinization must be independent of this state, but it need not copy the piles visible to the observer more often than necessary; {@link TreeSearch#redeal(RandomGenerator, List)} samples hidden piles in place.
+ * <p>
+ * Moves are compared with {@link Object#equals(Object)} and {@link Object#hashCode()} to identify the same move in different determinizations, so a move should be a value, such as a {@link Card} or a record.
+ * A state is used by one thread at a time, but the determinizations of one state are made by many threads at once, so {@link #determinize(int, RandomGenerator)} must not change this state.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @param <M> the type of moves
+ * @see TreeSearch
+ * @since 1.1
+ */
+public interface SearchState<M> {
+
+	/**
+	 * Returns the player to move, between {@code 0} and the number of players, exclusive.
+	 *
+	 * @return the player to move
+	 */
+	int getPlayer();
+
+	/**
+	 * Returns the moves available to the player to move.
+	 * The returned list is not changed by the search, and is not used after the next move is played.
+	 *
+	 * @return the moves available to the player to move, which is empty only if this state is terminal
+	 */
+	List<M> getMoves();
+
+	/**
+	 * Plays the specified move for the player to move.
+	 *
+	 * @param move - a move returned by {@link #getMoves()}
+	 */
+	void play(M move);
+
+	/**
+	 * Returns {@code true} if the game has ended.
+	 *
+	 * @return {@code true} if the game has ended
+	 */
+	boolean isTerminal();
+
+	/**
+	 * Returns the reward of the specified player in this terminal state, between {@code 0} for a loss and {@code 1} for a win, inclusive.
+	 *
+	 * @param player - the player whose reward is to be returned
+	 * @return the reward of the specified player
+	 */
+	double getReward(int player);
+
+	/**
+	 * Returns a new state in which every pile hidden from the specified player is sampled from the cards the player could not see, using the specified source of randomness.
+	 * This state is unchanged.
+	 *
+	 * @param observer - the player from whose point of view this state is sampled
+	 * @param random - the source of randomness
+	 * @return a new determinization of this state
+	 */
+	SearchState<M> determinize(int observer, RandomGenerator random);
+
+}
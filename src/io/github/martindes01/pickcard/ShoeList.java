@@ -0,0 +1,306 @@
+package io.github.martindes01.pickcard;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * ShoeList is a list of the cards of any number of copies of a deck, whose cards are materialised lazily as they are drawn.
+ * <p>
+ * Until it is changed other than by removing cards from its end, the list stores no cards: the card at each index is computed from the template of the deck.
+ * A shuffle by {@link #shuffle(RandomGenerator)} is also lazy: it is a Fisher-Yates shuffle whose steps are taken from the end of the list downwards, one step per card, only as the cards are read.
+ * The cards moved by the steps taken are held in a small hash table, so drawing {@code k} cards from a shuffled shoe takes time and memory proportional to {@code k}, however many decks the shoe holds.
+ * <p>
+ * Any other change, such as adding a card or removing a card from the middle of the list, materialises the whole list into the specified kind of storage, to which the list then delegates.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile#shoe(DeckType, int, PileStorage)
+ * @since 1.1
+ */
+class ShoeList extends AbstractList<Card> implements RandomAccess {
+
+	// Constants
+
+	/**
+	 * The initial capacity of the hash table of moved cards, which is a power of two.
+	 */
+	private static final int MIN_CAPACITY = 64;
+
+
+	// Fields
+
+	/**
+	 * The cards of one deck.
+	 * This is a reference to an array which must not be changed.
+	 */
+	private final Card[] template;
+
+	/**
+	 * The kind of storage into which this list is materialised.
+	 */
+	private final PileStorage storage;
+
+	/**
+	 * The list to which this list delegates once materialised, or {@code null}.
+	 */
+	private List<Card> materialized;
+
+	/**
+	 * The number of cards in this list, until it is materialised.
+	 */
+	private int size;
+
+	/**
+	 * The number of indices, from {@code 0}, whose cards have not yet been fixed by the lazy shuffle.
+	 */
+	private int unfixed;
+
+	/**
+	 * The source of randomness of the lazy shuffle, or {@code null} if this list has not been shuffled.
+	 */
+	private SplittableRandom random;
+
+	/**
+	 * The indices whose cards have been moved by the lazy shuffle, plus one, in an open addressing hash table, where {@code 0} marks an empty slot.
+	 */
+	private int[] keys;
+
+	/**
+	 * The positions in the unshuffled shoe of the cards at the indices in {@link #keys}.
+	 */
+	private int[] values;
+
+	/**
+	 * The number of occupied slots in the hash table.
+	 */
+	private int entries;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new list of the cards of the specified number of copies of the specified deck, in order, materialised into the specified kind of storage when changed.
+	 *
+	 * @param template - the cards of one deck, which must not be changed
+	 * @param decks - the number of copies of the deck
+	 * @param storage - the kind of storage into which this list is materialised
+	 * @throws IllegalArgumentException if the shoe would hold more than {@link Integer#MAX_VALUE} cards
+	 */
+	ShoeList(Card[] template, int decks, PileStorage storage) {
+		long size = (long) template.length * decks;
+		if (size > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Too many decks: " + decks);
+		}
+		this.template = template;
+		this.storage = storage;
+		this.size = (int) size;
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Returns the position in the unshuffled shoe of the card at the specified index.
+	 *
+	 * @param index - the index
+	 * @return the position in the unshuffled shoe of the card at the specified index
+	 */
+	private int position(int index) {
+		if (keys != null) {
+			int mask = keys.length - 1;
+			for (int slot = mix(index) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+				if (keys[slot] == index + 1) {
+					return values[slot];
+				}
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Records the position in the unshuffled shoe of the card at the specified index.
+	 *
+	 * @param index - the index
+	 * @param position - the position in the unshuffled shoe of the card at the index
+	 */
+	private void move(int index, int position) {
+		if (keys == null) {
+			keys = new int[MIN_CAPACITY];
+			values = new int[MIN_CAPACITY];
+		} else if (entries * 2 >= keys.length) {
+			rehash(keys.length * 2);
+		}
+		int mask = keys.length - 1;
+		int slot = mix(index) & mask;
+		while (keys[slot] != 0 && keys[slot] != index + 1) {
+			slot = (slot + 1) & mask;
+		}
+		if (keys[slot] == 0) {
+			keys[slot] = index + 1;
+			entries++;
+		}
+		values[slot] = position;
+	}
+
+	/**
+	 * Moves the entries of the hash table into a new table of the specified capacity.
+	 *
+	 * @param capacity - the capacity of the new table, which is a power of two
+	 */
+	private void rehash(int capacity) {
+		int[] oldKeys = keys;
+		int[] oldValues = values;
+		keys = new int[capacity];
+		values = new int[capacity];
+		int mask = capacity - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = mix(oldKeys[i] - 1) & mask;
+				while (keys[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = oldValues[i];
+			}
+		}
+	}
+
+	/**
+	 * Returns a well distributed hash of the specified index.
+	 *
+	 * @param index - the index
+	 * @return a hash of the specified index
+	 */
+	private static int mix(int index) {
+		int hash = index * 0x9E3779B9;
+		return hash ^ (hash >>> 16);
+	}
+
+	/**
+	 * Takes steps of the lazy shuffle until the card at the specified index is fixed.
+	 *
+	 * @param index - the index whose card is to be fixed
+	 */
+	private void fix(int index) {
+		while (unfixed > index) {
+			int last = --unfixed;
+			int other = random.nextInt(last + 1);
+			if (other != last) {
+				int position = position(last);
+				move(last, position(other));
+				move(other, position);
+			}
+		}
+	}
+
+	/**
+	 * Materialises this list into its kind of storage, if it has not been already.
+	 *
+	 * @return the list to which this list now delegates
+	 */
+	private List<Card> materialize() {
+		if (materialized == null) {
+			Card[] cards = new Card[size];
+			// Fix the cards from the top down, in the order of the lazy shuffle
+			for (int i = size - 1; i >= 0; i--) {
+				fix(i);
+				cards[i] = template[position(i) % template.length];
+			}
+			materialized = storage.newList(Arrays.asList(cards));
+			random = null;
+			keys = null;
+			values = null;
+		}
+		return materialized;
+	}
+
+
+	// Shuffling
+
+	/**
+	 * Shuffles this list lazily, if it has not been materialised.
+	 * All permutations occur with equal likelihood, as for {@link ShuffleMode#FISHER_YATES}.
+	 * A seed is drawn from the specified source of randomness, so it is not used after this call.
+	 *
+	 * @param random - the source of randomness
+	 * @return {@code true} if this list was shuffled, or {@code false} if it has been materialised and was not
+	 */
+	boolean shuffle(RandomGenerator random) {
+		if (materialized != null) {
+			return false;
+		}
+		this.random = new SplittableRandom(random.nextLong());
+		unfixed = size;
+		return true;
+	}
+
+
+	// Overrides
+
+	@Override
+	public Card get(int index) {
+		if (materialized != null) {
+			return materialized.get(index);
+		}
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size);
+		}
+		fix(index);
+		return template[position(index) % template.length];
+	}
+
+	@Override
+	public int size() {
+		return materialized != null ? materialized.size() : size;
+	}
+
+	@Override
+	public Card set(int index, Card card) {
+		return materialize().set(index, card);
+	}
+
+	@Override
+	public void add(int index, Card card) {
+		materialize().add(index, card);
+		modCount++;
+	}
+
+	@Override
+	public boolean addAll(int index, Collection<? extends Card> collection) {
+		modCount++;
+		return materialize().addAll(index, collection);
+	}
+
+	@Override
+	public Card remove(int index) {
+		if (materialized == null && index == size - 1) {
+			Card card = get(index);
+			size--;
+			modCount++;
+			return card;
+		}
+		modCount++;
+		return materialize().remove(index);
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		if (materialized == null && toIndex == size) {
+			if (fromIndex > 0) {
+				// Fix the removed cards, so that the remaining cards are drawn from the rest of the shoe
+				fix(fromIndex);
+			}
+			size = fromIndex;
+			unfixed = Math.min(unfixed, size);
+		} else {
+			materialize().subList(fromIndex, toIndex).clear();
+		}
+		modCount++;
+	}
+
+}
@@ -0,0 +1,138 @@
+package io.github.martindes01.pickcard;
+
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * ShuffleMode is the public enumeration of methods of shuffling a pile.
+ * <p>
+ * Each enum constant permutes a list of cards in place using a specified {@link RandomGenerator}.
+ * No state is shared between shuffles, so any number of threads may shuffle different piles at once, each with its own generator.
+ * A shuffle is reproducible when its generator is seeded, for example using {@link java.util.SplittableRandom#SplittableRandom(long)} or {@code RandomGenerator.of("Xoshiro256PlusPlus")}.
+ * <p>
+ * The available enum constants are:
+ * <ul>
+ * <li>{@link #FISHER_YATES}
+ * <li>{@link #OVERHAND}
+ * <li>{@link #RIFFLE}
+ * </ul>
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile#shuffle(ShuffleMode, RandomGenerator)
+ * @since 1.1
+ */
+public enum ShuffleMode {
+
+	/**
+	 * Randomly permutes the cards using the Fisher-Yates shuffle.
+	 * All permutations occur with equal likelihood, given a uniform generator.
+	 * No memory is allocated.
+	 */
+	FISHER_YATES {
+
+		@Override
+		void shuffle(List<Card> cards, RandomGenerator random) {
+			for (int i = cards.size() - 1; i > 0; i--) {
+				swap(cards, i, random.nextInt(i + 1));
+			}
+		}
+
+	},
+
+	/**
+	 * Performs a single overhand shuffle.
+	 * Packets of between one card and a sixth of the pile are repeatedly taken from the top and dropped onto a new pile, reversing the order of the packets but not of the cards within them.
+	 * Many overhand shuffles are needed to randomise a pile.
+	 * No memory is allocated.
+	 */
+	OVERHAND {
+
+		@Override
+		void shuffle(List<Card> cards, RandomGenerator random) {
+			int size = cards.size();
+			int maxPacket = Math.max(1, size / 6);
+			// Reversing the pile then each packet reverses the order of the packets only
+			reverse(cards, 0, size);
+			for (int from = 0; from < size; ) {
+				int to = Math.min(size, from + 1 + random.nextInt(maxPacket));
+				reverse(cards, from, to);
+				from = to;
+			}
+		}
+
+	},
+
+	/**
+	 * Performs a single riffle shuffle, following the Gilbert-Shannon-Reeds model.
+	 * The pile is cut binomially into two packets, which are interleaved by dropping a card from each packet with probability proportional to its size.
+	 * Seven riffle shuffles are needed to randomise a standard deck.
+	 * The lower packet is copied into a temporary array.
+	 */
+	RIFFLE {
+
+		@Override
+		void shuffle(List<Card> cards, RandomGenerator random) {
+			int size = cards.size();
+			// Cut at a binomially distributed position, counting one random bit per card
+			int cut = 0;
+			for (int remaining = size; remaining > 0; remaining -= Long.SIZE) {
+				long bits = random.nextLong();
+				cut += Long.bitCount(remaining < Long.SIZE ? bits & ((1L << remaining) - 1) : bits);
+			}
+			Card[] lower = cards.subList(0, cut).toArray(new Card[cut]);
+			// Writes never overtake reads from the upper packet, which remains in place
+			int i = 0;
+			int j = cut;
+			for (int k = 0; k < size; k++) {
+				int left = cut - i;
+				int right = size - j;
+				if (random.nextInt(left + right) < left) {
+					cards.set(k, lower[i++]);
+				} else {
+					cards.set(k, cards.get(j++));
+				}
+			}
+		}
+
+	};
+
+
+	// Shuffling
+
+	/**
+	 * Permutes the specified list of cards in place using the specified source of randomness.
+	 *
+	 * @param cards - the list of cards to be shuffled
+	 * @param random - the source of randomness
+	 */
+	abstract void shuffle(List<Card> cards, RandomGenerator random);
+
+
+	// Helper functions
+
+	/**
+	 * Swaps the cards at the specified positions in the specified list.
+	 *
+	 * @param cards - the list of cards
+	 * @param i - the index of one card to be swapped
+	 * @param j - the index of the other card to be swapped
+	 */
+	static void swap(List<Card> cards, int i, int j) {
+		cards.set(i, cards.set(j, cards.get(i)));
+	}
+
+	/**
+	 * Reverses the order of the cards in the specified range of the specified list.
+	 *
+	 * @param cards - the list of cards
+	 * @param from - the index of the first card to be reversed, inclusive
+	 * @param to - the index of the last card to be reversed, exclusive
+	 */
+	static void reverse(List<Card> cards, int from, int to) {
+		for (int i = from, j = to - 1; i < j; i++, j--) {
+			swap(cards, i, j);
+		}
+	}
+
+}
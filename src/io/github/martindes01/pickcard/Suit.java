@@ -3,8 +3,9 @@ package io.github.martindes01.pickcard;
 /**
  * Suit is the public enumeration of card suits.
  * <p>
- * Each enum constant encapsulates two fields.<br>
+ * Each enum constant encapsulates three fields.<br>
  * The {@code String} {@link #name} is returned using {@link #toString()}.<br>
+ * The {@code char} {@link #symbol} is returned using {@link #getSymbol()}.<br>
  * The {@link Colour} {@link #colour} is returned using {@link #getColour()}. 
  * <p>
  * The available enum constants are:
@@ -26,33 +27,37 @@ public enum Suit {
 	 * {@link Suit}{@code .values()[0]}
 	 * <p>
 	 * {@code name : "Clubs"}<br>
+	 * {@code symbol : 'C'}<br>
 	 * {@code colour : }{@link Colour#BLACK}
 	 */
-	CLUBS("Clubs", Colour.BLACK),
+	CLUBS("Clubs", 'C', Colour.BLACK),
 	
 	/**
 	 * {@link Suit}{@code .values()[1]}
 	 * <p>
 	 * {@code name : "Diamonds"}<br>
+	 * {@code symbol : 'D'}<br>
 	 * {@code colour : }{@link Colour#RED}
 	 */
-	DIAMONDS("Diamonds", Colour.RED),
+	DIAMONDS("Diamonds", 'D', Colour.RED),
 	
 	/**
 	 * {@link Suit}{@code .values()[2]}
 	 * <p>
 	 * {@code name : "Hearts"}<br>
+	 * {@code symbol : 'H'}<br>
 	 * {@code colour : }{@link Colour#RED}
 	 */
-	HEARTS("Hearts", Colour.RED),
+	HEARTS("Hearts", 'H', Colour.RED),
 	
 	/**
 	 * {@link Suit}{@code .values()[3]}
 	 * <p>
 	 * {@code name : "Spades"}<br>
+	 * {@code symbol : 'S'}<br>
 	 * {@code colour : }{@link Colour#BLACK}
 	 */
-	SPADES("Spades", Colour.BLACK);
+	SPADES("Spades", 'S', Colour.BLACK);
 	
 	
 	// Fields
@@ -63,6 +68,12 @@ public enum Suit {
 	 */
 	private final String name;
 	
+	/**
+	 * The single character symbol of this suit.
+	 * This is a primitive field.
+	 */
+	private final char symbol;
+	
 	/**
 	 * The colour of this suit.
 	 * This is a reference to an immutable object.
@@ -73,13 +84,15 @@ public enum Suit {
 	// Constructors
 	
 	/**
-	 * Constructs a new suit with the specified name and colour.
+	 * Constructs a new suit with the specified name, symbol and colour.
 	 * 
 	 * @param name - the name of this suit
+	 * @param symbol - the single character symbol of this suit
 	 * @param colour - the colour of this suit
 	 */
-	Suit(String name, Colour colour) {
+	Suit(String name, char symbol, Colour colour) {
 		this.name = name;
+		this.symbol = symbol;
 		this.colour = colour;
 	}
 	
@@ -109,4 +122,13 @@ public enum Suit {
 		return colour;
 	}
 	
+	/**
+	 * Returns the single character symbol of this suit.
+	 * 
+	 * @return the single character symbol of this suit
+	 */
+	public char getSymbol() {
+		return symbol;
+	}
+	
 }
@@ -0,0 +1,415 @@
+package io.github.martindes01.pickcard;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.random.RandomGenerator;
+
+/**
+ * TreeSearch is an information set Monte Carlo tree search, which chooses the move of a player in a game of imperfect information.
+ * <p>
+ * Each iteration of the search samples a determinization of the game, in which the piles hidden from the player are dealt at random, and walks the tree of moves from its root, playing each move on the determinization.
+ * Moves are chosen among those available in the determinization by the upper confidence bound of their rewards, where the number of times a move was available stands in for the number of visits to its parent.
+ * The first move not yet in the tree is added to it, and the game is played out with random moves, whose result is added to the rewards of the moves walked.
+ * Hence, one determinization is made per iteration, and no pile is copied as the tree is walked or expanded.
+ * <p>
+ * Iterations are run by a fixed pool of threads sharing one tree.
+ * The statistics of each move are updated atomically without locks, and a move is counted as visited with no reward as soon as it is walked, a virtual loss which steers concurrent iterations towards other moves until its result is added.
+ * <p>
+ * The tree is kept between searches: once the chosen move and any moves of other players have been played, passing each of them to {@link #advance(Object)} makes the subtree of the resulting state the root of the next search.
+ * A search is used by one thread at a time, and should be closed once no longer needed to stop its threads.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @param <M> the type of moves
+ * @see SearchState
+ * @since 1.1
+ */
+public class TreeSearch<M> implements AutoCloseable {
+
+	// Nested classes
+
+	/**
+	 * A node of the search tree, holding the statistics of the move leading to it.
+	 */
+	private static final class Node {
+
+		/**
+		 * The updater of {@link #visits}.
+		 */
+		private static final AtomicIntegerFieldUpdater<Node> VISITS = AtomicIntegerFieldUpdater.newUpdater(Node.class, "visits");
+
+		/**
+		 * The updater of {@link #availability}.
+		 */
+		private static final AtomicIntegerFieldUpdater<Node> AVAILABILITY = AtomicIntegerFieldUpdater.newUpdater(Node.class, "availability");
+
+		/**
+		 * The updater of {@link #reward}.
+		 */
+		private static final AtomicLongFieldUpdater<Node> REWARD = AtomicLongFieldUpdater.newUpdater(Node.class, "reward");
+
+		/**
+		 * The player who made the move leading to this node, or {@code -1} for the root.
+		 */
+		final int player;
+
+		/**
+		 * The children of this node by move.
+		 * This is a reference to a thread-safe object.
+		 */
+		final ConcurrentHashMap<Object, Node> children = new ConcurrentHashMap<>();
+
+		/**
+		 * The number of iterations which walked the move leading to this node, including those still running.
+		 */
+		volatile int visits;
+
+		/**
+		 * The number of iterations in which the move leading to this node was available.
+		 */
+		volatile int availability;
+
+		/**
+		 * The total reward of the player who made the move leading to this node, in units of {@code 1 / REWARD_SCALE}.
+		 */
+		volatile long reward;
+
+		/**
+		 * Constructs a new node for a move by the specified player.
+		 *
+		 * @param player - the player who made the move leading to this node
+		 */
+		Node(int player) {
+			this.player = player;
+		}
+
+		/**
+		 * Returns the upper confidence bound of the reward of the move leading to this node.
+		 *
+		 * @param exploration - the weight of the exploration term
+		 * @return the upper confidence bound of the reward of the move leading to this node
+		 */
+		double score(double exploration) {
+			int visits = this.visits;
+			if (visits == 0) {
+				return Double.POSITIVE_INFINITY;
+			}
+			double mean = (double) reward / REWARD_SCALE / visits;
+			return mean + exploration * Math.sqrt(Math.log(availability) / visits);
+		}
+
+	}
+
+
+	// Constants
+
+	/**
+	 * The number of units of reward in a reward of {@code 1}, so that rewards are summed exactly in a {@code long}.
+	 */
+	private static final long REWARD_SCALE = 1L << 20;
+
+	/**
+	 * The default weight of the exploration term, suited to rewards between {@code 0} and {@code 1}.
+	 */
+	public static final double DEFAULT_EXPLORATION = 0.7;
+
+
+	// Fields
+
+	/**
+	 * The threads running iterations.
+	 * This is a reference to a thread-safe object.
+	 */
+	private final ExecutorService executor;
+
+	/**
+	 * The number of threads running iterations.
+	 */
+	private final int parallelism;
+
+	/**
+	 * The weight of the exploration term of the upper confidence bound.
+	 */
+	private final double exploration;
+
+	/**
+	 * The source of the seeds of the threads.
+	 */
+	private final SplittableRandom random;
+
+	/**
+	 * The root of the search tree.
+	 */
+	private Node root = new Node(-1);
+
+	/**
+	 * The number of iterations run by the most recent search.
+	 */
+	private long iterations;
+
+
+	// Constructors
+
+	/**
+	 * Constructs a new search running one thread per available processor, with the default exploration weight.
+	 */
+	public TreeSearch() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_EXPLORATION, new SplittableRandom());
+	}
+
+	/**
+	 * Constructs a new search running the specified number of threads, with the specified exploration weight and source of randomness.
+	 * A search is reproducible only if it runs one thread, since the interleaving of threads is not.
+	 *
+	 * @param parallelism - the number of threads running iterations
+	 * @param exploration - the weight of the exploration term of the upper confidence bound
+	 * @param random - the source of the seeds of the threads
+	 * @throws IllegalArgumentException if {@code parallelism} is not positive
+	 */
+	public TreeSearch(int parallelism, double exploration, SplittableRandom random) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("Non-positive parallelism: " + parallelism);
+		}
+		this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+			Thread thread = new Thread(runnable, "tree-search");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.parallelism = parallelism;
+		this.exploration = exploration;
+		this.random = random;
+	}
+
+
+	// Helper functions
+
+	/**
+	 * Runs one iteration of the search from the specified state.
+	 *
+	 * @param state - the state of the game at the root
+	 * @param observer - the player to move at the root
+	 * @param random - the source of randomness of the current thread
+	 * @param path - a list to hold the nodes walked, reused between iterations
+	 */
+	private void iterate(SearchState<M> state, int observer, RandomGenerator random, List<Node> path) {
+		SearchState<M> game = state.determinize(observer, random);
+		path.clear();
+		Node node = root;
+		// Walk the tree until a move is added or the game ends
+		while (!game.isTerminal()) {
+			int player = game.getPlayer();
+			M untried = null;
+			int untriedCount = 0;
+			M best = null;
+			Node bestChild = null;
+			double bestScore = Double.NEGATIVE_INFINITY;
+			for (M move : game.getMoves()) {
+				Node child = node.children.get(move);
+				if (child == null) {
+					// Choose uniformly among the untried moves in a single pass
+					if (random.nextInt(++untriedCount) == 0) {
+						untried = move;
+					}
+				} else {
+					Node.AVAILABILITY.incrementAndGet(child);
+					double score = child.score(exploration);
+					if (score > bestScore) {
+						best = move;
+						bestChild = child;
+						bestScore = score;
+					}
+				}
+			}
+			if (untried != null) {
+				Node added = new Node(player);
+				Node child = node.children.putIfAbsent(untried, added);
+				if (child == null) {
+					child = added;
+				}
+				Node.AVAILABILITY.incrementAndGet(child);
+				Node.VISITS.incrementAndGet(child);
+				path.add(child);
+				game.play(untried);
+				break;
+			}
+			// Count the visit now as a virtual loss
+			Node.VISITS.incrementAndGet(bestChild);
+			path.add(bestChild);
+			game.play(best);
+			node = bestChild;
+		}
+		// Play out the game with random moves
+		while (!game.isTerminal()) {
+			List<M> moves = game.getMoves();
+			game.play(moves.get(random.nextInt(moves.size())));
+		}
+		for (Node walked : path) {
+			Node.REWARD.addAndGet(walked, Math.round(game.getReward(walked.player) * REWARD_SCALE));
+		}
+	}
+
+
+	// Searching
+
+	/**
+	 * Searches the specified state for the specified duration, and returns the move of the player to move which was visited most often.
+	 * <p>
+	 * The tree kept from earlier searches is extended, so the state must be the one reached by the moves passed to {@link #advance(Object)}.
+	 * If only one move is available, it is returned without searching.
+	 *
+	 * @param state - the state of the game, as seen by the player to move
+	 * @param budget - the duration of the search
+	 * @return the chosen move
+	 * @throws IllegalArgumentException if the state is terminal
+	 * @throws InterruptedException if the current thread is interrupted while waiting for the search
+	 */
+	public M search(SearchState<M> state, Duration budget) throws InterruptedException {
+		List<M> moves = state.getMoves();
+		if (state.isTerminal() || moves.isEmpty()) {
+			throw new IllegalArgumentException("No moves in a terminal state");
+		} else if (moves.size() == 1) {
+			iterations = 0;
+			return moves.get(0);
+		}
+		int observer = state.getPlayer();
+		long deadline = System.nanoTime() + budget.toNanos();
+		List<Future<Long>> workers = new ArrayList<>(parallelism);
+		for (int i = 0; i < parallelism; i++) {
+			SplittableRandom workerRandom = random.split();
+			workers.add(executor.submit(() -> {
+				List<Node> path = new ArrayList<>();
+				long count = 0;
+				do {
+					iterate(state, observer, workerRandom, path);
+					count++;
+				} while (System.nanoTime() < deadline);
+				return count;
+			}));
+		}
+		iterations = 0;
+		try {
+			for (Future<Long> worker : workers) {
+				iterations += worker.get();
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			// The state throws no checked exceptions
+			throw (RuntimeException) cause;
+		} finally {
+			for (Future<Long> worker : workers) {
+				worker.cancel(true);
+			}
+		}
+		// Choose the available move visited most often
+		M best = moves.get(0);
+		int bestVisits = -1;
+		for (M move : moves) {
+			Node child = root.children.get(move);
+			if (child != null && child.visits > bestVisits) {
+				best = move;
+				bestVisits = child.visits;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Makes the subtree reached by the specified move the root of the next search, discarding the rest of the tree.
+	 * Each move played in the game, by any player, should be passed to this method in order.
+	 * If the move is not in the tree, the tree is discarded.
+	 *
+	 * @param move - the move played
+	 */
+	public void advance(M move) {
+		Node child = root.children.get(move);
+		root = child != null ? child : new Node(-1);
+	}
+
+	/**
+	 * Discards the search tree, such as at the start of a new game.
+	 */
+	public void reset() {
+		root = new Node(-1);
+	}
+
+	/**
+	 * Deals the cards of the specified piles among them at random, keeping the number of cards in each pile.
+	 * This samples the piles hidden from a player, such as the hands of opponents and the undealt cards of a shoe, when making a determinization.
+	 * The piles are changed in place, so no piles are allocated.
+	 * Each change is made through the pile like any other, so open views of the piles are invalidated, undoable piles record it and journaling piles journal it.
+	 *
+	 * @param random - the source of randomness
+	 * @param hidden - the piles whose cards are to be dealt among them
+	 */
+	public static void redeal(RandomGenerator random, List<Pile> hidden) {
+		int size = 0;
+		for (Pile pile : hidden) {
+			size += pile.size();
+		}
+		Card[] pool = new Card[size];
+		int count = 0;
+		for (Pile pile : hidden) {
+			for (Card card : pile.getList()) {
+				pool[count++] = card;
+			}
+		}
+		for (int i = pool.length - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			Card card = pool[i];
+			pool[i] = pool[j];
+			pool[j] = card;
+		}
+		count = 0;
+		for (Pile pile : hidden) {
+			Card[] cards = Arrays.copyOfRange(pool, count, count + pile.size());
+			count += cards.length;
+			pile.replaceCards(0, cards);
+		}
+	}
+
+
+	// Getters
+
+	/**
+	 * Returns the number of iterations run by the most recent search, across all threads.
+	 *
+	 * @return the number of iterations run by the most recent search
+	 */
+	public long getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Returns the number of threads running iterations.
+	 *
+	 * @return the number of threads running iterations
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+
+	// Overrides
+
+	/**
+	 * Stops the threads of this search.
+	 */
+	@Override
+	public void close() {
+		executor.shutdownNow();
+	}
+
+}
@@ -0,0 +1,368 @@
+package io.github.martindes01.pickcard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.ListIterator;
+
+/**
+ * UndoLog is a log of the inverse operations of the changes made to a {@link Pile}, from which changes are undone and redone.
+ * <p>
+ * Each change is recorded by the smallest description from which it can be both undone and redone.
+ * An insertion or removal records the range of cards inserted or removed, so undoing it takes time proportional to the number of cards and not to the size of the pile.
+ * Reversing and toggling are their own inverses, and record nothing but the fact of the change.
+ * Any other rearrangement records the previous order of the cards; since cards are canonical, this is an array of references equivalent to the permutation applied.
+ * <p>
+ * Undone changes are kept until the next recorded change, so that the most recent rollback may be redone.
+ *
+ * @author Martin de Spirlet
+ * @version 1.1
+ * @see Pile#mark()
+ * @since 1.1
+ */
+final class UndoLog {
+
+	// Nested classes
+
+	/**
+	 * A change to a list of cards, which may be undone and redone.
+	 */
+	private abstract static class Change {
+
+		/**
+		 * Undoes this change to the specified list, which must be in the state immediately after the change.
+		 *
+		 * @param cards - the list of cards
+		 */
+		abstract void undo(List<Card> cards);
+
+		/**
+		 * Redoes this change to the specified list, which must be in the state immediately before the change.
+		 *
+		 * @param cards - the list of cards
+		 */
+		abstract void redo(List<Card> cards);
+
+	}
+
+	/**
+	 * The insertion or removal of a contiguous range of cards.
+	 */
+	private static final class Range extends Change {
+
+		/**
+		 * The index of the first card in the range.
+		 */
+		private final int index;
+
+		/**
+		 * The cards in the range.
+		 */
+		private final Card[] range;
+
+		/**
+		 * Whether the range was inserted, rather than removed.
+		 */
+		private final boolean inserted;
+
+		/**
+		 * Constructs a new change inserting or removing the specified range of cards at the specified index.
+		 *
+		 * @param index - the index of the first card in the range
+		 * @param range - the cards in the range
+		 * @param inserted - whether the range was inserted, rather than removed
+		 */
+		Range(int index, Card[] range, boolean inserted) {
+			this.index = index;
+			this.range = range;
+			this.inserted = inserted;
+		}
+
+		/**
+		 * Removes the range from the specified list.
+		 *
+		 * @param cards - the list of cards
+		 */
+		private void remove(List<Card> cards) {
+			if (range.length == 1) {
+				cards.remove(index);
+			} else {
+				cards.subList(index, index + range.length).clear();
+			}
+		}
+
+		/**
+		 * Inserts the range into the specified list.
+		 *
+		 * @param cards - the list of cards
+		 */
+		private void insert(List<Card> cards) {
+			if (range.length == 1) {
+				cards.add(index, range[0]);
+			} else {
+				cards.addAll(index, Arrays.asList(range));
+			}
+		}
+
+		@Override
+		void undo(List<Card> cards) {
+			if (inserted) {
+				remove(cards);
+			} else {
+				insert(cards);
+			}
+		}
+
+		@Override
+		void redo(List<Card> cards) {
+			if (inserted) {
+				insert(cards);
+			} else {
+				remove(cards);
+			}
+		}
+
+	}
+
+	/**
+	 * The reversal of the whole list, which is its own inverse.
+	 */
+	private static final class Reversal extends Change {
+
+		@Override
+		void undo(List<Card> cards) {
+			Collections.reverse(cards);
+		}
+
+		@Override
+		void redo(List<Card> cards) {
+			Collections.reverse(cards);
+		}
+
+	}
+
+	/**
+	 * The toggling of the face visibility of every card, which is its own inverse.
+	 */
+	private static final class Toggle extends Change {
+
+		@Override
+		void undo(List<Card> cards) {
+			if (cards instanceof FaceBitmapList) {
+				((FaceBitmapList) cards).toggleFaceUp(0, cards.size());
+				return;
+			}
+			for (ListIterator<Card> iterator = cards.listIterator(); iterator.hasNext(); ) {
+				Card card = iterator.next();
+				// Prevent NullPointerException (thrown if card null)
+				if (card != null) {
+					iterator.set(card.withFaceToggled());
+				}
+			}
+		}
+
+		@Override
+		void redo(List<Card> cards) {
+			undo(cards);
+		}
+
+	}
+
+	/**
+	 * The replacement of every card, recorded as the other order of the cards.
+	 * Undoing or redoing the change swaps the order of the list with the recorded order.
+	 */
+	private static final class Replacement extends Change {
+
+		/**
+		 * The order of the cards before the change if it is done, or after the change if it is undone.
+		 */
+		private Card[] other;
+
+		/**
+		 * Constructs a new change which replaced the specified order of cards.
+		 *
+		 * @param previous - the order of the cards before the change
+		 */
+		Replacement(Card[] previous) {
+			this.other = previous;
+		}
+
+		/**
+		 * Swaps the order of the specified list with the recorded order.
+		 *
+		 * @param cards - the list of cards
+		 */
+		private void swap(List<Card> cards) {
+			Card[] current = cards.toArray(new Card[0]);
+			if (current.length == other.length) {
+				for (int i = 0; i < other.length; i++) {
+					cards.set(i, other[i]);
+				}
+			} else {
+				cards.clear();
+				cards.addAll(Arrays.asList(other));
+			}
+			other = current;
+		}
+
+		@Override
+		void undo(List<Card> cards) {
+			swap(cards);
+		}
+
+		@Override
+		void redo(List<Card> cards) {
+			swap(cards);
+		}
+
+	}
+
+
+	// Fields
+
+	/**
+	 * The changes done, oldest first.
+	 */
+	private final ArrayList<Change> done = new ArrayList<>();
+
+	/**
+	 * The changes undone, most recently undone last.
+	 */
+	private final ArrayList<Change> undone = new ArrayList<>();
+
+	/**
+	 * The number of changes undone before each rollback which may be redone, most recent last.
+	 */
+	private int[] rollbacks = new int[4];
+
+	/**
+	 * The number of rollbacks which may be redone.
+	 */
+	private int rollbackCount;
+
+
+	// Helper functions
+
+	/**
+	 * Records the specified change as done, discarding any changes which may be redone.
+	 *
+	 * @param change - the change done
+	 */
+	private void record(Change change) {
+		if (!undone.isEmpty() || rollbackCount != 0) {
+			undone.clear();
+			rollbackCount = 0;
+		}
+		done.add(change);
+	}
+
+
+	// Recording
+
+	/**
+	 * Records the insertion of the cards now in the specified range of the specified list.
+	 * Nothing is recorded if the range is empty.
+	 *
+	 * @param cards - the list of cards
+	 * @param from - the index of the first inserted card, inclusive
+	 * @param to - the index of the last inserted card, exclusive
+	 */
+	void inserted(List<Card> cards, int from, int to) {
+		if (from < to) {
+			Card[] range = to - from == 1 ? new Card[] { cards.get(from) } : cards.subList(from, to).toArray(new Card[0]);
+			record(new Range(from, range, true));
+		}
+	}
+
+	/**
+	 * Records the removal of the specified cards, the first of which was at the specified index.
+	 * Nothing is recorded if no cards were removed.
+	 *
+	 * @param index - the index of the first removed card
+	 * @param range - the removed cards
+	 */
+	void removed(int index, Card... range) {
+		if (range.length > 0) {
+			record(new Range(index, range, false));
+		}
+	}
+
+	/**
+	 * Records the reversal of the list.
+	 */
+	void reversed() {
+		record(new Reversal());
+	}
+
+	/**
+	 * Records the toggling of the face visibility of every card.
+	 */
+	void toggled() {
+		record(new Toggle());
+	}
+
+	/**
+	 * Records a change to the whole list, which previously held the specified cards.
+	 *
+	 * @param previous - the cards in the list before the change
+	 */
+	void replaced(Card[] previous) {
+		record(new Replacement(previous));
+	}
+
+
+	// Undoing and redoing
+
+	/**
+	 * Returns the number of changes done, which identifies the current state of the list.
+	 *
+	 * @return the number of changes done
+	 */
+	int mark() {
+		return done.size();
+	}
+
+	/**
+	 * Undoes the changes done to the specified list since the specified mark, most recent first.
+	 *
+	 * @param cards - the list of cards
+	 * @param mark - the mark to which the list is to be rolled back
+	 * @throws IllegalArgumentException if the mark is negative or later than the current state
+	 */
+	void rollback(List<Card> cards, int mark) {
+		if (mark < 0 || mark > done.size()) {
+			throw new IllegalArgumentException("Invalid mark: " + mark);
+		}
+		if (rollbackCount == rollbacks.length) {
+			rollbacks = Arrays.copyOf(rollbacks, rollbackCount * 2);
+		}
+		rollbacks[rollbackCount++] = undone.size();
+		while (done.size() > mark) {
+			Change change = done.remove(done.size() - 1);
+			change.undo(cards);
+			undone.add(change);
+		}
+	}
+
+	/**
+	 * Redoes the changes to the specified list undone by the most recent rollback which has not been redone, oldest first.
+	 *
+	 * @param cards - the list of cards
+	 * @return {@code true} if a rollback was redone
+	 */
+	boolean redo(List<Card> cards) {
+		if (rollbackCount == 0) {
+			return false;
+		}
+		int target = rollbacks[--rollbackCount];
+		while (undone.size() > target) {
+			Change change = undone.remove(undone.size() - 1);
+			change.redo(cards);
+			done.add(change);
+		}
+		return true;
+	}
+
+}